@@ -8,7 +8,9 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -40,6 +42,7 @@ public class DataInitializer implements CommandLineRunner {
         }
 
         // Seed 20 metrics with node/network relationship preserved
+        List<PerformanceData> seed = new ArrayList<>();
         for (int i = 0; i < 20; i++) {
             int nodeIndex = i % 20;
             int nodeId = 100 + nodeIndex;
@@ -55,7 +58,8 @@ public class DataInitializer implements CommandLineRunner {
             data.setErrorRate(errorRate.doubleValue());
             data.setTimestamp(LocalDateTime.now().minusMinutes((long) i * 3));
 
-            repository.save(data);
+            seed.add(data);
         }
+        repository.saveAll(seed);
     }
 }
@@ -1,36 +1,137 @@
 package com.ericsson.config;
 
 import com.ericsson.model.PerformanceData;
+import com.ericsson.serialization.PerformanceDataDeserializer;
+import com.ericsson.serialization.PerformanceDataSerializer;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    public static final String PERFORMANCE_TOPIC = "network-performance";
+    public static final String PERFORMANCE_DLT_TOPIC = PERFORMANCE_TOPIC + "-dlt";
+    public static final String PERFORMANCE_GROUP = "network-performance-group";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Records are keyed by nodeId, so partitions bound the useful listener concurrency
+    @Value("${kafka.topic.partitions:6}")
+    private int topicPartitions;
+
+    @Value("${kafka.topic.replicas:1}")
+    private short topicReplicas;
+
+    @Value("${kafka.consumer.concurrency:3}")
+    private int listenerConcurrency;
+
+    // json | binary; consumers read both, so switch producers only after consumers are upgraded
+    @Value("${kafka.producer.value-format:json}")
+    private String producerValueFormat;
+
+    // Producer batching: wait up to linger-ms to fill batch-size bytes per partition, then compress the batch
+    @Value("${kafka.producer.linger-ms:20}")
+    private int producerLingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String producerCompressionType;
+
+    @Value("${kafka.producer.enable-idempotence:true}")
+    private boolean producerIdempotence;
+
+    // Batch listener tuning (only used when kafka.consumer.batch.enabled=true)
+    @Value("${kafka.consumer.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${kafka.consumer.batch.fetch-max-wait-ms:500}")
+    private int batchFetchMaxWaitMs;
+
+    @Value("${kafka.consumer.batch.commit-interval-ms:1000}")
+    private long batchCommitIntervalMs;
+
+    // Backoff shared by the retry topics (record listener) and the batch error handler
+    @Value("${kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${kafka.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+
+    @Value("${kafka.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${kafka.retry.max-delay-ms:30000}")
+    private long retryMaxDelayMs;
+
+    @Value("${kafka.dlt.replay.max-poll-records:500}")
+    private int dltReplayMaxPollRecords;
+
+    /**
+     * Created (or grown) on startup by KafkaAdmin. Adding partitions to an existing topic
+     * remaps node keys once, so per-node ordering only holds from that point on.
+     */
+    @Bean
+    public NewTopic performanceTopic() {
+        return TopicBuilder.name(PERFORMANCE_TOPIC)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
+                .build();
+    }
+
+    /**
+     * Same partition count as the main topic: dead letters keep their source partition
+     */
+    @Bean
+    public NewTopic performanceDeadLetterTopic() {
+        return TopicBuilder.name(PERFORMANCE_DLT_TOPIC)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
+                .build();
+    }
+
     @Bean
     public ProducerFactory<String, PerformanceData> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producerIdempotence);
+        if (producerIdempotence) {
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all"); // required by the idempotent producer
+        }
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer());
     }
 
     @Bean
@@ -38,19 +139,65 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Template for retry topics, the DLT and DLT replay. Besides PerformanceData it has to write
+     * raw bytes: records that could not be deserialized, and DLT records being replayed.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producerIdempotence);
+        if (producerIdempotence) {
+            configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        DelegatingByTypeSerializer valueSerializer = new DelegatingByTypeSerializer(Map.of(
+                byte[].class, new ByteArraySerializer(),
+                PerformanceData.class, valueSerializer()));
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer));
+    }
+
     @Bean
     public ConsumerFactory<String, PerformanceData> consumerFactory() {
-        JsonDeserializer<PerformanceData> deserializer = new JsonDeserializer<>(PerformanceData.class, false);
-        deserializer.addTrustedPackages("*");
-        deserializer.setRemoveTypeHeaders(false);
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), valueDeserializer());
+    }
+
+    /**
+     * Consumer factory for the batch listener: larger polls so each batch maps to one saveAll
+     */
+    @Bean
+    public ConsumerFactory<String, PerformanceData> batchConsumerFactory() {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchFetchMaxWaitMs);
 
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer());
+    }
+
+    /**
+     * Consumer of the MetricsViewFeed: a group of its own per instance, so every instance is assigned
+     * every partition. The feed seeks by time when it starts; offsets are committed for rebalances only.
+     */
+    @Bean
+    public ConsumerFactory<String, PerformanceData> viewConsumerFactory() {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, PERFORMANCE_GROUP + "-views-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer());
+    }
+
+    /**
+     * Raw consumer for the admin DLT replay; values are forwarded to the main topic untouched
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> deadLetterReplayConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "network-performance-group");
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, dltReplayMaxPollRecords);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer());
     }
 
     @Bean
@@ -58,6 +205,76 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, PerformanceData> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PerformanceData> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PerformanceData> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        factory.setBatchListener(true);
+        // Commit offsets on a timer instead of after every poll
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.TIME);
+        factory.getContainerProperties().setAckTime(batchCommitIntervalMs);
+        factory.setCommonErrorHandler(batchErrorHandler());
         return factory;
     }
+
+    /**
+     * A single consumer for all partitions, so the views see the samples of every node in order
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PerformanceData> viewKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PerformanceData> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(viewConsumerFactory());
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    /**
+     * Retry topics only work with record listeners, so batch mode retries the failed part of
+     * a poll with backoff before dead-lettering it. Constraint violations will never succeed
+     * and go to the DLT straight away.
+     */
+    private DefaultErrorHandler batchErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate(),
+                (consumerRecord, exception) -> new TopicPartition(PERFORMANCE_DLT_TOPIC, consumerRecord.partition()));
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryAttempts - 1);
+        backOff.setInitialInterval(retryInitialDelayMs);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxDelayMs);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        errorHandler.addNotRetryableExceptions(DataIntegrityViolationException.class);
+        return errorHandler;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, PERFORMANCE_GROUP);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        return props;
+    }
+
+    private Serializer<PerformanceData> valueSerializer() {
+        return switch (producerValueFormat.toLowerCase()) {
+            case "json" -> new JsonSerializer<>();
+            case "binary" -> new PerformanceDataSerializer();
+            default -> throw new IllegalArgumentException("Invalid kafka.producer.value-format: " + producerValueFormat);
+        };
+    }
+
+    /**
+     * Undecodable records reach the listener error handling (and from there the DLT)
+     * instead of failing the poll over and over
+     */
+    private ErrorHandlingDeserializer<PerformanceData> valueDeserializer() {
+        return new ErrorHandlingDeserializer<>(new PerformanceDataDeserializer());
+    }
 }
@@ -2,20 +2,32 @@ package com.ericsson.controller;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 import com.ericsson.dto.EngineerDto;
+import com.ericsson.dto.ThresholdRuleDto;
+import com.ericsson.exception.InvalidUserInputException;
+import com.ericsson.service.DeadLetterService;
+import com.ericsson.service.ThresholdRuleService;
 import com.ericsson.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/performance")
 public class AdminController {
+    private static final int MAX_REPLAY_RECORDS = 100_000;
+
     private final UserService userService;
-    public AdminController(final UserService userService) {
+    private final DeadLetterService deadLetterService;
+    private final ThresholdRuleService thresholdRuleService;
+    public AdminController(final UserService userService, final DeadLetterService deadLetterService,
+                           final ThresholdRuleService thresholdRuleService) {
         this.userService = userService;
+        this.deadLetterService = deadLetterService;
+        this.thresholdRuleService = thresholdRuleService;
     }
 
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -30,4 +42,58 @@ public class AdminController {
         resource.add(linkTo(methodOn(AdminController.class).createEngineer(dto)).withSelfRel());
         return ResponseEntity.ok(resource);
     }
+
+    /**
+     * Republish parked records from the dead-letter topic onto network-performance
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(@RequestParam(defaultValue = "1000") final int maxRecords) {
+        if (maxRecords < 1 || maxRecords > MAX_REPLAY_RECORDS) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", "maxRecords must be between 1 and " + MAX_REPLAY_RECORDS);
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        int replayed = deadLetterService.replay(maxRecords);
+        Map<String, Object> response = new HashMap<>();
+        response.put("replayed", replayed);
+        response.put("message", "Replayed " + replayed + " dead-letter records");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Health threshold rules: the effective global thresholds, then network and node overrides
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    @GetMapping("/thresholds")
+    public ResponseEntity<List<ThresholdRuleDto>> getThresholdRules() {
+        return ResponseEntity.ok(thresholdRuleService.getRules());
+    }
+
+    /**
+     * Add or replace the rule of one scope; takes effect for all following classifications
+     */
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PutMapping("/thresholds")
+    public ResponseEntity<Object> putThresholdRule(@RequestBody final ThresholdRuleDto rule) {
+        try {
+            return ResponseEntity.ok(thresholdRuleService.putRule(rule));
+        } catch (InvalidUserInputException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @DeleteMapping("/thresholds")
+    public ResponseEntity<Object> deleteThresholdRule(@RequestParam final String scope,
+                                                      @RequestParam(required = false) final Integer scopeId) {
+        try {
+            return thresholdRuleService.deleteRule(scope, scopeId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (InvalidUserInputException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
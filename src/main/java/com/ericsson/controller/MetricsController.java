@@ -1,13 +1,28 @@
 package com.ericsson.controller;
 
+import com.ericsson.dto.AlertDto;
+import com.ericsson.dto.NodeStatusDto;
 import com.ericsson.model.PerformanceData;
+import com.ericsson.model.RollupScope;
 import com.ericsson.service.MetricsService;
+import com.ericsson.service.SampleHistoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -16,10 +31,15 @@ import java.util.Map;
 public class MetricsController {
 
     private final MetricsService metricsService;
+    private final SampleHistoryService historyService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public MetricsController(MetricsService metricsService) {
+    public MetricsController(MetricsService metricsService, SampleHistoryService historyService,
+                             ObjectMapper objectMapper) {
         this.metricsService = metricsService;
+        this.historyService = historyService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -49,27 +69,160 @@ public class MetricsController {
      */
     @GetMapping("/alerts")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
-    public ResponseEntity<List<PerformanceData>> getAnomalyAlerts() {
-        List<PerformanceData> alerts = metricsService.detectAnomalies();
+    public ResponseEntity<List<NodeStatusDto>> getAnomalyAlerts() {
+        List<NodeStatusDto> alerts = metricsService.detectAnomalies();
         return ResponseEntity.ok(alerts);
     }
 
+    /**
+     * Nodes within the thresholds that deviate from their own baseline
+     */
+    @GetMapping("/alerts/deviations")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<List<NodeStatusDto>> getBaselineDeviations() {
+        return ResponseEntity.ok(metricsService.detectDeviations());
+    }
+
+    /**
+     * Pending and firing alerts, one per node and condition
+     */
+    @GetMapping("/alerts/active")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<List<AlertDto>> getActiveAlerts() {
+        return ResponseEntity.ok(metricsService.getActiveAlerts());
+    }
+
+    /**
+     * Alert state changes (pending, firing, resolved) after afterSequence; poll again with the
+     * returned nextSequence
+     */
+    @GetMapping("/alerts/transitions")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<Map<String, Object>> getAlertTransitions(
+            @RequestParam(defaultValue = "0") long afterSequence,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(metricsService.getAlertTransitions(afterSequence, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Get nodes grouped by health status
      */
     @GetMapping("/health-status")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
-    public ResponseEntity<Map<String, List<PerformanceData>>> getNodesByHealthStatus() {
-        Map<String, List<PerformanceData>> healthGroups = metricsService.getNodesByHealthStatus();
+    public ResponseEntity<Map<String, List<NodeStatusDto>>> getNodesByHealthStatus() {
+        Map<String, List<NodeStatusDto>> healthGroups = metricsService.getNodesByHealthStatus();
         return ResponseEntity.ok(healthGroups);
     }
 
     // Get KPI summary for a specific time range for historical analysis
+    // Either a named range, or an exact from/to (ISO date-time)
     @GetMapping("/summary/range")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
-    public ResponseEntity<Map<String, Object>> getSummaryForRange(@RequestParam String range) {
-        Map<String, Object> summary = metricsService.getKpiSummaryForRange(range);
-        return ResponseEntity.ok(summary);
+    public ResponseEntity<Map<String, Object>> getSummaryForRange(
+            @RequestParam(required = false) String range,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (range != null) {
+            return ResponseEntity.ok(metricsService.getKpiSummaryForRange(range));
+        }
+        if (from == null || to == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Either 'range' or both 'from' and 'to' are required"));
+        }
+        try {
+            return ResponseEntity.ok(metricsService.getKpiSummaryBetween(from, to));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Per-bucket aggregates of [from, to) per node or network, for charts; id selects a single
+     * node or network
+     */
+    @GetMapping("/histogram")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<Map<String, Object>> getHistogram(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam int bucketSeconds,
+            @RequestParam(defaultValue = "network") String scope,
+            @RequestParam(required = false) Integer id) {
+        RollupScope rollupScope;
+        try {
+            rollupScope = RollupScope.valueOf(scope.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "'scope' must be 'node' or 'network'"));
+        }
+        try {
+            return ResponseEntity.ok(metricsService.getBucketedSummary(from, to, bucketSeconds, rollupScope, id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Export raw samples in [from, to) as CSV, streamed from the compressed in-memory history
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<StreamingResponseBody> exportSamples(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer nodeId) {
+        try {
+            metricsService.validateRetainedRange(from, to);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return badRequest(e.getMessage());
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            metricsService.exportSamples(from, to, nodeId, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"performance-samples.csv\"")
+                .contentType(new MediaType("text", "csv"))
+                .body(body);
     }
 
-}
\ No newline at end of file
+    /**
+     * Raw samples ordered by (timestamp, id), optionally of one node or network within [from, to).
+     * Pass the "next" cursor of a page as afterTimestamp/afterId to read the following page.
+     */
+    @GetMapping("/history")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_ENGINEER')")
+    public ResponseEntity<StreamingResponseBody> getHistory(
+            @RequestParam(required = false) Integer nodeId,
+            @RequestParam(required = false) Integer networkId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTimestamp,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize;
+        try {
+            pageSize = historyService.resolvePageSize(limit, from, to, afterTimestamp, afterId);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        StreamingResponseBody body = outputStream ->
+                historyService.writePage(nodeId, networkId, from, to, afterTimestamp, afterId, pageSize, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Same body as the 400s of the other endpoints; a streaming endpoint can only answer with a stream
+     */
+    private ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        Map<String, String> error = Map.of("message", message);
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, error));
+    }
+}
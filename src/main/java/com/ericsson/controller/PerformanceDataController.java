@@ -1,11 +1,18 @@
 package com.ericsson.controller;
 
+import com.ericsson.dto.BulkPublishResultDto;
 import com.ericsson.model.PerformanceData;
+import com.ericsson.service.BulkPublishService;
 import com.ericsson.service.NetworkPerformancePublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/performance")
 public class PerformanceDataController {
@@ -13,16 +20,30 @@ public class PerformanceDataController {
     private static final Logger logger = LoggerFactory.getLogger(PerformanceDataController.class);
 
     private final NetworkPerformancePublisher publisher;
+    private final BulkPublishService bulkPublishService;
 
-    public PerformanceDataController(NetworkPerformancePublisher publisher) {
+    public PerformanceDataController(NetworkPerformancePublisher publisher, BulkPublishService bulkPublishService) {
         this.publisher = publisher;
+        this.bulkPublishService = bulkPublishService;
     }
 
     @PostMapping("/publish")
     public String publishPerformanceData(@RequestBody PerformanceData data) {
-        logger.info("Received request to publish performance data: {}", data);
+        logger.debug("Received request to publish performance data: {}", data);
         publisher.sendPerformanceData(data);
         return "Performance data published successfully!";
     }
-}
 
+    /**
+     * Bulk upload as a JSON array or NDJSON; the body is streamed, never buffered as a whole
+     */
+    @PostMapping(value = "/publish/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkPublishResultDto> publishPerformanceDataBulk(InputStream body) throws IOException {
+        BulkPublishResultDto result = bulkPublishService.publish(body);
+        if (result.getError() != null) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ericsson.dto;
+
+import com.ericsson.model.AlertCondition;
+import com.ericsson.model.AlertState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of the alert of one node and condition. value and threshold are those of the sample
+ * that last updated the alert; firingSince is null until the alert has fired.
+ */
+public class AlertDto {
+    private final Integer nodeId;
+    private final Integer networkId;
+    private final AlertCondition condition;
+    private final AlertState state;
+    private final double value;
+    private final double threshold;
+    private final LocalDateTime activeSince;
+    private final LocalDateTime firingSince;
+    private final LocalDateTime updatedAt;
+
+    public AlertDto(Integer nodeId, Integer networkId, AlertCondition condition, AlertState state,
+                    double value, double threshold,
+                    LocalDateTime activeSince, LocalDateTime firingSince, LocalDateTime updatedAt) {
+        this.nodeId = nodeId;
+        this.networkId = networkId;
+        this.condition = condition;
+        this.state = state;
+        this.value = value;
+        this.threshold = threshold;
+        this.activeSince = activeSince;
+        this.firingSince = firingSince;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    public Integer getNetworkId() {
+        return networkId;
+    }
+
+    public AlertCondition getCondition() {
+        return condition;
+    }
+
+    public AlertState getState() {
+        return state;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public LocalDateTime getActiveSince() {
+        return activeSince;
+    }
+
+    public LocalDateTime getFiringSince() {
+        return firingSince;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ericsson.dto;
+
+import com.ericsson.model.AlertState;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * One state change of an alert, numbered by a sequence that increases across all alerts.
+ * Serialized with the alert's fields at the top level; previousState is null for a new alert.
+ */
+public class AlertTransitionDto {
+
+    private final long sequence;
+    private final AlertState previousState;
+    @JsonUnwrapped
+    private final AlertDto alert;
+
+    public AlertTransitionDto(long sequence, AlertState previousState, AlertDto alert) {
+        this.sequence = sequence;
+        this.previousState = previousState;
+        this.alert = alert;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public AlertState getPreviousState() {
+        return previousState;
+    }
+
+    public AlertDto getAlert() {
+        return alert;
+    }
+}
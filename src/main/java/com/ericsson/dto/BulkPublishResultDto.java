@@ -0,0 +1,34 @@
+package com.ericsson.dto;
+
+public class BulkPublishResultDto {
+    // Acknowledged by the broker
+    private long accepted;
+    // Invalid, refused by the producer, failed or not acknowledged within the timeout (those may still be delivered)
+    private long rejected;
+    private String error;
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    // Set when the body could not be parsed to the end; records before that point were still published
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
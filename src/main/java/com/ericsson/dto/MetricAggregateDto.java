@@ -0,0 +1,95 @@
+package com.ericsson.dto;
+
+/**
+ * AVG/MIN/MAX/COUNT of the samples of one group, computed by the database. The group is a node or
+ * network (scopeId, null for all samples) and optionally a time bucket (bucketIndex, counted from
+ * the start of the queried range).
+ */
+public class MetricAggregateDto {
+    private final Integer scopeId;
+    private final Long bucketIndex;
+    private final long count;
+    private final Double avgLatency;
+    private final Double minLatency;
+    private final Double maxLatency;
+    private final Double avgThroughput;
+    private final Double minThroughput;
+    private final Double maxThroughput;
+    private final Double avgErrorRate;
+    private final Double minErrorRate;
+    private final Double maxErrorRate;
+
+    public MetricAggregateDto(Integer scopeId, Long count,
+                              Double avgLatency, Double minLatency, Double maxLatency,
+                              Double avgThroughput, Double minThroughput, Double maxThroughput,
+                              Double avgErrorRate, Double minErrorRate, Double maxErrorRate) {
+        this(scopeId, null, count, avgLatency, minLatency, maxLatency,
+                avgThroughput, minThroughput, maxThroughput, avgErrorRate, minErrorRate, maxErrorRate);
+    }
+
+    public MetricAggregateDto(Integer scopeId, Long bucketIndex, Long count,
+                              Double avgLatency, Double minLatency, Double maxLatency,
+                              Double avgThroughput, Double minThroughput, Double maxThroughput,
+                              Double avgErrorRate, Double minErrorRate, Double maxErrorRate) {
+        this.scopeId = scopeId;
+        this.bucketIndex = bucketIndex;
+        this.count = count == null ? 0 : count;
+        this.avgLatency = avgLatency;
+        this.minLatency = minLatency;
+        this.maxLatency = maxLatency;
+        this.avgThroughput = avgThroughput;
+        this.minThroughput = minThroughput;
+        this.maxThroughput = maxThroughput;
+        this.avgErrorRate = avgErrorRate;
+        this.minErrorRate = minErrorRate;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    public Long getBucketIndex() {
+        return bucketIndex;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getAvgLatency() {
+        return avgLatency;
+    }
+
+    public Double getMinLatency() {
+        return minLatency;
+    }
+
+    public Double getMaxLatency() {
+        return maxLatency;
+    }
+
+    public Double getAvgThroughput() {
+        return avgThroughput;
+    }
+
+    public Double getMinThroughput() {
+        return minThroughput;
+    }
+
+    public Double getMaxThroughput() {
+        return maxThroughput;
+    }
+
+    public Double getAvgErrorRate() {
+        return avgErrorRate;
+    }
+
+    public Double getMinErrorRate() {
+        return minErrorRate;
+    }
+
+    public Double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+}
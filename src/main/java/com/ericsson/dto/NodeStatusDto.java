@@ -0,0 +1,41 @@
+package com.ericsson.dto;
+
+import com.ericsson.model.PerformanceData;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Latest sample of a node with its threshold status ("healthy", "warning" or "critical") and its
+ * anomaly score against the node's own baseline. Serialized with the sample's fields at the top level.
+ */
+public class NodeStatusDto {
+
+    @JsonUnwrapped
+    private final PerformanceData data;
+    private final String status;
+    private final double anomalyScore;
+    private final boolean deviating;
+
+    public NodeStatusDto(PerformanceData data, String status, double anomalyScore, boolean deviating) {
+        this.data = data;
+        this.status = status;
+        this.anomalyScore = anomalyScore;
+        this.deviating = deviating;
+    }
+
+    public PerformanceData getData() {
+        return data;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public double getAnomalyScore() {
+        return anomalyScore;
+    }
+
+    // Anomaly score at or above the configured z-score threshold
+    public boolean isDeviating() {
+        return deviating;
+    }
+}
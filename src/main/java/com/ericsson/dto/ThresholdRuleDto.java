@@ -0,0 +1,80 @@
+package com.ericsson.dto;
+
+/**
+ * Health thresholds of one scope: "global", "network" or "node" (with scopeId). Unset values are
+ * inherited from the network rule, then the global rule, then the configured defaults.
+ */
+public class ThresholdRuleDto {
+    private String scope;
+    private Integer scopeId;
+    private Double highLatency;         // ms; not healthy at or above
+    private Double lowThroughput;       // Mbps; not healthy at or below
+    private Double highErrorRate;       // %; not healthy at or above
+    private Double criticalLatency;     // ms; critical above
+    private Double criticalThroughput;  // Mbps; critical below
+    private Double criticalErrorRate;   // %; critical above
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    public void setScopeId(Integer scopeId) {
+        this.scopeId = scopeId;
+    }
+
+    public Double getHighLatency() {
+        return highLatency;
+    }
+
+    public void setHighLatency(Double highLatency) {
+        this.highLatency = highLatency;
+    }
+
+    public Double getLowThroughput() {
+        return lowThroughput;
+    }
+
+    public void setLowThroughput(Double lowThroughput) {
+        this.lowThroughput = lowThroughput;
+    }
+
+    public Double getHighErrorRate() {
+        return highErrorRate;
+    }
+
+    public void setHighErrorRate(Double highErrorRate) {
+        this.highErrorRate = highErrorRate;
+    }
+
+    public Double getCriticalLatency() {
+        return criticalLatency;
+    }
+
+    public void setCriticalLatency(Double criticalLatency) {
+        this.criticalLatency = criticalLatency;
+    }
+
+    public Double getCriticalThroughput() {
+        return criticalThroughput;
+    }
+
+    public void setCriticalThroughput(Double criticalThroughput) {
+        this.criticalThroughput = criticalThroughput;
+    }
+
+    public Double getCriticalErrorRate() {
+        return criticalErrorRate;
+    }
+
+    public void setCriticalErrorRate(Double criticalErrorRate) {
+        this.criticalErrorRate = criticalErrorRate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ericsson.exception;
+
+public class DeadLetterReplayException extends RuntimeException {
+
+	private static final long serialVersionUID = 2650381472956512843L;
+
+	public DeadLetterReplayException(String message) {
+        super(message);
+    }
+
+    public DeadLetterReplayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
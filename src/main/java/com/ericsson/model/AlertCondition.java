@@ -0,0 +1,7 @@
+package com.ericsson.model;
+
+public enum AlertCondition {
+    HIGH_LATENCY,
+    LOW_THROUGHPUT,
+    HIGH_ERROR_RATE
+}
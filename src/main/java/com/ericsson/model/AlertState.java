@@ -0,0 +1,7 @@
+package com.ericsson.model;
+
+public enum AlertState {
+    PENDING,
+    FIRING,
+    RESOLVED
+}
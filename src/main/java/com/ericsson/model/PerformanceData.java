@@ -4,10 +4,26 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(uniqueConstraints = {
+        // A node reports at most one sample per timestamp; redeliveries must not add rows.
+        // Doubles as the (node_id, timestamp) index for latest-per-node and per-node range queries
+        @UniqueConstraint(name = "uk_performance_data_node_timestamp", columnNames = {"node_id", "timestamp"})
+}, indexes = {
+        @Index(name = "idx_performance_data_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_performance_data_network_timestamp", columnList = "network_id, timestamp")
+})
 public class PerformanceData {
 
+    // Ids are handed out in blocks of this size; IDENTITY would disable Hibernate insert batching
+    public static final int ID_ALLOCATION_SIZE = 100;
+    public static final String ID_ALLOCATOR_TABLE = "id_allocator";
+    public static final String ID_ALLOCATOR_KEY = "performance_data";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "performance_data_id")
+    @TableGenerator(name = "performance_data_id", table = ID_ALLOCATOR_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = ID_ALLOCATOR_KEY, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private Integer nodeId;
@@ -0,0 +1,165 @@
+package com.ericsson.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate of the samples of one node or network within one time bucket.
+ * Only node rollups are written; network rollups are derived from them when they are loaded.
+ */
+@Entity
+@Table(name = "performance_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_performance_rollup_bucket",
+                columnNames = {"resolution_seconds", "scope", "scope_id", "bucket_start"}),
+        indexes = @Index(name = "idx_performance_rollup_resolution_start", columnList = "resolution_seconds, bucket_start"))
+public class PerformanceRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private int resolutionSeconds;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupScope scope;
+
+    @Column(nullable = false)
+    private int scopeId;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Network of the node, which its network rollup is derived for on load
+    private Integer networkId;
+
+    private long sampleCount;
+    private double latencySum;
+    private double latencyMin;
+    private double latencyMax;
+    private double throughputSum;
+    private double throughputMin;
+    private double throughputMax;
+    private double errorRateSum;
+    private double errorRateMin;
+    private double errorRateMax;
+
+    public PerformanceRollup() { // no-arg constructor needed
+    }
+
+    public PerformanceRollup(int resolutionSeconds, RollupScope scope, int scopeId, LocalDateTime bucketStart) {
+        this.resolutionSeconds = resolutionSeconds;
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getResolutionSeconds() {
+        return resolutionSeconds;
+    }
+
+    public RollupScope getScope() {
+        return scope;
+    }
+
+    public int getScopeId() {
+        return scopeId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public Integer getNetworkId() {
+        return networkId;
+    }
+
+    public void setNetworkId(Integer networkId) {
+        this.networkId = networkId;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public double getLatencySum() {
+        return latencySum;
+    }
+
+    public void setLatencySum(double latencySum) {
+        this.latencySum = latencySum;
+    }
+
+    public double getLatencyMin() {
+        return latencyMin;
+    }
+
+    public void setLatencyMin(double latencyMin) {
+        this.latencyMin = latencyMin;
+    }
+
+    public double getLatencyMax() {
+        return latencyMax;
+    }
+
+    public void setLatencyMax(double latencyMax) {
+        this.latencyMax = latencyMax;
+    }
+
+    public double getThroughputSum() {
+        return throughputSum;
+    }
+
+    public void setThroughputSum(double throughputSum) {
+        this.throughputSum = throughputSum;
+    }
+
+    public double getThroughputMin() {
+        return throughputMin;
+    }
+
+    public void setThroughputMin(double throughputMin) {
+        this.throughputMin = throughputMin;
+    }
+
+    public double getThroughputMax() {
+        return throughputMax;
+    }
+
+    public void setThroughputMax(double throughputMax) {
+        this.throughputMax = throughputMax;
+    }
+
+    public double getErrorRateSum() {
+        return errorRateSum;
+    }
+
+    public void setErrorRateSum(double errorRateSum) {
+        this.errorRateSum = errorRateSum;
+    }
+
+    public double getErrorRateMin() {
+        return errorRateMin;
+    }
+
+    public void setErrorRateMin(double errorRateMin) {
+        this.errorRateMin = errorRateMin;
+    }
+
+    public double getErrorRateMax() {
+        return errorRateMax;
+    }
+
+    public void setErrorRateMax(double errorRateMax) {
+        this.errorRateMax = errorRateMax;
+    }
+}
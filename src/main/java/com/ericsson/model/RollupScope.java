@@ -0,0 +1,6 @@
+package com.ericsson.model;
+
+public enum RollupScope {
+    NODE,
+    NETWORK
+}
@@ -1,12 +1,105 @@
 package com.ericsson.repository;
 
+import com.ericsson.dto.MetricAggregateDto;
 import com.ericsson.model.PerformanceData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+public interface PerformanceDataRepository extends JpaRepository<PerformanceData, Long>, PerformanceHistoryRepository {
+
+    String AGGREGATES = "count(p), avg(p.latency), min(p.latency), max(p.latency),"
+            + " avg(p.throughput), min(p.throughput), max(p.throughput),"
+            + " avg(p.errorRate), min(p.errorRate), max(p.errorRate))"
+            + " from PerformanceData p where p.timestamp >= :from and p.timestamp < :to";
+
+    // Whole seconds since the start of the range divided by the bucket size; MySQL '/' is not integral
+    String BUCKET_INDEX = "cast(floor(((p.timestamp - :from) by second) / :bucketSeconds) as Long)";
 
-public interface PerformanceDataRepository extends JpaRepository<PerformanceData, Long> {
     List<PerformanceData> findByTimestampAfter(LocalDateTime startTime); //automatically generates an SQL query
+
+    boolean existsByNodeIdAndTimestamp(Integer nodeId, LocalDateTime timestamp);
+
+    // Latest sample of each node; (nodeId, timestamp) is unique so there is exactly one per node.
+    // Joined against one grouped pass over the (node_id, timestamp) index instead of a subquery per row
+    @Query("select p from PerformanceData p join (select q.nodeId as nodeId, max(q.timestamp) as latest"
+            + " from PerformanceData q group by q.nodeId) m on p.nodeId = m.nodeId and p.timestamp = m.latest")
+    List<PerformanceData> findLatestPerNode();
+
+    // Aggregates over [from, to), evaluated by the database on the timestamp and (node_id, timestamp) indexes
+    @Query("select new com.ericsson.dto.MetricAggregateDto(cast(null as Integer), " + AGGREGATES)
+    MetricAggregateDto aggregateBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.nodeId, " + AGGREGATES
+            + " group by p.nodeId order by p.nodeId")
+    List<MetricAggregateDto> aggregatePerNodeBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.networkId, " + AGGREGATES
+            + " group by p.networkId order by p.networkId")
+    List<MetricAggregateDto> aggregatePerNetworkBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.nodeId, " + BUCKET_INDEX + " as bucket, " + AGGREGATES
+            + " and p.nodeId = :nodeId group by bucket, p.nodeId order by bucket")
+    List<MetricAggregateDto> aggregateNodeBuckets(@Param("nodeId") Integer nodeId,
+                                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                  @Param("bucketSeconds") long bucketSeconds);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.networkId, " + BUCKET_INDEX + " as bucket, " + AGGREGATES
+            + " and p.networkId = :networkId group by bucket, p.networkId order by bucket")
+    List<MetricAggregateDto> aggregateNetworkBuckets(@Param("networkId") Integer networkId,
+                                                     @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                     @Param("bucketSeconds") long bucketSeconds);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.nodeId, " + BUCKET_INDEX + " as bucket, " + AGGREGATES
+            + " group by p.nodeId, bucket order by p.nodeId, bucket")
+    List<MetricAggregateDto> aggregateBucketsPerNode(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                     @Param("bucketSeconds") long bucketSeconds);
+
+    @Query("select new com.ericsson.dto.MetricAggregateDto(p.networkId, " + BUCKET_INDEX + " as bucket, " + AGGREGATES
+            + " group by p.networkId, bucket order by p.networkId, bucket")
+    List<MetricAggregateDto> aggregateBucketsPerNetwork(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                        @Param("bucketSeconds") long bucketSeconds);
+
+    // Unmanaged copies, so streaming a long period does not fill the persistence context; needs a transaction.
+    // Without a fetch size MySQL sends the whole result before the first row (honoured with useCursorFetch=true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.ericsson.model.PerformanceData(p.nodeId, p.networkId, p.latency, p.throughput, p.errorRate, p.timestamp)"
+            + " from PerformanceData p where p.timestamp > :since")
+    Stream<PerformanceData> streamSamplesSince(@Param("since") LocalDateTime since);
+
+    // Oldest first, so each retention chunk walks the timestamp index
+    @Query("select p.id from PerformanceData p where p.timestamp < :cutoff order by p.timestamp")
+    List<Long> findIdsOlderThan(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select coalesce(max(p.id), 0) from PerformanceData p")
+    long findMaxId();
+
+    // Creates the pooled id allocator's row if it does not exist yet, e.g. for a table created with IDENTITY ids
+    @Modifying
+    @Transactional
+    @Query(value = "insert into " + PerformanceData.ID_ALLOCATOR_TABLE + " (sequence_name, next_val)"
+            + " select '" + PerformanceData.ID_ALLOCATOR_KEY + "', :nextVal from dual"
+            + " where not exists (select 1 from " + PerformanceData.ID_ALLOCATOR_TABLE
+            + " where sequence_name = '" + PerformanceData.ID_ALLOCATOR_KEY + "')",
+            nativeQuery = true)
+    int insertIdAllocator(@Param("nextVal") long nextVal);
+
+    // Moves the pooled id allocator forward; never moves it back
+    @Modifying
+    @Transactional
+    @Query(value = "update " + PerformanceData.ID_ALLOCATOR_TABLE + " set next_val = :nextVal"
+            + " where sequence_name = '" + PerformanceData.ID_ALLOCATOR_KEY + "' and next_val < :nextVal",
+            nativeQuery = true)
+    int advanceIdAllocator(@Param("nextVal") long nextVal);
 }
 
@@ -0,0 +1,21 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceData;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated reads of raw samples, ordered by (timestamp, id). The query only includes the
+ * filters that are set, so each combination can use its index.
+ */
+public interface PerformanceHistoryRepository {
+
+    /**
+     * Streams up to limit detached samples after the (afterTimestamp, afterId) cursor; all filters
+     * and the cursor are optional. Needs a transaction for the lifetime of the stream.
+     */
+    Stream<PerformanceData> streamHistory(Integer nodeId, Integer networkId,
+                                          LocalDateTime from, LocalDateTime to,
+                                          LocalDateTime afterTimestamp, Long afterId, int limit);
+}
@@ -0,0 +1,67 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+class PerformanceHistoryRepositoryImpl implements PerformanceHistoryRepository {
+
+    // Rows per round trip; MySQL only honours it with useCursorFetch=true on the connection URL
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<PerformanceData> streamHistory(Integer nodeId, Integer networkId,
+                                                 LocalDateTime from, LocalDateTime to,
+                                                 LocalDateTime afterTimestamp, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("select p from PerformanceData p where 1 = 1");
+        if (nodeId != null) {
+            jpql.append(" and p.nodeId = :nodeId");
+        }
+        if (networkId != null) {
+            jpql.append(" and p.networkId = :networkId");
+        }
+        if (from != null) {
+            jpql.append(" and p.timestamp >= :from");
+        }
+        if (to != null) {
+            jpql.append(" and p.timestamp < :to");
+        }
+        if (afterTimestamp != null) {
+            // (timestamp, id) > (afterTimestamp, afterId), with a plain range on timestamp for the index
+            jpql.append(" and p.timestamp >= :afterTimestamp")
+                    .append(" and (p.timestamp > :afterTimestamp or p.id > :afterId)");
+        }
+        jpql.append(" order by p.timestamp, p.id");
+
+        TypedQuery<PerformanceData> query = entityManager.createQuery(jpql.toString(), PerformanceData.class)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (nodeId != null) {
+            query.setParameter("nodeId", nodeId);
+        }
+        if (networkId != null) {
+            query.setParameter("networkId", networkId);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (afterTimestamp != null) {
+            query.setParameter("afterTimestamp", afterTimestamp);
+            query.setParameter("afterId", afterId);
+        }
+        // Detached as they are read, so a long stream does not fill the persistence context
+        return query.getResultStream().peek(entityManager::detach);
+    }
+}
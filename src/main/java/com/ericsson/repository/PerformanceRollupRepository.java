@@ -0,0 +1,23 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceRollup;
+import com.ericsson.model.RollupScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PerformanceRollupRepository extends JpaRepository<PerformanceRollup, Long>, PerformanceRollupRepositoryCustom {
+
+    List<PerformanceRollup> findByResolutionSecondsAndScopeAndBucketStartGreaterThanEqual(
+            int resolutionSeconds, RollupScope scope, LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PerformanceRollup r where r.resolutionSeconds = :resolutionSeconds and r.bucketStart < :before")
+    int deleteExpired(@Param("resolutionSeconds") int resolutionSeconds, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,14 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceRollup;
+
+import java.util.List;
+
+public interface PerformanceRollupRepositoryCustom {
+
+    /**
+     * Inserts the rollups, replacing the row of the same bucket (uk_performance_rollup_bucket) where
+     * there is one, as a single JDBC batch. A null networkId keeps the stored one.
+     */
+    void upsertAll(List<PerformanceRollup> rollups);
+}
@@ -0,0 +1,70 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceRollup;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * MySQL upsert, also understood by H2 in MySQL mode (the h2 profile)
+ */
+class PerformanceRollupRepositoryCustomImpl implements PerformanceRollupRepositoryCustom {
+
+    private static final String UPSERT = "INSERT INTO performance_rollup (resolution_seconds, scope, scope_id, bucket_start,"
+            + " network_id, sample_count, latency_sum, latency_min, latency_max, throughput_sum, throughput_min,"
+            + " throughput_max, error_rate_sum, error_rate_min, error_rate_max)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE network_id = COALESCE(VALUES(network_id), network_id),"
+            + " sample_count = VALUES(sample_count), latency_sum = VALUES(latency_sum),"
+            + " latency_min = VALUES(latency_min), latency_max = VALUES(latency_max),"
+            + " throughput_sum = VALUES(throughput_sum), throughput_min = VALUES(throughput_min),"
+            + " throughput_max = VALUES(throughput_max), error_rate_sum = VALUES(error_rate_sum),"
+            + " error_rate_min = VALUES(error_rate_min), error_rate_max = VALUES(error_rate_max)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PerformanceRollupRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(List<PerformanceRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                PerformanceRollup rollup = rollups.get(i);
+                statement.setInt(1, rollup.getResolutionSeconds());
+                statement.setString(2, rollup.getScope().name());
+                statement.setInt(3, rollup.getScopeId());
+                statement.setObject(4, rollup.getBucketStart());
+                if (rollup.getNetworkId() != null) {
+                    statement.setInt(5, rollup.getNetworkId());
+                } else {
+                    statement.setNull(5, Types.INTEGER);
+                }
+                statement.setLong(6, rollup.getSampleCount());
+                statement.setDouble(7, rollup.getLatencySum());
+                statement.setDouble(8, rollup.getLatencyMin());
+                statement.setDouble(9, rollup.getLatencyMax());
+                statement.setDouble(10, rollup.getThroughputSum());
+                statement.setDouble(11, rollup.getThroughputMin());
+                statement.setDouble(12, rollup.getThroughputMax());
+                statement.setDouble(13, rollup.getErrorRateSum());
+                statement.setDouble(14, rollup.getErrorRateMin());
+                statement.setDouble(15, rollup.getErrorRateMax());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rollups.size();
+            }
+        });
+    }
+}
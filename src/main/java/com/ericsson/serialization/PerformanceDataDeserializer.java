@@ -0,0 +1,82 @@
+package com.ericsson.serialization;
+
+import com.ericsson.model.PerformanceData;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.ericsson.serialization.PerformanceDataSerializer.*;
+
+/**
+ * Reads both the binary format written by PerformanceDataSerializer and the legacy JSON format,
+ * so consumers keep working while producers are switched over.
+ */
+public class PerformanceDataDeserializer implements Deserializer<PerformanceData> {
+
+    private final JsonDeserializer<PerformanceData> jsonDeserializer;
+
+    public PerformanceDataDeserializer() {
+        this.jsonDeserializer = new JsonDeserializer<>(PerformanceData.class, false);
+        this.jsonDeserializer.addTrustedPackages("*");
+        this.jsonDeserializer.setRemoveTypeHeaders(false);
+    }
+
+    @Override
+    public PerformanceData deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public PerformanceData deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] != MAGIC) {
+            return headers != null
+                    ? jsonDeserializer.deserialize(topic, headers, data)
+                    : jsonDeserializer.deserialize(topic, data);
+        }
+        return readBinary(data);
+    }
+
+    private PerformanceData readBinary(byte[] data) {
+        if (data.length < 2 || data[1] != VERSION) {
+            throw new SerializationException("Unsupported PerformanceData binary version: "
+                    + (data.length < 2 ? "missing" : data[1]));
+        }
+        if (data.length != RECORD_SIZE) {
+            throw new SerializationException("Invalid PerformanceData record size: " + data.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 2, data.length - 2);
+        int nullMask = buffer.get();
+        int nodeId = buffer.getInt();
+        int networkId = buffer.getInt();
+        double latency = buffer.getDouble();
+        double throughput = buffer.getDouble();
+        double errorRate = buffer.getDouble();
+        long epochMillis = buffer.getLong();
+
+        PerformanceData result = new PerformanceData();
+        result.setNodeId((nullMask & NODE_ID_NULL) == 0 ? nodeId : null);
+        result.setNetworkId((nullMask & NETWORK_ID_NULL) == 0 ? networkId : null);
+        result.setLatency((nullMask & LATENCY_NULL) == 0 ? latency : null);
+        result.setThroughput((nullMask & THROUGHPUT_NULL) == 0 ? throughput : null);
+        result.setErrorRate((nullMask & ERROR_RATE_NULL) == 0 ? errorRate : null);
+        result.setTimestamp((nullMask & TIMESTAMP_NULL) == 0
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC)
+                : null);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
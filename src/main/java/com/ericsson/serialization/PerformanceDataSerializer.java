@@ -0,0 +1,63 @@
+package com.ericsson.serialization;
+
+import com.ericsson.model.PerformanceData;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact fixed-width binary encoding of PerformanceData for the network-performance topic.
+ *
+ * Layout (version 1, big-endian, 43 bytes):
+ * magic(1) version(1) nullMask(1) nodeId(4) networkId(4) latency(8) throughput(8) errorRate(8) epochMillis(8)
+ *
+ * Timestamps are written as UTC epoch millis, so sub-millisecond precision is dropped.
+ * The id is never sent; it is assigned when the record is persisted.
+ */
+public class PerformanceDataSerializer implements Serializer<PerformanceData> {
+
+    // Not a valid first byte of a JSON document, so the deserializer can tell the formats apart
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION = 1;
+    public static final int RECORD_SIZE = 3 + 4 + 4 + 8 + 8 + 8 + 8;
+
+    static final int NODE_ID_NULL = 1;
+    static final int NETWORK_ID_NULL = 1 << 1;
+    static final int LATENCY_NULL = 1 << 2;
+    static final int THROUGHPUT_NULL = 1 << 3;
+    static final int ERROR_RATE_NULL = 1 << 4;
+    static final int TIMESTAMP_NULL = 1 << 5;
+
+    @Override
+    public byte[] serialize(String topic, PerformanceData data) {
+        if (data == null) {
+            return null;
+        }
+
+        int nullMask = 0;
+        if (data.getNodeId() == null) nullMask |= NODE_ID_NULL;
+        if (data.getNetworkId() == null) nullMask |= NETWORK_ID_NULL;
+        if (data.getLatency() == null) nullMask |= LATENCY_NULL;
+        if (data.getThroughput() == null) nullMask |= THROUGHPUT_NULL;
+        if (data.getErrorRate() == null) nullMask |= ERROR_RATE_NULL;
+        if (data.getTimestamp() == null) nullMask |= TIMESTAMP_NULL;
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) nullMask);
+        buffer.putInt(data.getNodeId() != null ? data.getNodeId() : 0);
+        buffer.putInt(data.getNetworkId() != null ? data.getNetworkId() : 0);
+        buffer.putDouble(data.getLatency() != null ? data.getLatency() : 0.0);
+        buffer.putDouble(data.getThroughput() != null ? data.getThroughput() : 0.0);
+        buffer.putDouble(data.getErrorRate() != null ? data.getErrorRate() : 0.0);
+        buffer.putLong(data.getTimestamp() != null ? toEpochMillis(data.getTimestamp()) : 0L);
+        return buffer.array();
+    }
+
+    static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,235 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.AlertDto;
+import com.ericsson.dto.AlertTransitionDto;
+import com.ericsson.model.AlertCondition;
+import com.ericsson.model.AlertState;
+import com.ericsson.model.PerformanceData;
+import com.ericsson.storage.ColumnarSeriesStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alert state machine per node and condition: an alert opens as PENDING when a sample breaches the
+ * condition's threshold, turns FIRING once every sample has breached it for the pending duration, and
+ * is RESOLVED once the samples have been clear for the resolve duration. A pending alert resolves at
+ * the first sample that no longer breaches.
+ *
+ * A firing alert only counts a sample as clear when it is past the threshold by the hysteresis ratio,
+ * so values hovering around a threshold do not flap. Durations are measured on sample timestamps.
+ *
+ * Only state changes are recorded, in a bounded log numbered by a sequence that clients poll from
+ * the last sequence they have seen. The sequence starts over on every start of the application.
+ */
+@Component
+public class AlertLifecycleTracker implements LatestMetricsListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertLifecycleTracker.class);
+
+    private static final AlertCondition[] CONDITIONS = AlertCondition.values();
+
+    private final NodeHealthClassifier healthClassifier;
+    private final double hysteresisRatio;
+    private final long pendingMillis;
+    private final long resolveMillis;
+
+    private final Map<Integer, NodeAlerts> byNode = new ConcurrentHashMap<>();
+
+    // Guarded by itself; ring of the latest transitions, transition n is at (n - 1) % length
+    private final AlertTransitionDto[] transitions;
+    private long lastSequence;
+
+    public AlertLifecycleTracker(NodeHealthClassifier healthClassifier,
+                                 @Value("${alerts.lifecycle.hysteresis-ratio:0.1}") double hysteresisRatio,
+                                 @Value("${alerts.lifecycle.pending-seconds:30}") long pendingSeconds,
+                                 @Value("${alerts.lifecycle.resolve-seconds:60}") long resolveSeconds,
+                                 @Value("${alerts.lifecycle.transition-log-size:10000}") int transitionLogSize) {
+        this.healthClassifier = healthClassifier;
+        this.hysteresisRatio = hysteresisRatio;
+        this.pendingMillis = pendingSeconds * 1000;
+        this.resolveMillis = resolveSeconds * 1000;
+        this.transitions = new AlertTransitionDto[transitionLogSize];
+    }
+
+    @Override
+    public void onLatestChanged(PerformanceData previous, PerformanceData current) {
+        if (current.getLatency() == null || current.getThroughput() == null || current.getErrorRate() == null) {
+            return;
+        }
+        NodeAlerts alerts = byNode.computeIfAbsent(current.getNodeId(), id -> new NodeAlerts());
+        synchronized (alerts) {
+            for (AlertCondition condition : CONDITIONS) {
+                evaluate(alerts, condition, current);
+            }
+        }
+    }
+
+    private void evaluate(NodeAlerts alerts, AlertCondition condition, PerformanceData data) {
+        double value = value(condition, data);
+        double threshold = healthClassifier.threshold(data, thresholdField(condition));
+        boolean lowIsBad = condition == AlertCondition.LOW_THROUGHPUT;
+        boolean breaching = lowIsBad ? value <= threshold : value >= threshold;
+        boolean clear = lowIsBad ? value > threshold * (1 + hysteresisRatio) : value < threshold * (1 - hysteresisRatio);
+        long now = ColumnarSeriesStore.toEpochMillis(data.getTimestamp());
+
+        Alert alert = alerts.get(condition);
+        if (alert == null) {
+            if (!breaching) {
+                return;
+            }
+            alert = new Alert(now, data.getTimestamp());
+            alerts.put(condition, alert);
+            alert.update(data, value, threshold);
+            record(condition, null, alert);
+        } else {
+            alert.update(data, value, threshold);
+        }
+
+        if (alert.state == AlertState.PENDING) {
+            if (!breaching) {
+                resolve(alerts, condition, alert);
+            } else if (now - alert.activeSinceMillis >= pendingMillis) {
+                alert.state = AlertState.FIRING;
+                alert.firingSince = data.getTimestamp();
+                record(condition, AlertState.PENDING, alert);
+            }
+        } else if (!clear) {
+            alert.clearSinceMillis = -1;
+        } else {
+            if (alert.clearSinceMillis < 0) {
+                alert.clearSinceMillis = now;
+            }
+            if (now - alert.clearSinceMillis >= resolveMillis) {
+                resolve(alerts, condition, alert);
+            }
+        }
+    }
+
+    private void resolve(NodeAlerts alerts, AlertCondition condition, Alert alert) {
+        AlertState previous = alert.state;
+        alert.state = AlertState.RESOLVED;
+        alerts.remove(condition);
+        record(condition, previous, alert);
+    }
+
+    private void record(AlertCondition condition, AlertState previous, Alert alert) {
+        AlertDto snapshot = alert.toDto(condition);
+        if (alert.state != AlertState.PENDING) {
+            logger.info("Alert {} on node {} is {} (value {}, threshold {})",
+                    condition, snapshot.getNodeId(), alert.state, snapshot.getValue(), snapshot.getThreshold());
+        }
+        synchronized (transitions) {
+            lastSequence++;
+            transitions[(int) ((lastSequence - 1) % transitions.length)] = new AlertTransitionDto(lastSequence, previous, snapshot);
+        }
+    }
+
+    /**
+     * @return pending and firing alerts, by node and condition
+     */
+    public List<AlertDto> getActiveAlerts() {
+        List<AlertDto> active = new ArrayList<>();
+        byNode.values().forEach(alerts -> {
+            synchronized (alerts) {
+                alerts.forEach((condition, alert) -> active.add(alert.toDto(condition)));
+            }
+        });
+        active.sort(Comparator.comparing(AlertDto::getNodeId).thenComparing(AlertDto::getCondition));
+        return active;
+    }
+
+    /**
+     * @param afterSequence last sequence the caller has seen, 0 for everything still retained. A
+     *                      sequence beyond the last one was handed out before a restart; the log
+     *                      is then read from its start and reported as missed.
+     */
+    public TransitionPage getTransitions(long afterSequence, int limit) {
+        synchronized (transitions) {
+            boolean restarted = afterSequence > lastSequence;
+            long after = restarted ? 0 : afterSequence;
+            long oldest = Math.max(1, lastSequence - transitions.length + 1);
+            long first = Math.max(after + 1, oldest);
+            long last = Math.min(lastSequence, first + limit - 1);
+            List<AlertTransitionDto> page = new ArrayList<>();
+            for (long sequence = first; sequence <= last; sequence++) {
+                page.add(transitions[(int) ((sequence - 1) % transitions.length)]);
+            }
+            return new TransitionPage(page, Math.max(after, last), restarted || after + 1 < oldest);
+        }
+    }
+
+    public int getTransitionLogSize() {
+        return transitions.length;
+    }
+
+    /**
+     * @param nextSequence value to pass as afterSequence on the next poll
+     * @param missed       whether transitions after afterSequence were already dropped from the log,
+     *                     or afterSequence is from before a restart
+     */
+    public record TransitionPage(List<AlertTransitionDto> transitions, long nextSequence, boolean missed) {
+    }
+
+    private static double value(AlertCondition condition, PerformanceData data) {
+        return switch (condition) {
+            case HIGH_LATENCY -> data.getLatency();
+            case LOW_THROUGHPUT -> data.getThroughput();
+            case HIGH_ERROR_RATE -> data.getErrorRate();
+        };
+    }
+
+    private static int thresholdField(AlertCondition condition) {
+        return switch (condition) {
+            case HIGH_LATENCY -> CompiledThresholds.HIGH_LATENCY;
+            case LOW_THROUGHPUT -> CompiledThresholds.LOW_THROUGHPUT;
+            case HIGH_ERROR_RATE -> CompiledThresholds.HIGH_ERROR_RATE;
+        };
+    }
+
+    private static final class NodeAlerts extends EnumMap<AlertCondition, Alert> {
+        NodeAlerts() {
+            super(AlertCondition.class);
+        }
+    }
+
+    // Guarded by the NodeAlerts holding it
+    private static final class Alert {
+        AlertState state = AlertState.PENDING;
+        final long activeSinceMillis;
+        final LocalDateTime activeSince;
+        LocalDateTime firingSince;
+        long clearSinceMillis = -1;
+        Integer nodeId;
+        Integer networkId;
+        double value;
+        double threshold;
+        LocalDateTime updatedAt;
+
+        Alert(long activeSinceMillis, LocalDateTime activeSince) {
+            this.activeSinceMillis = activeSinceMillis;
+            this.activeSince = activeSince;
+        }
+
+        void update(PerformanceData data, double value, double threshold) {
+            this.nodeId = data.getNodeId();
+            this.networkId = data.getNetworkId();
+            this.value = value;
+            this.threshold = threshold;
+            this.updatedAt = data.getTimestamp();
+        }
+
+        AlertDto toDto(AlertCondition condition) {
+            return new AlertDto(nodeId, networkId, condition, state, value, threshold, activeSince, firingSince, updatedAt);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Current anomalies, i.e. nodes whose latest sample is not healthy, kept ordered by severity
+ * (critical first) and then by latency (worst first).
+ *
+ * Each sample is classified once when it becomes its node's latest, which replaces the node's
+ * previous entry in O(log nodes). Readers iterate the sorted set without locking.
+ */
+@Component
+public class AnomalyTracker implements LatestMetricsListener {
+
+    private static final Comparator<Anomaly> SEVERITY_ORDER = Comparator
+            .comparing(Anomaly::critical).reversed()
+            .thenComparing(anomaly -> anomaly.data().getLatency(), Comparator.reverseOrder())
+            .thenComparing(anomaly -> anomaly.data().getNodeId());
+
+    private final NodeHealthClassifier healthClassifier;
+
+    private final NavigableSet<Anomaly> anomalies = new ConcurrentSkipListSet<>(SEVERITY_ORDER);
+    // Guarded by this
+    private final Map<Integer, Anomaly> byNode = new HashMap<>();
+
+    public AnomalyTracker(NodeHealthClassifier healthClassifier) {
+        this.healthClassifier = healthClassifier;
+    }
+
+    @Override
+    public synchronized void onLatestChanged(PerformanceData previous, PerformanceData current) {
+        Anomaly replaced = byNode.remove(current.getNodeId());
+        if (replaced != null) {
+            anomalies.remove(replaced);
+        }
+        add(current);
+    }
+
+    /**
+     * Starts over from the given latest samples, e.g. after the health thresholds changed.
+     * Callers pass samples taken while no update is in progress, see LatestMetricsCache.withUpdatesPaused
+     */
+    public synchronized void rebuild(Iterable<PerformanceData> latest) {
+        anomalies.clear();
+        byNode.clear();
+        latest.forEach(this::add);
+    }
+
+    private void add(PerformanceData data) {
+        if (healthClassifier.isHealthy(data)) {
+            return;
+        }
+        Anomaly anomaly = new Anomaly(data, healthClassifier.isCritical(data));
+        byNode.put(data.getNodeId(), anomaly);
+        anomalies.add(anomaly);
+    }
+
+    /**
+     * @return the unhealthy latest samples, critical first, then by latency descending
+     */
+    public List<PerformanceData> getAnomalies() {
+        List<PerformanceData> result = new ArrayList<>();
+        for (Anomaly anomaly : anomalies) {
+            result.add(anomaly.data());
+        }
+        return result;
+    }
+
+    private record Anomaly(PerformanceData data, boolean critical) {
+    }
+}
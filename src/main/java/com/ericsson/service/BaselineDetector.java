@@ -0,0 +1,148 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.storage.ReplayTarget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive per-node baselines: an exponentially weighted mean and variance of latency,
+ * throughput and error rate, updated in O(1) per ingested sample.
+ *
+ * Each sample is scored against the baseline before it is folded in; the anomaly score of a node
+ * is the largest absolute z-score of its latest sample over the three metrics, and a node deviates
+ * when that score reaches the configured threshold. Scores stay 0 during warm-up.
+ */
+@Component
+public class BaselineDetector implements IngestListener, ReplayTarget {
+
+    private static final int LATENCY = 0;
+    private static final int THROUGHPUT = 1;
+    private static final int ERROR_RATE = 2;
+    private static final int METRICS = 3;
+
+    // Lower bounds of the standard deviation, relative to the mean and absolute (ms, Mbps, %), so a
+    // near-constant metric does not turn every small wobble into a huge z-score, nor a metric that
+    // has been 0 so far into no score at all
+    private static final double MIN_RELATIVE_STD_DEV = 0.01;
+    private static final double[] MIN_STD_DEV = {1.0, 1.0, 0.1};
+
+    private final double alpha;
+    private final double zThreshold;
+    private final int warmupSamples;
+
+    private final Map<Integer, NodeBaseline> baselines = new ConcurrentHashMap<>();
+    // Node id -> anomaly score of the deviating nodes only
+    private final Map<Integer, Double> deviating = new ConcurrentHashMap<>();
+
+    private volatile boolean live;
+
+    public BaselineDetector(@Value("${baseline.alpha:0.05}") double alpha,
+                            @Value("${baseline.z-threshold:3.0}") double zThreshold,
+                            @Value("${baseline.warmup-samples:30}") int warmupSamples) {
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.warmupSamples = warmupSamples;
+    }
+
+    @Override
+    public Duration getReplayWindow() {
+        return Duration.ofHours(1);
+    }
+
+    @Override
+    public void beginReplay() {
+        live = true;
+    }
+
+    @Override
+    public void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate) {
+        NodeBaseline baseline = baselines.computeIfAbsent(nodeId, id -> new NodeBaseline());
+        // under the node's lock, so the deviating entry follows the scores in update order
+        synchronized (baseline) {
+            double score = baseline.update(latency, throughput, errorRate);
+            if (score >= zThreshold) {
+                deviating.put(nodeId, score);
+            } else {
+                deviating.remove(nodeId);
+            }
+        }
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!live) {
+            return;
+        }
+        for (PerformanceData data : stored) {
+            if (data.getNodeId() == null || data.getLatency() == null
+                    || data.getThroughput() == null || data.getErrorRate() == null) {
+                continue;
+            }
+            visit(data.getNodeId(), 0, 0, data.getLatency(), data.getThroughput(), data.getErrorRate());
+        }
+    }
+
+    /**
+     * @return anomaly score of the node's latest sample, 0 for unknown nodes
+     */
+    public double getAnomalyScore(int nodeId) {
+        NodeBaseline baseline = baselines.get(nodeId);
+        return baseline == null ? 0 : baseline.score;
+    }
+
+    public boolean isDeviating(int nodeId) {
+        return getAnomalyScore(nodeId) >= zThreshold;
+    }
+
+    /**
+     * @return ids of the nodes whose latest sample deviates from their baseline, highest score first
+     */
+    public List<Integer> getDeviatingNodes() {
+        return deviating.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private final class NodeBaseline {
+        // Guarded by this
+        private final double[] mean = new double[METRICS];
+        private final double[] variance = new double[METRICS];
+        private long samples;
+
+        private volatile double score;
+
+        synchronized double update(double latency, double throughput, double errorRate) {
+            double maxZ = 0;
+            maxZ = Math.max(maxZ, fold(LATENCY, latency));
+            maxZ = Math.max(maxZ, fold(THROUGHPUT, throughput));
+            maxZ = Math.max(maxZ, fold(ERROR_RATE, errorRate));
+            samples++;
+            score = samples > warmupSamples ? maxZ : 0;
+            return score;
+        }
+
+        // Scores the value against the baseline, then moves the baseline towards it; returns |z|
+        private double fold(int metric, double value) {
+            if (samples == 0) {
+                mean[metric] = value;
+                return 0;
+            }
+            double diff = value - mean[metric];
+            double stdDev = Math.max(Math.sqrt(variance[metric]),
+                    Math.max(MIN_RELATIVE_STD_DEV * Math.abs(mean[metric]), MIN_STD_DEV[metric]));
+            double z = Math.abs(diff) / stdDev;
+            double increment = alpha * diff;
+            mean[metric] += increment;
+            variance[metric] = (1 - alpha) * (variance[metric] + diff * increment);
+            return z;
+        }
+    }
+}
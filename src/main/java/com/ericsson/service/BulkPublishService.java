@@ -0,0 +1,114 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.BulkPublishResultDto;
+import com.ericsson.model.PerformanceData;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes a bulk upload of performance samples while it is being read.
+ *
+ * The body is either a JSON array or NDJSON (one object per line); both are read token by token,
+ * so only the current record and one publish batch are held in memory regardless of body size.
+ * Each batch is acknowledged by the broker before the next one is read, so a record only counts
+ * as accepted once it is stored in Kafka.
+ */
+@Service
+public class BulkPublishService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkPublishService.class);
+
+    private final NetworkPerformancePublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long ackTimeoutMs;
+
+    public BulkPublishService(NetworkPerformancePublisher publisher,
+                              ObjectMapper objectMapper,
+                              @Value("${bulk.publish.batch-size:500}") int batchSize,
+                              @Value("${bulk.publish.ack-timeout-ms:30000}") long ackTimeoutMs) {
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.ackTimeoutMs = ackTimeoutMs;
+    }
+
+    public BulkPublishResultDto publish(InputStream body) throws IOException {
+        BulkPublishResultDto result = new BulkPublishResultDto();
+        List<PerformanceData> batch = new ArrayList<>(batchSize);
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            // NDJSON is simply a sequence of root-level objects to the parser
+            while (token != null && token != JsonToken.END_ARRAY) {
+                PerformanceData data = toPerformanceData(parser.readValueAsTree());
+                if (data == null) {
+                    result.setRejected(result.getRejected() + 1);
+                } else {
+                    batch.add(data);
+                    if (batch.size() >= batchSize) {
+                        flush(batch, result);
+                    }
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            result.setError("Malformed input after " + (result.getAccepted() + result.getRejected() + batch.size())
+                    + " records: " + e.getOriginalMessage());
+        } finally {
+            flush(batch, result);
+        }
+
+        logger.info("Bulk publish: {} accepted, {} rejected", result.getAccepted(), result.getRejected());
+        return result;
+    }
+
+    private void flush(List<PerformanceData> batch, BulkPublishResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int published = publisher.sendBatch(batch, ackTimeoutMs);
+        result.setAccepted(result.getAccepted() + published);
+        result.setRejected(result.getRejected() + batch.size() - published);
+        batch.clear();
+    }
+
+    /**
+     * @return null if the element is not a usable sample
+     */
+    private PerformanceData toPerformanceData(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            return null;
+        }
+        PerformanceData data;
+        try {
+            data = objectMapper.treeToValue(node, PerformanceData.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
+        }
+        if (data.getNodeId() == null || data.getNetworkId() == null || data.getLatency() == null
+                || data.getThroughput() == null || data.getErrorRate() == null) {
+            return null;
+        }
+        if (data.getTimestamp() == null) {
+            data.setTimestamp(LocalDateTime.now());
+        }
+        return data;
+    }
+}
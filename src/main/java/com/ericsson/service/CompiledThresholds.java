@@ -0,0 +1,141 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.ThresholdRuleDto;
+import com.ericsson.model.PerformanceData;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable set of threshold rules flattened into primitive arrays.
+ *
+ * Network rules are resolved against the global rule when compiling; node rules keep NaN for the
+ * values they inherit, which are taken from the sample's network (or global) thresholds. Classifying
+ * a sample is two map lookups and six comparisons, however many rules exist.
+ */
+final class CompiledThresholds {
+
+    static final int HIGH_LATENCY = 0;
+    static final int LOW_THROUGHPUT = 1;
+    static final int HIGH_ERROR_RATE = 2;
+    static final int CRITICAL_LATENCY = 3;
+    static final int CRITICAL_THROUGHPUT = 4;
+    static final int CRITICAL_ERROR_RATE = 5;
+    static final int FIELDS = 6;
+
+    private final double[] global;
+    private final Map<Integer, double[]> byNetwork = new HashMap<>();
+    private final Map<Integer, double[]> byNode = new HashMap<>();
+
+    /**
+     * @param defaults  thresholds indexed by the field constants
+     * @param globalRule overrides of the defaults, may be null
+     */
+    CompiledThresholds(double[] defaults, ThresholdRuleDto globalRule,
+                       Iterable<ThresholdRuleDto> networkRules, Iterable<ThresholdRuleDto> nodeRules) {
+        this.global = overlay(defaults, globalRule);
+        networkRules.forEach(rule -> byNetwork.put(rule.getScopeId(), overlay(global, rule)));
+        double[] inherit = new double[FIELDS];
+        Arrays.fill(inherit, Double.NaN);
+        nodeRules.forEach(rule -> byNode.put(rule.getScopeId(), overlay(inherit, rule)));
+    }
+
+    boolean isHealthy(PerformanceData data) {
+        double[] base = byNetwork.getOrDefault(data.getNetworkId(), global);
+        double[] node = byNode.get(data.getNodeId());
+        return data.getLatency() < pick(node, base, HIGH_LATENCY)
+                && data.getThroughput() > pick(node, base, LOW_THROUGHPUT)
+                && data.getErrorRate() < pick(node, base, HIGH_ERROR_RATE);
+    }
+
+    boolean isCritical(PerformanceData data) {
+        double[] base = byNetwork.getOrDefault(data.getNetworkId(), global);
+        double[] node = byNode.get(data.getNodeId());
+        return data.getLatency() > pick(node, base, CRITICAL_LATENCY)
+                || data.getThroughput() < pick(node, base, CRITICAL_THROUGHPUT)
+                || data.getErrorRate() > pick(node, base, CRITICAL_ERROR_RATE);
+    }
+
+    /**
+     * @return the threshold of the given field that applies to the sample's node
+     */
+    double threshold(PerformanceData data, int field) {
+        return pick(byNode.get(data.getNodeId()), byNetwork.getOrDefault(data.getNetworkId(), global), field);
+    }
+
+    double[] getGlobal() {
+        return global.clone();
+    }
+
+    /**
+     * Finds thresholds whose critical value is not beyond the warning value, which would make a
+     * sample healthy and critical at once. A node may sit in any network, so node rules are checked
+     * against the global thresholds and those of every network.
+     *
+     * @return a description of the first inconsistency, if any
+     */
+    Optional<String> inconsistency() {
+        Optional<String> found = inconsistency("global", global);
+        for (Map.Entry<Integer, double[]> network : byNetwork.entrySet()) {
+            found = found.or(() -> inconsistency("network " + network.getKey(), network.getValue()));
+        }
+        for (Map.Entry<Integer, double[]> node : byNode.entrySet()) {
+            found = found.or(() -> inconsistency("node " + node.getKey(), resolve(node.getValue(), global)));
+            for (double[] network : byNetwork.values()) {
+                found = found.or(() -> inconsistency("node " + node.getKey(), resolve(node.getValue(), network)));
+            }
+        }
+        return found;
+    }
+
+    private static Optional<String> inconsistency(String scope, double[] thresholds) {
+        if (thresholds[CRITICAL_LATENCY] < thresholds[HIGH_LATENCY]) {
+            return Optional.of(scope + ": criticalLatency must not be below highLatency");
+        }
+        if (thresholds[CRITICAL_THROUGHPUT] > thresholds[LOW_THROUGHPUT]) {
+            return Optional.of(scope + ": criticalThroughput must not be above lowThroughput");
+        }
+        if (thresholds[CRITICAL_ERROR_RATE] < thresholds[HIGH_ERROR_RATE]) {
+            return Optional.of(scope + ": criticalErrorRate must not be below highErrorRate");
+        }
+        return Optional.empty();
+    }
+
+    private static double[] resolve(double[] node, double[] base) {
+        double[] result = new double[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            result[field] = pick(node, base, field);
+        }
+        return result;
+    }
+
+    private static double pick(double[] node, double[] base, int field) {
+        if (node == null) {
+            return base[field];
+        }
+        double value = node[field];
+        return Double.isNaN(value) ? base[field] : value;
+    }
+
+    private static double[] overlay(double[] base, ThresholdRuleDto rule) {
+        double[] result = base.clone();
+        if (rule == null) {
+            return result;
+        }
+        set(result, HIGH_LATENCY, rule.getHighLatency());
+        set(result, LOW_THROUGHPUT, rule.getLowThroughput());
+        set(result, HIGH_ERROR_RATE, rule.getHighErrorRate());
+        set(result, CRITICAL_LATENCY, rule.getCriticalLatency());
+        set(result, CRITICAL_THROUGHPUT, rule.getCriticalThroughput());
+        set(result, CRITICAL_ERROR_RATE, rule.getCriticalErrorRate());
+        return result;
+    }
+
+    private static void set(double[] thresholds, int field, Double value) {
+        if (value != null) {
+            thresholds[field] = value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ericsson.service;
+
+import com.ericsson.config.KafkaConfig;
+import com.ericsson.exception.DeadLetterReplayException;
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Dead-letter topic access: classifying failures, parking records that cannot be stored,
+ * and replaying parked records back onto the main topic
+ */
+@Service
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+    private static final String REPLAY_GROUP_ID = "network-performance-dlt-replay";
+    private static final Duration REPLAY_POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final KafkaTemplate<String, Object> retryKafkaTemplate;
+    private final ConsumerFactory<String, byte[]> replayConsumerFactory;
+    private final long replaySendTimeoutMillis;
+    private final Counter deadLettered;
+    private final Counter replayed;
+
+    public DeadLetterService(@Qualifier("retryKafkaTemplate") KafkaTemplate<String, Object> retryKafkaTemplate,
+                             @Qualifier("deadLetterReplayConsumerFactory") ConsumerFactory<String, byte[]> replayConsumerFactory,
+                             @Value("${kafka.dlt.replay.send-timeout-ms:30000}") long replaySendTimeoutMillis,
+                             MeterRegistry meterRegistry) {
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.replayConsumerFactory = replayConsumerFactory;
+        this.replaySendTimeoutMillis = replaySendTimeoutMillis;
+        this.deadLettered = Counter.builder("performance.ingest.dead.letters")
+                .description("Records parked on the DLT by the ingestion buffer writers")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("performance.ingest.dead.letters.replayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A failure that will happen again no matter how often the record is retried
+     */
+    public static boolean isPoison(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof InvalidDataAccessApiUsageException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parks a record that could not be stored; used where listener retries do not apply
+     */
+    public void publish(PerformanceData data, Exception failure) {
+        String key = data.getNodeId() != null ? String.valueOf(data.getNodeId()) : null;
+        deadLettered.increment();
+        logger.error("Moving performance record of Node {} to {}: {}",
+                data.getNodeId(), KafkaConfig.PERFORMANCE_DLT_TOPIC, failure.getMessage());
+        retryKafkaTemplate.send(KafkaConfig.PERFORMANCE_DLT_TOPIC, key, data).whenComplete((result, ex) -> {
+            if (ex != null) {
+                logger.error("Failed to dead-letter performance record of Node {}: {}", data.getNodeId(), ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Republishes up to maxRecords DLT records onto the main topic, byte for byte.
+     * Progress is committed per poll under a dedicated consumer group, so repeated calls
+     * continue where the previous one stopped.
+     */
+    public int replay(int maxRecords) {
+        int count = 0;
+        try (Consumer<String, byte[]> consumer = replayConsumerFactory.createConsumer(REPLAY_GROUP_ID, "dlt-replay")) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(KafkaConfig.PERFORMANCE_DLT_TOPIC);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList());
+
+            while (count < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(REPLAY_POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> deadLetter : records) {
+                    if (count + sends.size() >= maxRecords) {
+                        break;
+                    }
+                    sends.add(retryKafkaTemplate.send(KafkaConfig.PERFORMANCE_TOPIC, deadLetter.key(), deadLetter.value()));
+                    offsets.put(new TopicPartition(deadLetter.topic(), deadLetter.partition()),
+                            new OffsetAndMetadata(deadLetter.offset() + 1));
+                }
+
+                // Only move the replay position once the broker has the copies
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                        .get(replaySendTimeoutMillis, TimeUnit.MILLISECONDS);
+                consumer.commitSync(offsets);
+                count += sends.size();
+                replayed.increment(sends.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadLetterReplayException("DLT replay interrupted after " + count + " records", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new DeadLetterReplayException("DLT replay failed after " + count + " records: " + e.getMessage(), e);
+        }
+
+        logger.info("Replayed {} records from {}", count, KafkaConfig.PERFORMANCE_DLT_TOPIC);
+        return count;
+    }
+}
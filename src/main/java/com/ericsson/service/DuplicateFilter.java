@@ -0,0 +1,167 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Drops redelivered samples (same nodeId and timestamp) before they reach the database.
+ *
+ * Samples are bucketed by their own timestamp into a ring of Bloom filters covering the last
+ * window-minutes; a redelivered sample always lands in the same bucket as the original, so each
+ * check is one Bloom lookup. Buckets are recycled as the window moves. Samples outside the window
+ * are not tracked and are left to the unique (node_id, timestamp) constraint.
+ *
+ * A Bloom filter can report a sample it has never seen (probability fpp per lookup while a bucket
+ * stays under expected-insertions-per-bucket); such a sample is dropped as a duplicate.
+ */
+@Component
+public class DuplicateFilter {
+
+    private static final Funnel<PerformanceData> SAMPLE_KEY = (data, sink) -> sink
+            .putInt(data.getNodeId())
+            .putLong(toEpochNanos(data.getTimestamp()));
+
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int expectedInsertionsPerBucket;
+    private final double falsePositiveProbability;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final Counter duplicates;
+
+    private record Bucket(long epoch, BloomFilter<PerformanceData> filter) {
+    }
+
+    private record SampleKey(Integer nodeId, LocalDateTime timestamp) {
+    }
+
+    @Autowired
+    public DuplicateFilter(MeterRegistry meterRegistry,
+                           @Value("${ingestion.dedup.enabled:true}") boolean enabled,
+                           @Value("${ingestion.dedup.window-minutes:60}") int windowMinutes,
+                           @Value("${ingestion.dedup.buckets:12}") int bucketCount,
+                           @Value("${ingestion.dedup.expected-insertions-per-bucket:100000}") int expectedInsertionsPerBucket,
+                           @Value("${ingestion.dedup.fpp:0.000001}") double falsePositiveProbability) {
+        this(Counter.builder("performance.ingest.duplicates")
+                        .description("Samples dropped because the same node/timestamp was already stored")
+                        .register(meterRegistry),
+                enabled, windowMinutes, bucketCount, expectedInsertionsPerBucket, falsePositiveProbability);
+    }
+
+    /**
+     * Filter of its own for a consumer other than the ingest, counting its duplicates separately
+     */
+    DuplicateFilter(Counter duplicates, boolean enabled, int windowMinutes, int bucketCount,
+                    int expectedInsertionsPerBucket, double falsePositiveProbability) {
+        this.enabled = enabled;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(windowMinutes) / bucketCount;
+        this.expectedInsertionsPerBucket = expectedInsertionsPerBucket;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.duplicates = duplicates;
+    }
+
+    public boolean isDuplicate(PerformanceData data) {
+        Bucket bucket = bucketFor(data, false);
+        if (bucket != null && bucket.filter().mightContain(data)) {
+            duplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes samples already stored and repeats within the batch itself
+     */
+    public List<PerformanceData> removeDuplicates(List<PerformanceData> batch) {
+        if (!enabled) {
+            return batch;
+        }
+        List<PerformanceData> fresh = new ArrayList<>(batch.size());
+        Set<SampleKey> seenInBatch = new HashSet<>();
+        for (PerformanceData data : batch) {
+            if (!seenInBatch.add(new SampleKey(data.getNodeId(), data.getTimestamp()))) {
+                duplicates.increment();
+            } else if (!isDuplicate(data)) {
+                fresh.add(data);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Called only once the samples are committed, so a failed write can be retried
+     */
+    public void markStored(List<PerformanceData> stored) {
+        for (PerformanceData data : stored) {
+            markStored(data);
+        }
+    }
+
+    public void markStored(PerformanceData data) {
+        Bucket bucket = bucketFor(data, true);
+        if (bucket != null) {
+            bucket.filter().put(data);
+        }
+    }
+
+    /**
+     * Marks a duplicate that was only caught by the database constraint
+     */
+    public void countDuplicate() {
+        duplicates.increment();
+    }
+
+    private Bucket bucketFor(PerformanceData data, boolean create) {
+        if (!enabled || data.getNodeId() == null || data.getTimestamp() == null) {
+            return null;
+        }
+        long epoch = Math.floorDiv(toEpochMillis(data.getTimestamp()), bucketMillis);
+        long currentEpoch = Math.floorDiv(toEpochMillis(LocalDateTime.now()), bucketMillis);
+        // One bucket of tolerance for producer clocks running slightly ahead
+        if (epoch > currentEpoch + 1 || epoch <= currentEpoch + 1 - bucketCount) {
+            return null;
+        }
+
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        while (true) {
+            Bucket current = buckets.get(slot);
+            if (current != null && current.epoch() == epoch) {
+                return current;
+            }
+            if (!create || (current != null && current.epoch() > epoch)) {
+                return null;
+            }
+            Bucket replacement = new Bucket(epoch,
+                    BloomFilter.create(SAMPLE_KEY, expectedInsertionsPerBucket, falsePositiveProbability));
+            if (buckets.compareAndSet(slot, current, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static long toEpochNanos(LocalDateTime timestamp) {
+        return TimeUnit.SECONDS.toNanos(timestamp.toEpochSecond(ZoneOffset.UTC)) + timestamp.getNano();
+    }
+}
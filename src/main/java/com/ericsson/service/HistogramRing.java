@@ -0,0 +1,67 @@
+package com.ericsson.service;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.PackedHistogram;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of latency histograms, one per time slice. Histograms are packed, so a slice
+ * only costs memory for the value ranges it actually saw, and reused when the slice rolls over.
+ */
+class HistogramRing {
+
+    private final long sliceMillis;
+    private final int slots;
+    private final long highestTrackableValue;
+    private final int significantDigits;
+
+    // Guarded by this
+    private final long[] sliceIds;
+    private final PackedHistogram[] histograms;
+
+    HistogramRing(long sliceMillis, int slots, long highestTrackableValue, int significantDigits) {
+        this.sliceMillis = sliceMillis;
+        this.slots = slots;
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+        this.sliceIds = new long[slots];
+        this.histograms = new PackedHistogram[slots];
+        Arrays.fill(sliceIds, Long.MIN_VALUE);
+    }
+
+    long getSpanMillis() {
+        return sliceMillis * slots;
+    }
+
+    synchronized void record(long epochMillis, long value) {
+        long sliceId = Math.floorDiv(epochMillis, sliceMillis);
+        int slot = (int) Math.floorMod(sliceId, (long) slots);
+        if (sliceIds[slot] > sliceId) {
+            return; // slot already holds a newer slice
+        }
+        PackedHistogram histogram = histograms[slot];
+        if (histogram == null) {
+            histogram = new PackedHistogram(highestTrackableValue, significantDigits);
+            histograms[slot] = histogram;
+        } else if (sliceIds[slot] != sliceId) {
+            histogram.reset();
+        }
+        sliceIds[slot] = sliceId;
+        histogram.recordValue(Math.min(Math.max(value, 0), highestTrackableValue));
+    }
+
+    /**
+     * Adds the slices overlapping [fromMillis, toMillis) to the target
+     */
+    synchronized void mergeInto(long fromMillis, long toMillis, AbstractHistogram target) {
+        long lastSlice = Math.floorDiv(toMillis - 1, sliceMillis);
+        long firstSlice = Math.max(Math.floorDiv(fromMillis, sliceMillis), lastSlice - slots + 1);
+        for (long sliceId = firstSlice; sliceId <= lastSlice; sliceId++) {
+            int slot = (int) Math.floorMod(sliceId, (long) slots);
+            if (sliceIds[slot] == sliceId) {
+                target.add(histograms[slot]);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the pooled id allocator of performance_data past the highest existing id before any sample
+ * is saved. Tables created while PerformanceData still used IDENTITY already hold ids the allocator
+ * knows nothing about.
+ *
+ * The pooled optimizer hands out (next_val - allocationSize, next_val] and keeps that block in memory,
+ * so the row has to be right before the first save: the PerformanceDataWriter depends on this bean,
+ * and the Kafka listener containers only start once all singletons are initialized. Without a row
+ * Hibernate would seed one at its initial value, so a missing row is created past the highest id as well.
+ */
+@Component
+@DependsOn("entityManagerFactory") // runs after Hibernate has created or updated the schema
+public class IdAllocatorAlignment {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdAllocatorAlignment.class);
+
+    private final PerformanceDataRepository repository;
+
+    public IdAllocatorAlignment(PerformanceDataRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void align() {
+        long maxId = repository.findMaxId();
+        long nextVal = maxId + PerformanceData.ID_ALLOCATION_SIZE;
+        int changed;
+        try {
+            changed = repository.insertIdAllocator(nextVal);
+        } catch (DataIntegrityViolationException e) {
+            changed = 0; // created concurrently by another instance, advanced below
+        }
+        if (changed == 0) {
+            changed = repository.advanceIdAllocator(nextVal);
+        }
+        if (changed > 0) {
+            logger.info("Moved performance_data id allocator past existing id {}", maxId);
+        }
+    }
+}
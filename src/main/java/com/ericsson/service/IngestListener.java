@@ -0,0 +1,17 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+
+import java.util.List;
+
+/**
+ * Notified by the MetricsViewFeed with every sample published to the performance topic, whichever
+ * instance stores it.
+ *
+ * Called on the feed's consumer thread while the views are being read, so implementations must be
+ * thread-safe and cheap.
+ */
+public interface IngestListener {
+
+    void onIngested(List<PerformanceData> stored);
+}
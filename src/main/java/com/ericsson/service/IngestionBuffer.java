@@ -0,0 +1,262 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue between the Kafka listeners and the database (ingestion.buffer.enabled=true).
+ *
+ * Listener threads enqueue and return; dedicated writer threads drain the queue in batches.
+ * Above the high-water mark the listener containers, including the retry topic containers, are
+ * paused so Kafka stops delivering, and they are resumed once the writers bring the depth below
+ * the low-water mark.
+ *
+ * Offsets are committed once records are queued, not once they are stored, so records still
+ * in the queue when the process dies are not redelivered. For the same reason listener retries
+ * do not apply here: records that can never be stored go to the DLT directly, and database
+ * outages are retried by the writer, which backs up the queue and pauses the listeners.
+ */
+@Service
+public class IngestionBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionBuffer.class);
+
+    private static final long WRITE_RETRY_DELAY_MS = 1000;
+
+    private static final List<String> LISTENER_IDS = List.of(
+            NetworkPerformanceConsumer.RECORD_LISTENER_ID, NetworkPerformanceConsumer.BATCH_LISTENER_ID);
+
+    private final boolean enabled;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private final int writerThreads;
+    private final int drainBatchSize;
+
+    private final BlockingQueue<PerformanceData> queue;
+    private final PerformanceDataWriter writer;
+    private final DeadLetterService deadLetterService;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Timer pauseTimer;
+
+    private final Object pauseLock = new Object();
+    private boolean paused;
+    private long pausedSinceNanos;
+
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    public IngestionBuffer(PerformanceDataWriter writer,
+                           DeadLetterService deadLetterService,
+                           KafkaListenerEndpointRegistry listenerRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${ingestion.buffer.enabled:false}") boolean enabled,
+                           @Value("${ingestion.buffer.capacity:10000}") int capacity,
+                           @Value("${ingestion.buffer.high-water-mark:8000}") int highWaterMark,
+                           @Value("${ingestion.buffer.low-water-mark:2000}") int lowWaterMark,
+                           @Value("${ingestion.buffer.writer-threads:2}") int writerThreads,
+                           @Value("${ingestion.buffer.drain-batch-size:500}") int drainBatchSize) {
+        if (lowWaterMark >= highWaterMark || highWaterMark > capacity) {
+            throw new IllegalArgumentException("Ingestion buffer requires low-water-mark < high-water-mark <= capacity");
+        }
+        this.writer = writer;
+        this.deadLetterService = deadLetterService;
+        this.listenerRegistry = listenerRegistry;
+        this.enabled = enabled;
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = lowWaterMark;
+        this.writerThreads = writerThreads;
+        this.drainBatchSize = drainBatchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("ingestion.buffer.depth", queue, BlockingQueue::size)
+                .description("Performance records waiting to be written")
+                .register(meterRegistry);
+        this.pauseTimer = Timer.builder("ingestion.buffer.pause.duration")
+                .description("Time the Kafka listeners spent paused by backpressure")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            Thread thread = new Thread(this::drainLoop, "ingestion-writer-" + i);
+            thread.start();
+            writers.add(thread);
+        }
+        logger.info("Ingestion buffer started with {} writer threads (high {}, low {})",
+                writerThreads, highWaterMark, lowWaterMark);
+    }
+
+    /**
+     * Writer threads finish draining whatever is queued before exiting; the listener
+     * containers are stopped earlier in the shutdown sequence
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Thread thread : writers) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for ingestion writers to drain");
+                return;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Blocks the calling listener thread only when the queue is completely full, which can
+     * happen for the records of a poll that was already in progress when we paused
+     */
+    public void enqueue(List<PerformanceData> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                queue.put(batch.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while enqueuing performance data, {} records dropped", batch.size() - i);
+                return;
+            }
+        }
+        if (queue.size() >= highWaterMark) {
+            pauseListeners();
+        }
+    }
+
+    private void drainLoop() {
+        List<PerformanceData> batch = new ArrayList<>(drainBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PerformanceData first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, drainBatchSize - 1);
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+            // also after an empty poll: a listener may pause after the last batch was written
+            if (queue.size() <= lowWaterMark) {
+                resumeListeners();
+            }
+        }
+    }
+
+    private void writeBatch(List<PerformanceData> batch) throws InterruptedException {
+        while (true) {
+            try {
+                writer.saveAll(batch);
+                logger.debug("Ingestion writer stored {} records", batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (DeadLetterService.isPoison(e)) {
+                    logger.warn("Buffered batch of {} records rejected ({}), saving one by one", batch.size(), e.getMessage());
+                    saveIndividually(batch);
+                    return;
+                }
+                if (!running) {
+                    logger.error("Database unavailable during shutdown, dead-lettering {} buffered records", batch.size());
+                    batch.forEach(data -> deadLetterService.publish(data, e));
+                    return;
+                }
+                logger.error("Error saving buffered batch of {} performance records, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(WRITE_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    private void saveIndividually(List<PerformanceData> batch) {
+        for (PerformanceData data : batch) {
+            try {
+                writer.save(data);
+            } catch (RuntimeException e) {
+                deadLetterService.publish(data, e);
+            }
+        }
+    }
+
+    private void pauseListeners() {
+        synchronized (pauseLock) {
+            if (paused) {
+                return;
+            }
+            paused = true;
+            pausedSinceNanos = System.nanoTime();
+            forEachRunningListener(MessageListenerContainer::pause);
+        }
+        logger.warn("Ingestion buffer above high-water mark ({} queued), pausing Kafka listeners", queue.size());
+    }
+
+    private void resumeListeners() {
+        long pausedNanos;
+        synchronized (pauseLock) {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            pausedNanos = System.nanoTime() - pausedSinceNanos;
+            forEachRunningListener(MessageListenerContainer::resume);
+        }
+        pauseTimer.record(pausedNanos, TimeUnit.NANOSECONDS);
+        logger.info("Ingestion buffer below low-water mark, resumed Kafka listeners after {}ms",
+                TimeUnit.NANOSECONDS.toMillis(pausedNanos));
+    }
+
+    private void forEachRunningListener(Consumer<MessageListenerContainer> action) {
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (isIngestListener(container.getListenerId()) && container.isRunning()) {
+                action.accept(container);
+            }
+        }
+    }
+
+    /**
+     * The main listeners and the retry topic listeners @RetryableTopic derives from them,
+     * whose ids are the main id plus the topic suffix (-retry-1000, ...)
+     */
+    static boolean isIngestListener(String listenerId) {
+        if (listenerId == null) {
+            return false;
+        }
+        for (String id : LISTENER_IDS) {
+            if (listenerId.equals(id) || listenerId.startsWith(id + "-")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,217 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running KPI aggregates over the latest sample of every node, overall and per network.
+ *
+ * Each change of a node's latest sample subtracts the old sample and adds the new one, so an
+ * update costs O(1) for the sums and counts and O(log nodes) for the min/max values.
+ * The summary served to the dashboard is an immutable snapshot that is only rebuilt after a change.
+ */
+@Component
+public class KpiSummaryAggregator implements LatestMetricsListener {
+
+    private static final String TOTAL_NODES = "totalNodes";
+    private static final String HEALTHY_NODES = "healthyNodes";
+
+    private final NodeHealthClassifier healthClassifier;
+
+    // Guarded by this
+    private final Aggregate total = new Aggregate();
+    private final Map<Integer, Aggregate> byNetwork = new HashMap<>();
+    private final DoubleMultiset latencies = new DoubleMultiset();
+    private final DoubleMultiset throughputs = new DoubleMultiset();
+    private final DoubleMultiset errorRates = new DoubleMultiset();
+    private LocalDateTime lastUpdated = LocalDateTime.now();
+
+    private volatile Map<String, Object> snapshot;
+
+    public KpiSummaryAggregator(NodeHealthClassifier healthClassifier) {
+        this.healthClassifier = healthClassifier;
+    }
+
+    @Override
+    public synchronized void onLatestChanged(PerformanceData previous, PerformanceData current) {
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(current, 1);
+        lastUpdated = LocalDateTime.now();
+        snapshot = null;
+    }
+
+    /**
+     * Starts over from the given latest samples, e.g. after the health thresholds changed.
+     * Callers pass samples taken while no update is in progress, see LatestMetricsCache.withUpdatesPaused
+     */
+    public synchronized void rebuild(Iterable<PerformanceData> latest) {
+        total.clear();
+        byNetwork.clear();
+        latencies.clear();
+        throughputs.clear();
+        errorRates.clear();
+        latest.forEach(data -> apply(data, 1));
+        lastUpdated = LocalDateTime.now();
+        snapshot = null;
+    }
+
+    public Map<String, Object> getSummary() {
+        Map<String, Object> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = buildSnapshot();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void apply(PerformanceData data, int sign) {
+        if (data.getLatency() == null || data.getThroughput() == null || data.getErrorRate() == null) {
+            return; // never counted, so nothing to add or subtract
+        }
+        boolean healthy = healthClassifier.isHealthy(data);
+        boolean critical = healthClassifier.isCritical(data);
+        total.add(data, healthy, critical, sign);
+        Aggregate network = byNetwork.computeIfAbsent(data.getNetworkId(), id -> new Aggregate());
+        network.add(data, healthy, critical, sign);
+        if (network.count == 0) {
+            byNetwork.remove(data.getNetworkId());
+        }
+        latencies.add(data.getLatency(), sign);
+        throughputs.add(data.getThroughput(), sign);
+        errorRates.add(data.getErrorRate(), sign);
+    }
+
+    private Map<String, Object> buildSnapshot() {
+        Map<String, Object> summary = new HashMap<>();
+        if (total.count == 0) {
+            summary.put("message", "No data available");
+            summary.put(TOTAL_NODES, 0);
+            summary.put(HEALTHY_NODES, 0);
+            summary.put("averageLatency", 0.0);
+            summary.put("averageThroughput", 0.0);
+            summary.put("averageErrorRate", 0.0);
+            summary.put("lastUpdated", lastUpdated);
+            return Collections.unmodifiableMap(summary);
+        }
+
+        summary.put(TOTAL_NODES, total.count);
+        summary.put(HEALTHY_NODES, total.healthy);
+        summary.put("criticalNodes", total.critical);
+        summary.put("healthPercentage", Math.round((total.healthy * 100.0) / total.count));
+
+        // Average KPIs (rounded for display)
+        summary.put("averageLatency", round2(total.latencySum / total.count));
+        summary.put("averageThroughput", round2(total.throughputSum / total.count));
+        summary.put("averageErrorRate", round3(total.errorRateSum / total.count));
+
+        // Min/Max values for context
+        summary.put("maxLatency", round2(latencies.max()));
+        summary.put("minThroughput", round2(throughputs.min()));
+        summary.put("maxErrorRate", round3(errorRates.max()));
+
+        summary.put("systemStatus", determineSystemStatus(total.healthy, total.count, total.critical));
+        summary.put("lastUpdated", lastUpdated);
+
+        Map<String, Object> networkSummary = new HashMap<>();
+        byNetwork.forEach((networkId, network) -> {
+            Map<String, Object> netStats = new HashMap<>();
+            netStats.put(TOTAL_NODES, network.count);
+            netStats.put(HEALTHY_NODES, network.healthy);
+            netStats.put("avgLatency", round2(network.latencySum / network.count));
+            netStats.put("avgThroughput", round2(network.throughputSum / network.count));
+            netStats.put("avgErrorRate", round3(network.errorRateSum / network.count));
+            networkSummary.put("network_" + networkId, Collections.unmodifiableMap(netStats));
+        });
+        summary.put("networkSummary", Collections.unmodifiableMap(networkSummary));
+
+        return Collections.unmodifiableMap(summary);
+    }
+
+    /**
+     * Determine overall system status
+     */
+    private static String determineSystemStatus(int healthyNodes, int totalNodes, int criticalNodes) {
+        if (totalNodes == 0) return "NO_DATA";
+
+        double healthPercentage = (healthyNodes * 100.0) / totalNodes;
+
+        if (criticalNodes > 0) return "CRITICAL";
+        if (healthPercentage >= 90) return "HEALTHY";
+        if (healthPercentage >= 70) return "WARNING";
+        return "DEGRADED";
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static double round3(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static final class Aggregate {
+        int count;
+        int healthy;
+        int critical;
+        double latencySum;
+        double throughputSum;
+        double errorRateSum;
+
+        void add(PerformanceData data, boolean isHealthy, boolean isCritical, int sign) {
+            count += sign;
+            healthy += isHealthy ? sign : 0;
+            critical += isCritical ? sign : 0;
+            latencySum += sign * data.getLatency();
+            throughputSum += sign * data.getThroughput();
+            errorRateSum += sign * data.getErrorRate();
+            if (count == 0) {
+                // drop the rounding error accumulated by the add/subtract pairs
+                latencySum = 0;
+                throughputSum = 0;
+                errorRateSum = 0;
+            }
+        }
+
+        void clear() {
+            count = 0;
+            healthy = 0;
+            critical = 0;
+            latencySum = 0;
+            throughputSum = 0;
+            errorRateSum = 0;
+        }
+    }
+
+    // Min/max cannot be un-done by subtraction, so the current values are kept sorted
+    private static final class DoubleMultiset {
+        private final TreeMap<Double, Integer> counts = new TreeMap<>();
+
+        void add(double value, int sign) {
+            counts.merge(value, sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        double min() {
+            return counts.isEmpty() ? 0.0 : counts.firstKey();
+        }
+
+        double max() {
+            return counts.isEmpty() ? 0.0 : counts.lastKey();
+        }
+
+        void clear() {
+            counts.clear();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.model.RollupScope;
+import com.ericsson.storage.ColumnarSeriesStore;
+import com.ericsson.storage.ReplayTarget;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mergeable latency percentile sketches (HdrHistogram) per node and per network, updated on
+ * ingest. Each series keeps 30-second slices for the last 5 minutes, 5-minute slices for the
+ * last hour and 1-hour slices for the last day; a query merges the slices of the finest ring
+ * covering it, and network or global percentiles merge the series on read.
+ *
+ * Latency is recorded in microseconds with 2 significant digits, i.e. within 1% of the true value.
+ */
+@Component
+public class LatencySketchStore implements IngestListener, ReplayTarget {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L; // 1 hour
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final Duration SPAN = Duration.ofDays(1);
+
+    private final Map<SeriesKey, HistogramRing[]> series = new ConcurrentHashMap<>();
+
+    private volatile boolean live;
+
+    @Override
+    public Duration getReplayWindow() {
+        return SPAN;
+    }
+
+    @Override
+    public void beginReplay() {
+        live = true;
+    }
+
+    @Override
+    public void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate) {
+        long micros = toMicros(latency);
+        for (HistogramRing ring : rings(new SeriesKey(RollupScope.NODE, nodeId))) {
+            ring.record(timestampMillis, micros);
+        }
+        for (HistogramRing ring : rings(new SeriesKey(RollupScope.NETWORK, networkId))) {
+            ring.record(timestampMillis, micros);
+        }
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!live) {
+            return;
+        }
+        for (PerformanceData data : stored) {
+            if (data.getNodeId() == null || data.getNetworkId() == null
+                    || data.getTimestamp() == null || data.getLatency() == null) {
+                continue;
+            }
+            visit(data.getNodeId(), data.getNetworkId(), ColumnarSeriesStore.toEpochMillis(data.getTimestamp()),
+                    data.getLatency(), 0, 0);
+        }
+    }
+
+    private HistogramRing[] rings(SeriesKey key) {
+        return series.computeIfAbsent(key, k -> new HistogramRing[]{
+                new HistogramRing(30_000, 10, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS),
+                new HistogramRing(300_000, 12, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS),
+                new HistogramRing(3_600_000, 24, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS)});
+    }
+
+    /**
+     * Latency distribution of [fromMillis, toMillis) for one node or network, or for all samples
+     * when scopeId is null, at the granularity of the finest ring reaching back to fromMillis
+     */
+    public Histogram latencyHistogram(RollupScope scope, Integer scopeId, long fromMillis, long toMillis, long nowMillis) {
+        Histogram merged = newLatencyHistogram();
+        if (scopeId != null) {
+            HistogramRing[] rings = series.get(new SeriesKey(scope, scopeId));
+            if (rings != null) {
+                ringFor(rings, fromMillis, nowMillis).mergeInto(fromMillis, toMillis, merged);
+            }
+            return merged;
+        }
+        // every sample belongs to exactly one network, so merging the networks covers all of them
+        series.forEach((key, rings) -> {
+            if (key.scope() == RollupScope.NETWORK) {
+                ringFor(rings, fromMillis, nowMillis).mergeInto(fromMillis, toMillis, merged);
+            }
+        });
+        return merged;
+    }
+
+    /**
+     * Whether the sketches still hold slices back to fromMillis; older ranges would only be
+     * answered from their last day
+     */
+    public boolean covers(long fromMillis, long nowMillis) {
+        return fromMillis >= nowMillis - SPAN.toMillis();
+    }
+
+    /**
+     * @return p50/p95/p99 in milliseconds, or an empty map without samples
+     */
+    public Map<String, Object> latencyPercentiles(RollupScope scope, Integer scopeId, long fromMillis, long toMillis, long nowMillis) {
+        return toPercentiles(latencyHistogram(scope, scopeId, fromMillis, toMillis, nowMillis));
+    }
+
+    /**
+     * Percentiles of every network over [fromMillis, toMillis), keyed like the network summary
+     */
+    public Map<String, Object> networkLatencyPercentiles(long fromMillis, long toMillis, long nowMillis) {
+        Map<String, Object> byNetwork = new LinkedHashMap<>();
+        series.forEach((key, rings) -> {
+            if (key.scope() == RollupScope.NETWORK) {
+                byNetwork.put("network_" + key.id(),
+                        latencyPercentiles(RollupScope.NETWORK, key.id(), fromMillis, toMillis, nowMillis));
+            }
+        });
+        return byNetwork;
+    }
+
+    /**
+     * Empty histogram with the precision and range of the sketches, for exact percentiles of a scan
+     */
+    public Histogram newLatencyHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    static long toMicros(double latencyMillis) {
+        return Math.min(Math.max(Math.round(latencyMillis * 1000), 0), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    static Map<String, Object> toPercentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        if (histogram.getTotalCount() == 0) {
+            return percentiles;
+        }
+        percentiles.put("p50", toMillis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p95", toMillis(histogram.getValueAtPercentile(95)));
+        percentiles.put("p99", toMillis(histogram.getValueAtPercentile(99)));
+        percentiles.put("sampleSize", histogram.getTotalCount());
+        return percentiles;
+    }
+
+    private static double toMillis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static HistogramRing ringFor(HistogramRing[] rings, long fromMillis, long nowMillis) {
+        for (HistogramRing ring : rings) {
+            if (fromMillis >= nowMillis - ring.getSpanMillis()) {
+                return ring;
+            }
+        }
+        return rings[rings.length - 1];
+    }
+
+    private record SeriesKey(RollupScope scope, int id) {
+    }
+}
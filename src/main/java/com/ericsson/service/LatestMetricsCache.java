@@ -0,0 +1,132 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Latest sample of every node, kept up to date on ingest so dashboard reads cost O(nodes)
+ * instead of a scan over the whole history.
+ *
+ * Every replacement is passed on to the LatestMetricsListener beans while holding the node's own
+ * lock (not a map bin lock), so listeners see the changes of one node strictly in order.
+ * Updates share a cache-wide read lock, so a listener rebuilding its state through
+ * withUpdatesPaused() runs between updates rather than in the middle of one.
+ * Samples missing a metric are ignored.
+ */
+@Component
+public class LatestMetricsCache implements IngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestMetricsCache.class);
+
+    private final PerformanceDataRepository repository;
+    private final List<LatestMetricsListener> listeners;
+    private final Map<Integer, NodeEntry> latestByNode = new ConcurrentHashMap<>();
+    private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+
+    public LatestMetricsCache(PerformanceDataRepository repository, List<LatestMetricsListener> listeners) {
+        this.repository = repository;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Runs after the DataInitializer; samples ingested meanwhile are kept if they are newer
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<PerformanceData> latest = repository.findLatestPerNode();
+        latest.forEach(this::update);
+        logger.info("Seeded latest metrics cache with {} nodes", latestByNode.size());
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        stored.forEach(this::update);
+    }
+
+    public void update(PerformanceData data) {
+        if (data.getNodeId() == null || data.getTimestamp() == null
+                || data.getLatency() == null || data.getThroughput() == null || data.getErrorRate() == null) {
+            return;
+        }
+        updateLock.readLock().lock();
+        try {
+            NodeEntry entry = latestByNode.computeIfAbsent(data.getNodeId(), nodeId -> new NodeEntry());
+            synchronized (entry) {
+                PerformanceData existing = entry.latest;
+                if (existing != null && data.getTimestamp().isBefore(existing.getTimestamp())) {
+                    return;
+                }
+                for (LatestMetricsListener listener : listeners) {
+                    try {
+                        listener.onLatestChanged(existing, data);
+                    } catch (RuntimeException e) {
+                        logger.error("Latest metrics listener {} failed", listener.getClass().getSimpleName(), e);
+                    }
+                }
+                entry.latest = data;
+            }
+        } finally {
+            updateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action with the latest sample per node while no update is in progress, so every
+     * sample it is given has been passed to all listeners and no listener call overlaps it.
+     * Used by listeners that start over, e.g. after the health thresholds changed.
+     */
+    public void withUpdatesPaused(Consumer<List<PerformanceData>> action) {
+        updateLock.writeLock().lock();
+        try {
+            action.accept(getLatest());
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return latest sample per node, sorted by nodeId
+     */
+    public List<PerformanceData> getLatest() {
+        List<PerformanceData> latest = new ArrayList<>(latestByNode.size());
+        for (NodeEntry entry : latestByNode.values()) {
+            PerformanceData data = entry.latest;
+            if (data != null) {
+                latest.add(data);
+            }
+        }
+        latest.sort(Comparator.comparing(PerformanceData::getNodeId));
+        return latest;
+    }
+
+    /**
+     * @return latest sample of the node, null if it has not reported yet
+     */
+    public PerformanceData get(Integer nodeId) {
+        NodeEntry entry = latestByNode.get(nodeId);
+        return entry == null ? null : entry.latest;
+    }
+
+    public int size() {
+        return latestByNode.size();
+    }
+
+    private static final class NodeEntry {
+        // Written while holding the entry's lock
+        volatile PerformanceData latest;
+    }
+}
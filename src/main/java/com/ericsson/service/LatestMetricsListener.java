@@ -0,0 +1,17 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+
+/**
+ * Notified by the LatestMetricsCache whenever the latest sample of a node is replaced.
+ *
+ * Calls for the same node never overlap and arrive in the order the cache applied them;
+ * calls for different nodes may run concurrently.
+ */
+public interface LatestMetricsListener {
+
+    /**
+     * @param previous the sample being replaced, null for a node seen for the first time
+     */
+    void onLatestChanged(PerformanceData previous, PerformanceData current);
+}
@@ -1,14 +1,26 @@
 package com.ericsson.service;
 
+import com.ericsson.dto.AlertDto;
+import com.ericsson.dto.MetricAggregateDto;
+import com.ericsson.dto.NodeStatusDto;
 import com.ericsson.model.PerformanceData;
+import com.ericsson.model.RollupScope;
 import com.ericsson.repository.PerformanceDataRepository;
+import com.ericsson.storage.ColumnarSeriesStore;
+import com.ericsson.storage.SampleVisitor;
+import org.HdrHistogram.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class MetricsService {
@@ -21,15 +33,45 @@ public class MetricsService {
     private static final String TOTAL_NODES = "totalNodes";
     private static final String WARNING = "warning";
 
+    private static final Duration PERCENTILE_WINDOW = Duration.ofMinutes(5);
+    private static final int MAX_BUCKETS = 10_000;
+    private static final int MAX_BUCKETS_ACROSS_SERIES = 100_000;
+    private static final int DEFAULT_TRANSITION_PAGE_SIZE = 1000;
+
+    private final LatestMetricsCache latestMetricsCache;
+    private final KpiSummaryAggregator kpiSummaryAggregator;
+    private final NodeHealthClassifier healthClassifier;
+    private final RollingMetricsWindows rollingWindows;
+    private final ColumnarSeriesStore columnarStore;
+    private final RollupStore rollupStore;
+    private final LatencySketchStore latencySketches;
     private final PerformanceDataRepository repository;
-
-    // Anomaly detection thresholds
-    private static final double HIGH_LATENCY_THRESHOLD = 100.0; // ms
-    private static final double LOW_THROUGHPUT_THRESHOLD = 50.0; // Mbps
-    private static final double HIGH_ERROR_RATE_THRESHOLD = 2.0; // %
-
-    public MetricsService(PerformanceDataRepository repository) {
+    private final AnomalyTracker anomalyTracker;
+    private final BaselineDetector baselineDetector;
+    private final AlertLifecycleTracker alertLifecycle;
+
+    public MetricsService(LatestMetricsCache latestMetricsCache,
+                          KpiSummaryAggregator kpiSummaryAggregator,
+                          NodeHealthClassifier healthClassifier,
+                          RollingMetricsWindows rollingWindows,
+                          ColumnarSeriesStore columnarStore,
+                          RollupStore rollupStore,
+                          LatencySketchStore latencySketches,
+                          PerformanceDataRepository repository,
+                          AnomalyTracker anomalyTracker,
+                          BaselineDetector baselineDetector,
+                          AlertLifecycleTracker alertLifecycle) {
+        this.latestMetricsCache = latestMetricsCache;
+        this.kpiSummaryAggregator = kpiSummaryAggregator;
+        this.healthClassifier = healthClassifier;
+        this.rollingWindows = rollingWindows;
+        this.columnarStore = columnarStore;
+        this.rollupStore = rollupStore;
+        this.latencySketches = latencySketches;
         this.repository = repository;
+        this.anomalyTracker = anomalyTracker;
+        this.baselineDetector = baselineDetector;
+        this.alertLifecycle = alertLifecycle;
     }
 
     /**
@@ -37,196 +79,110 @@ public class MetricsService {
      * This is critical for real-time dashboard display
      */
     public List<PerformanceData> getLatestMetricsForAllNodes() {
-        List<PerformanceData> allData = repository.findAll();
+        // Already one record per node, sorted by node ID
+        List<PerformanceData> result = latestMetricsCache.getLatest();
 
-        if (allData.isEmpty()) {
-            logger.warn("No performance data found in database");
-            return new ArrayList<>();
+        if (result.isEmpty()) {
+            logger.warn("No performance data received yet");
+            return result;
         }
 
-        // Group by nodeId and get the latest timestamp for each
-        Map<Integer, PerformanceData> latestByNode = allData.stream()
-                .collect(Collectors.toMap(
-                        PerformanceData::getNodeId,
-                        data -> data,
-                        (existing, replacement) ->
-                                existing.getTimestamp().isAfter(replacement.getTimestamp()) ? existing : replacement
-                ));
-
-        List<PerformanceData> result = new ArrayList<>(latestByNode.values());
-
-        // Sort by node ID for consistent ordering
-        result.sort(Comparator.comparing(PerformanceData::getNodeId));
-
         logger.debug("Retrieved latest metrics for {} nodes", result.size());
         return result;
     }
 
     /**
      * Get KPI summary for dashboard overview
+     * Maintained incrementally as samples arrive, so this only reads the current snapshot
+     * plus the latency percentiles of the last 5 minutes
      */
     public Map<String, Object> getKpiSummary() {
-        List<PerformanceData> latestMetrics = getLatestMetricsForAllNodes();
-
-        if (latestMetrics.isEmpty()) {
-            logger.info("No metrics available for KPI summary");
-            Map<String, Object> emptyResponse = new HashMap<>();
-            emptyResponse.put("message", "No data available");
-            emptyResponse.put(TOTAL_NODES, 0);
-            emptyResponse.put(HEALTHY_NODES, 0);
-            emptyResponse.put("averageLatency", 0.0);
-            emptyResponse.put("averageThroughput", 0.0);
-            emptyResponse.put("averageErrorRate", 0.0);
-            emptyResponse.put("lastUpdated", LocalDateTime.now());
-            return emptyResponse;
-        }
-
-        // Calculate averages
-        double avgLatency = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getLatency)
-                .average().orElse(0.0);
-
-        double avgThroughput = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getThroughput)
-                .average().orElse(0.0);
-
-        double avgErrorRate = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getErrorRate)
-                .average().orElse(0.0);
-
-        // Calculate health metrics
-        int totalNodes = latestMetrics.size();
-        int healthyNodes = (int) latestMetrics.stream()
-                .filter(this::isNodeHealthy)
-                .count();
-
-        int criticalNodes = (int) latestMetrics.stream()
-                .filter(this::isNodeCritical)
-                .count();
-
-        // Calculate min/max values for context
-        double maxLatency = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getLatency)
-                .max().orElse(0.0);
-
-        double minThroughput = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getThroughput)
-                .min().orElse(0.0);
-
-        double maxErrorRate = latestMetrics.stream()
-                .mapToDouble(PerformanceData::getErrorRate)
-                .max().orElse(0.0);
-
-        // Build summary response
-        Map<String, Object> summary = new HashMap<>();
-        summary.put(TOTAL_NODES, totalNodes);
-        summary.put(HEALTHY_NODES, healthyNodes);
-        summary.put("criticalNodes", criticalNodes);
-        summary.put("healthPercentage", totalNodes > 0 ? Math.round((healthyNodes * 100.0) / totalNodes) : 0);
-
-        // Average KPIs (rounded for display)
-        summary.put("averageLatency", Math.round(avgLatency * 100.0) / 100.0);
-        summary.put("averageThroughput", Math.round(avgThroughput * 100.0) / 100.0);
-        summary.put("averageErrorRate", Math.round(avgErrorRate * 1000.0) / 1000.0);
-
-        // Min/Max values for context
-        summary.put("maxLatency", Math.round(maxLatency * 100.0) / 100.0);
-        summary.put("minThroughput", Math.round(minThroughput * 100.0) / 100.0);
-        summary.put("maxErrorRate", Math.round(maxErrorRate * 1000.0) / 1000.0);
-
-        // System status
-        summary.put("systemStatus", determineSystemStatus(healthyNodes, totalNodes, criticalNodes));
-        summary.put("lastUpdated", LocalDateTime.now());
-
-        // Network-level summaries
-        summary.put("networkSummary", getNetworkSummary(latestMetrics));
-
-        logger.info("Generated KPI summary: {}/{} healthy nodes, avg latency: {}ms",
-                healthyNodes, totalNodes, Math.round(avgLatency * 100.0) / 100.0);
+        Map<String, Object> summary = new HashMap<>(kpiSummaryAggregator.getSummary());
+        long now = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+        long from = now - PERCENTILE_WINDOW.toMillis();
+        summary.put("latencyPercentiles", latencySketches.latencyPercentiles(RollupScope.NETWORK, null, from, now + 1, now));
+        summary.put("networkLatencyPercentiles", latencySketches.networkLatencyPercentiles(from, now + 1, now));
+        logger.debug("Serving KPI summary: {}/{} healthy nodes",
+                summary.get(HEALTHY_NODES), summary.get(TOTAL_NODES));
         return summary;
     }
 
     /**
-     * Get summary by network
+     * Detect anomalies for network engineer alerts
+     * Evaluated on ingest; sorted by severity (critical first), then by worst latency
      */
-    private Map<String, Object> getNetworkSummary(List<PerformanceData> latestMetrics) {
-        Map<Integer, List<PerformanceData>> byNetwork = latestMetrics.stream()
-                .collect(Collectors.groupingBy(PerformanceData::getNetworkId));
-
-        Map<String, Object> networkSummary = new HashMap<>();
-
-        byNetwork.forEach((networkId, nodes) -> {
-            Map<String, Object> netStats = new HashMap<>();
-            netStats.put(TOTAL_NODES, nodes.size());
-            netStats.put(HEALTHY_NODES, nodes.stream().mapToInt(node -> isNodeHealthy(node) ? 1 : 0).sum());
-            netStats.put("avgLatency", Math.round(nodes.stream().mapToDouble(PerformanceData::getLatency).average().orElse(0.0) * 100.0) / 100.0);
-            netStats.put("avgThroughput", Math.round(nodes.stream().mapToDouble(PerformanceData::getThroughput).average().orElse(0.0) * 100.0) / 100.0);
-            netStats.put("avgErrorRate", Math.round(nodes.stream().mapToDouble(PerformanceData::getErrorRate).average().orElse(0.0) * 1000.0) / 1000.0);
-
-            networkSummary.put("network_" + networkId, netStats);
-        });
+    public List<NodeStatusDto> detectAnomalies() {
+        List<PerformanceData> anomalies = anomalyTracker.getAnomalies();
+        List<NodeStatusDto> alerts = new ArrayList<>(anomalies.size());
+        for (PerformanceData data : anomalies) {
+            alerts.add(toNodeStatus(data));
+        }
 
-        return networkSummary;
+        logger.debug("Serving {} alerts out of {} nodes", alerts.size(), latestMetricsCache.size());
+        return alerts;
     }
 
     /**
-     * Determine overall system status
+     * Nodes within the thresholds whose latest sample deviates from their own baseline, highest
+     * score first; kept apart from the threshold alerts, which the dashboard raises as notifications
      */
-    private String determineSystemStatus(int healthyNodes, int totalNodes, int criticalNodes) {
-        if (totalNodes == 0) return "NO_DATA";
-
-        double healthPercentage = (healthyNodes * 100.0) / totalNodes;
-
-        if (criticalNodes > 0) return "CRITICAL";
-        if (healthPercentage >= 90) return "HEALTHY";
-        if (healthPercentage >= 70) return "WARNING";
-        return "DEGRADED";
+    public List<NodeStatusDto> detectDeviations() {
+        Set<Integer> alerted = new HashSet<>();
+        for (PerformanceData data : anomalyTracker.getAnomalies()) {
+            alerted.add(data.getNodeId());
+        }
+        List<NodeStatusDto> deviations = new ArrayList<>();
+        for (Integer nodeId : baselineDetector.getDeviatingNodes()) {
+            PerformanceData data = latestMetricsCache.get(nodeId);
+            if (data != null && !alerted.contains(nodeId)) {
+                deviations.add(toNodeStatus(data));
+            }
+        }
+        return deviations;
     }
 
     /**
-     * Detect anomalies for network engineer alerts
+     * Pending and firing alerts of the alert lifecycle, by node and condition
      */
-    public List<PerformanceData> detectAnomalies() {
-        List<PerformanceData> latestMetrics = getLatestMetricsForAllNodes();
-
-        List<PerformanceData> anomalies = latestMetrics.stream()
-                .filter(data -> !isNodeHealthy(data))
-                .sorted((a, b) -> {
-                    // Sort by severity: critical first, then by worst latency
-                    boolean aCritical = isNodeCritical(a);
-                    boolean bCritical = isNodeCritical(b);
-
-                    if (aCritical && !bCritical) return -1;
-                    if (!aCritical && bCritical) return 1;
+    public List<AlertDto> getActiveAlerts() {
+        return alertLifecycle.getActiveAlerts();
+    }
 
-                    // Both same severity level, sort by latency
-                    return Double.compare(b.getLatency(), a.getLatency());
-                })
-                .toList();
+    /**
+     * Alert state changes after the given sequence, oldest first; limit defaults to 1000
+     */
+    public Map<String, Object> getAlertTransitions(long afterSequence, Integer limit) {
+        int maxLimit = alertLifecycle.getTransitionLogSize();
+        int pageSize = limit == null ? Math.min(DEFAULT_TRANSITION_PAGE_SIZE, maxLimit) : limit;
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("'afterSequence' must not be negative");
+        }
+        if (pageSize < 1 || pageSize > maxLimit) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + maxLimit);
+        }
+        AlertLifecycleTracker.TransitionPage page = alertLifecycle.getTransitions(afterSequence, pageSize);
 
-        logger.info("Detected {} anomalies out of {} nodes", anomalies.size(), latestMetrics.size());
-        return anomalies;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transitions", page.transitions());
+        result.put("nextSequence", page.nextSequence());
+        result.put("missed", page.missed());
+        return result;
     }
 
     /**
      * Get nodes grouped by health status
      */
-    public Map<String, List<PerformanceData>> getNodesByHealthStatus() {
+    public Map<String, List<NodeStatusDto>> getNodesByHealthStatus() {
         List<PerformanceData> latestMetrics = getLatestMetricsForAllNodes();
 
-        Map<String, List<PerformanceData>> grouped = new HashMap<>();
+        Map<String, List<NodeStatusDto>> grouped = new HashMap<>();
         grouped.put(HEALTHY, new ArrayList<>());
         grouped.put(WARNING, new ArrayList<>());
         grouped.put(CRITICAL, new ArrayList<>());
 
         for (PerformanceData data : latestMetrics) {
-            if (isNodeCritical(data)) {
-                grouped.get(CRITICAL).add(data);
-            } else if (isNodeHealthy(data)) {
-                grouped.get(HEALTHY).add(data);
-            } else {
-                grouped.get(WARNING).add(data);
-            }
+            NodeStatusDto status = toNodeStatus(data);
+            grouped.get(status.getStatus()).add(status);
         }
 
         logger.debug("Grouped nodes by health: {} healthy, {} warning, {} critical",
@@ -235,48 +191,311 @@ public class MetricsService {
         return grouped;
     }
 
-    /**
-     * Check if a node is healthy based on thresholds
-     */
+    private NodeStatusDto toNodeStatus(PerformanceData data) {
+        String status = isNodeCritical(data) ? CRITICAL : isNodeHealthy(data) ? HEALTHY : WARNING;
+        return new NodeStatusDto(data, status, baselineDetector.getAnomalyScore(data.getNodeId()),
+                baselineDetector.isDeviating(data.getNodeId()));
+    }
+
     private boolean isNodeHealthy(PerformanceData data) {
-        return data.getLatency() < HIGH_LATENCY_THRESHOLD &&
-                data.getThroughput() > LOW_THROUGHPUT_THRESHOLD &&
-                data.getErrorRate() < HIGH_ERROR_RATE_THRESHOLD;
+        return healthClassifier.isHealthy(data);
     }
 
-    /**
-     * Check if a node is in critical state
-     */
     private boolean isNodeCritical(PerformanceData data) {
-        return data.getLatency() > (HIGH_LATENCY_THRESHOLD * 1.5) ||
-                data.getThroughput() < (LOW_THROUGHPUT_THRESHOLD * 0.5) ||
-                data.getErrorRate() > (HIGH_ERROR_RATE_THRESHOLD * 2.0);
+        return healthClassifier.isCritical(data);
     }
 
     // Get KPI summary for a specific time range for the historical data analysis
+    // Served from the rolling windows kept up to date on ingest
     public Map<String, Object> getKpiSummaryForRange(String range) {
-        LocalDateTime startTime = switch (range.toLowerCase()) {
-            case "last_5_minutes" -> LocalDateTime.now().minusMinutes(5);
-            case "last_1_hour" -> LocalDateTime.now().minusHours(1);
-            case "last_24_hours" -> LocalDateTime.now().minusHours(24);
+        Duration window = switch (range.toLowerCase()) {
+            case "last_5_minutes" -> Duration.ofMinutes(5);
+            case "last_1_hour" -> Duration.ofHours(1);
+            case "last_24_hours" -> Duration.ofHours(24);
             default -> throw new IllegalArgumentException("Invalid range");
         };
 
-        List<PerformanceData> recent = repository.findByTimestampAfter(startTime);
+        RollingWindow.WindowStats stats = rollingWindows.summarize(window);
+        Map<String, Object> result = toRangeSummary(range, stats);
+        long now = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+        putLatencyPercentiles(result, latencySketches.latencyHistogram(
+                RollupScope.NETWORK, null, now - window.toMillis() + 1, now + 1, now));
+        return result;
+    }
 
-        double avgLatency = recent.stream().mapToDouble(PerformanceData::getLatency).average().orElse(0);
-        double avgThroughput = recent.stream().mapToDouble(PerformanceData::getThroughput).average().orElse(0);
-        double avgErrorRate = recent.stream().mapToDouble(PerformanceData::getErrorRate).average().orElse(0);
+    /**
+     * KPI summary for an exact time range [from, to), from the coarsest rollup resolution whose
+     * buckets line up with the range, otherwise scanned from the columnar sample store, or
+     * aggregated by the database when the range is not held in memory
+     */
+    public Map<String, Object> getKpiSummaryBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        long fromMillis = ColumnarSeriesStore.toEpochMillis(from);
+        long toMillis = ColumnarSeriesStore.toEpochMillis(to);
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+
+        Optional<RollupResolution> resolution = rollupStore.resolutionFor(fromMillis, toMillis);
+        if (resolution.isPresent()) {
+            // every sample belongs to exactly one network, so the network rollups cover all of them
+            rollupStore.aggregate(resolution.get(), RollupScope.NETWORK, null, fromMillis, toMillis, stats);
+            Map<String, Object> result = toRangeSummary(from + "/" + to, stats);
+            result.put("resolution", resolution.get().getLabel());
+            long now = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+            if (latencySketches.covers(fromMillis, now)) {
+                putLatencyPercentiles(result, latencySketches.latencyHistogram(RollupScope.NETWORK, null,
+                        fromMillis, toMillis, now));
+                result.put("percentileSource", "sketch");
+            } else {
+                // the rollups reach back further than the sketches, which would only see the last day
+                putNoLatencyPercentiles(result);
+            }
+            return result;
+        }
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("range", range);
-        result.put("avgLatency", avgLatency);
-        result.put("avgThroughput", avgThroughput);
-        result.put("avgErrorRate", avgErrorRate);
-        result.put("sampleSize", recent.size());
+        if (!isRetainedInMemory(fromMillis)) {
+            Map<String, Object> result = toRangeSummary(from + "/" + to, toStats(repository.aggregateBetween(from, to)));
+            result.put("resolution", "database");
+            // older than the sketches, which would report the last day instead
+            putNoLatencyPercentiles(result);
+            return result;
+        }
 
+        // the raw path sees every sample, so its percentiles are not limited to the sketch slices
+        Histogram latencies = latencySketches.newLatencyHistogram();
+        columnarStore.scan(fromMillis, toMillis,
+                (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+                    latencies.recordValue(LatencySketchStore.toMicros(latency));
+                    stats.add(latency, throughput, errorRate);
+                });
+        Map<String, Object> result = toRangeSummary(from + "/" + to, stats);
+        result.put("resolution", "raw");
+        putLatencyPercentiles(result, latencies);
+        result.put("percentileSource", "raw");
         return result;
     }
 
+    /**
+     * Aggregates of [from, to) split into buckets of bucketSeconds, per node or network (only
+     * scopeId, if set), for charts. Read in one pass from the coarsest rollup resolution that
+     * divides the bucket size, else from the columnar samples, else aggregated by the database.
+     * Empty buckets are left out of each series.
+     */
+    public Map<String, Object> getBucketedSummary(LocalDateTime from, LocalDateTime to, int bucketSeconds,
+                                                  RollupScope scope, Integer scopeId) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (bucketSeconds < 1) {
+            throw new IllegalArgumentException("'bucketSeconds' must be positive");
+        }
+        long fromMillis = ColumnarSeriesStore.toEpochMillis(from);
+        long toMillis = ColumnarSeriesStore.toEpochMillis(to);
+        long bucketMillis = bucketSeconds * 1000L;
+        long buckets = (toMillis - fromMillis + bucketMillis - 1) / bucketMillis;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_BUCKETS + " buckets per request");
+        }
+        // every node or network gets its own array of buckets while they are aggregated
+        long seriesCount = scopeId == null ? Math.max(1, rollupStore.seriesCount(scope)) : 1;
+        if (buckets * seriesCount > MAX_BUCKETS_ACROSS_SERIES) {
+            throw new IllegalArgumentException("At most " + MAX_BUCKETS_ACROSS_SERIES
+                    + " buckets across all series; pass an 'id', a shorter range or larger buckets");
+        }
+
+        Map<Integer, RollingWindow.WindowStats[]> series;
+        String source;
+        Optional<RollupResolution> resolution = rollupStore.resolutionFor(fromMillis, toMillis, bucketMillis);
+        if (resolution.isPresent()) {
+            series = rollupStore.aggregateBuckets(resolution.get(), scope, scopeId, fromMillis, toMillis, bucketMillis);
+            source = resolution.get().getLabel();
+        } else if (isRetainedInMemory(fromMillis)) {
+            series = scanBuckets(scope, scopeId, fromMillis, toMillis, bucketMillis, (int) buckets);
+            source = "raw";
+        } else {
+            series = queryBuckets(scope, scopeId, from, to, bucketSeconds, (int) buckets);
+            source = "database";
+        }
+
+        List<Map<String, Object>> seriesList = new ArrayList<>();
+        series.forEach((id, stats) -> {
+            List<Map<String, Object>> bucketList = new ArrayList<>();
+            for (int i = 0; i < stats.length; i++) {
+                if (stats[i].count > 0) {
+                    bucketList.add(toBucket(from.plusSeconds((long) i * bucketSeconds), stats[i]));
+                }
+            }
+            if (!bucketList.isEmpty()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", id);
+                entry.put("buckets", bucketList);
+                seriesList.add(entry);
+            }
+        });
 
-}
\ No newline at end of file
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("bucketSeconds", bucketSeconds);
+        result.put("scope", scope.name().toLowerCase(Locale.ROOT));
+        result.put("resolution", source);
+        result.put("series", seriesList);
+        return result;
+    }
+
+    private Map<Integer, RollingWindow.WindowStats[]> scanBuckets(RollupScope scope, Integer scopeId, long fromMillis,
+                                                                 long toMillis, long bucketMillis, int buckets) {
+        Map<Integer, RollingWindow.WindowStats[]> series = new TreeMap<>();
+        SampleVisitor bucketer = (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+            int id = scope == RollupScope.NODE ? nodeId : networkId;
+            if (scopeId != null && id != scopeId) {
+                return;
+            }
+            series.computeIfAbsent(id, k -> RollingWindow.WindowStats.newArray(buckets))
+                    [(int) ((timestamp - fromMillis) / bucketMillis)].add(latency, throughput, errorRate);
+        };
+        if (scope == RollupScope.NODE && scopeId != null) {
+            columnarStore.scanNode(scopeId, fromMillis, toMillis, bucketer);
+        } else {
+            columnarStore.scan(fromMillis, toMillis, bucketer);
+        }
+        return series;
+    }
+
+    private Map<Integer, RollingWindow.WindowStats[]> queryBuckets(RollupScope scope, Integer scopeId, LocalDateTime from,
+                                                                  LocalDateTime to, int bucketSeconds, int buckets) {
+        List<MetricAggregateDto> rows;
+        if (scope == RollupScope.NODE) {
+            rows = scopeId == null
+                    ? repository.aggregateBucketsPerNode(from, to, bucketSeconds)
+                    : repository.aggregateNodeBuckets(scopeId, from, to, bucketSeconds);
+        } else {
+            rows = scopeId == null
+                    ? repository.aggregateBucketsPerNetwork(from, to, bucketSeconds)
+                    : repository.aggregateNetworkBuckets(scopeId, from, to, bucketSeconds);
+        }
+        Map<Integer, RollingWindow.WindowStats[]> series = new TreeMap<>();
+        for (MetricAggregateDto row : rows) {
+            series.computeIfAbsent(row.getScopeId(), k -> new RollingWindow.WindowStats[buckets])
+                    [row.getBucketIndex().intValue()] = toStats(row);
+        }
+        // buckets without rows are absent from the query result
+        series.values().forEach(stats -> Arrays.setAll(stats, i -> stats[i] == null ? new RollingWindow.WindowStats() : stats[i]));
+        return series;
+    }
+
+    private static Map<String, Object> toBucket(LocalDateTime start, RollingWindow.WindowStats stats) {
+        Map<String, Object> bucket = new LinkedHashMap<>();
+        bucket.put("start", start);
+        bucket.put("count", stats.count);
+        if (stats.count > 0) {
+            bucket.put("avgLatency", stats.latency.average(stats.count));
+            bucket.put("minLatency", stats.latency.min);
+            bucket.put("maxLatency", stats.latency.max);
+            bucket.put("avgThroughput", stats.throughput.average(stats.count));
+            bucket.put("minThroughput", stats.throughput.min);
+            bucket.put("maxThroughput", stats.throughput.max);
+            bucket.put("avgErrorRate", stats.errorRate.average(stats.count));
+            bucket.put("minErrorRate", stats.errorRate.min);
+            bucket.put("maxErrorRate", stats.errorRate.max);
+        }
+        return bucket;
+    }
+
+    private static RollingWindow.WindowStats toStats(MetricAggregateDto aggregate) {
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+        stats.count = aggregate.getCount();
+        if (stats.count > 0) {
+            merge(stats.latency, stats.count, aggregate.getAvgLatency(), aggregate.getMinLatency(), aggregate.getMaxLatency());
+            merge(stats.throughput, stats.count, aggregate.getAvgThroughput(), aggregate.getMinThroughput(), aggregate.getMaxThroughput());
+            merge(stats.errorRate, stats.count, aggregate.getAvgErrorRate(), aggregate.getMinErrorRate(), aggregate.getMaxErrorRate());
+        }
+        return stats;
+    }
+
+    // SQL aggregates are null when every row of the group has a null metric
+    private static void merge(RollingWindow.MetricStats metric, long count, Double avg, Double min, Double max) {
+        if (avg != null && min != null && max != null) {
+            metric.merge(avg * count, min, max);
+        }
+    }
+
+    /**
+     * Writes the raw samples in [from, to) as CSV, optionally of a single node,
+     * decoded straight from the columnar store
+     */
+    public void exportSamples(LocalDateTime from, LocalDateTime to, Integer nodeId, Writer out) throws IOException {
+        validateRetainedRange(from, to);
+        long fromMillis = ColumnarSeriesStore.toEpochMillis(from);
+        long toMillis = ColumnarSeriesStore.toEpochMillis(to);
+        out.write("nodeId,networkId,timestamp,latency,throughput,errorRate\n");
+        SampleVisitor csvWriter = (node, networkId, timestamp, latency, throughput, errorRate) -> {
+            try {
+                out.write(node + "," + networkId + ","
+                        + LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC) + ","
+                        + latency + "," + throughput + "," + errorRate + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        try {
+            long exported = nodeId == null
+                    ? columnarStore.scan(fromMillis, toMillis, csvWriter)
+                    : columnarStore.scanNode(nodeId, fromMillis, toMillis, csvWriter);
+            logger.debug("Exported {} samples", exported);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isRetainedInMemory(long fromMillis) {
+        return columnarStore.isEnabled() && fromMillis
+                >= ColumnarSeriesStore.toEpochMillis(LocalDateTime.now()) - columnarStore.getRetentionMillis();
+    }
+
+    /**
+     * @throws IllegalStateException if the columnar store is disabled
+     * @throws IllegalArgumentException if the range is empty or reaches past the retained history
+     */
+    public void validateRetainedRange(LocalDateTime from, LocalDateTime to) {
+        if (!columnarStore.isEnabled()) {
+            throw new IllegalStateException("Columnar store is disabled");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (ColumnarSeriesStore.toEpochMillis(from)
+                < ColumnarSeriesStore.toEpochMillis(LocalDateTime.now()) - columnarStore.getRetentionMillis()) {
+            throw new IllegalArgumentException("'from' is outside the retained history");
+        }
+    }
+
+    private static void putLatencyPercentiles(Map<String, Object> result, Histogram latencies) {
+        Map<String, Object> percentiles = LatencySketchStore.toPercentiles(latencies);
+        result.put("latencyP50", percentiles.getOrDefault("p50", 0.0));
+        result.put("latencyP95", percentiles.getOrDefault("p95", 0.0));
+        result.put("latencyP99", percentiles.getOrDefault("p99", 0.0));
+    }
+
+    private static void putNoLatencyPercentiles(Map<String, Object> result) {
+        result.put("latencyP50", null);
+        result.put("latencyP95", null);
+        result.put("latencyP99", null);
+        result.put("percentileSource", "none");
+    }
+
+    private Map<String, Object> toRangeSummary(String range, RollingWindow.WindowStats stats) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("range", range);
+        result.put("avgLatency", stats.latency.average(stats.count));
+        result.put("avgThroughput", stats.throughput.average(stats.count));
+        result.put("avgErrorRate", stats.errorRate.average(stats.count));
+        result.put("maxLatency", stats.latency.maxOrZero());
+        result.put("minThroughput", stats.throughput.minOrZero());
+        result.put("maxErrorRate", stats.errorRate.maxOrZero());
+        result.put("sampleSize", stats.count);
+
+        return result;
+    }
+}
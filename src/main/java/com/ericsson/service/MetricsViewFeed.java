@@ -0,0 +1,151 @@
+package com.ericsson.service;
+
+import com.ericsson.config.KafkaConfig;
+import com.ericsson.model.PerformanceData;
+import com.ericsson.storage.ColumnarSeriesStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds the in-memory views (every IngestListener) with all samples published to the performance
+ * topic, so each instance answers for every node however many instances share the ingest.
+ *
+ * Ingest splits the partitions among the instances of its consumer group; the feed reads all of
+ * them in a consumer group of its own per instance. It is started by the HistoryReplayer once the
+ * views are rebuilt, a kafka.consumer.views.overlap-ms before the end of the replayed history, so
+ * samples published before the replay but stored after it, or while the instance was down, are not
+ * missed. Samples of a node up to the newest one replayed are skipped, and redeliveries are dropped
+ * like on ingest. A sample reaches the views even if its ingest fails; samples missing a field are
+ * skipped.
+ */
+@Service
+public class MetricsViewFeed implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsViewFeed.class);
+
+    public static final String VIEW_LISTENER_ID = "metricsViewFeed";
+
+    private final List<IngestListener> ingestListeners;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final DuplicateFilter duplicateFilter;
+    private final long overlapMillis;
+
+    // Newest replayed sample per node; removed once the feed has moved past it
+    private final Map<Integer, Long> replayedUntil = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> positioned = ConcurrentHashMap.newKeySet();
+    private volatile long startRecordMillis;
+
+    public MetricsViewFeed(List<IngestListener> ingestListeners,
+                           KafkaListenerEndpointRegistry listenerRegistry,
+                           MeterRegistry meterRegistry,
+                           @Value("${ingestion.dedup.enabled:true}") boolean dedupEnabled,
+                           @Value("${ingestion.dedup.window-minutes:60}") int dedupWindowMinutes,
+                           @Value("${ingestion.dedup.buckets:12}") int dedupBuckets,
+                           @Value("${ingestion.dedup.expected-insertions-per-bucket:100000}") int dedupExpectedInsertions,
+                           @Value("${ingestion.dedup.fpp:0.000001}") double dedupFpp,
+                           @Value("${kafka.consumer.views.overlap-ms:60000}") long overlapMillis) {
+        this.ingestListeners = ingestListeners;
+        this.listenerRegistry = listenerRegistry;
+        this.duplicateFilter = new DuplicateFilter(Counter.builder("performance.views.duplicates")
+                .description("Samples dropped from the metrics views because the same node/timestamp was already fed")
+                .register(meterRegistry), dedupEnabled, dedupWindowMinutes, dedupBuckets, dedupExpectedInsertions, dedupFpp);
+        this.overlapMillis = overlapMillis;
+    }
+
+    /**
+     * Called by the HistoryReplayer for every sample it replays, before the feed starts
+     */
+    public void markReplayed(int nodeId, long timestampMillis) {
+        replayedUntil.merge(nodeId, timestampMillis, Math::max);
+    }
+
+    /**
+     * Starts the feed the overlap before the newest replayed sample, or before historyStartMillis if
+     * nothing was replayed. Both are sample timestamps in epoch millis.
+     */
+    public void start(long historyStartMillis) {
+        long historyEndMillis = replayedUntil.values().stream().mapToLong(Long::longValue).max().orElse(historyStartMillis);
+        // sample timestamps are local time read as UTC, record timestamps are epoch millis
+        long clockOffset = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now()) - System.currentTimeMillis();
+        startRecordMillis = historyEndMillis - overlapMillis - clockOffset;
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(VIEW_LISTENER_ID);
+        if (container != null) {
+            container.start();
+        }
+    }
+
+    /**
+     * Seeks by time on the first assignment of a partition only; later rebalances resume at the
+     * committed offsets
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> fresh = new ArrayList<>();
+        for (TopicPartition partition : assignments.keySet()) {
+            if (positioned.add(partition)) {
+                fresh.add(partition);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            callback.seekToTimestamp(fresh, startRecordMillis);
+        }
+    }
+
+    @KafkaListener(id = VIEW_LISTENER_ID, topics = KafkaConfig.PERFORMANCE_TOPIC, idIsGroup = false,
+            containerFactory = "viewKafkaListenerContainerFactory", autoStartup = "false")
+    public void feed(List<ConsumerRecord<String, PerformanceData>> consumerRecords) {
+        List<PerformanceData> samples = new ArrayList<>(consumerRecords.size());
+        for (ConsumerRecord<String, PerformanceData> consumerRecord : consumerRecords) {
+            PerformanceData data = consumerRecord.value();
+            if (data != null && isComplete(data) && !isReplayed(data)) {
+                samples.add(data);
+            }
+        }
+        samples = duplicateFilter.removeDuplicates(samples);
+        if (samples.isEmpty()) {
+            return;
+        }
+        duplicateFilter.markStored(samples);
+        for (IngestListener listener : ingestListeners) {
+            try {
+                listener.onIngested(samples);
+            } catch (RuntimeException e) {
+                logger.error("Ingest listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private boolean isReplayed(PerformanceData data) {
+        Long until = replayedUntil.get(data.getNodeId());
+        if (until == null) {
+            return false;
+        }
+        if (ColumnarSeriesStore.toEpochMillis(data.getTimestamp()) <= until) {
+            return true;
+        }
+        replayedUntil.remove(data.getNodeId(), until);
+        return false;
+    }
+
+    private static boolean isComplete(PerformanceData data) {
+        return data.getNodeId() != null && data.getNetworkId() != null && data.getTimestamp() != null
+                && data.getLatency() != null && data.getThroughput() != null && data.getErrorRate() != null;
+    }
+}
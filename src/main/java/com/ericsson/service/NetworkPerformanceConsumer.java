@@ -1,36 +1,143 @@
 package com.ericsson.service;
 
+import com.ericsson.config.KafkaConfig;
 import com.ericsson.model.PerformanceData;
-import com.ericsson.repository.PerformanceDataRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class NetworkPerformanceConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkPerformanceConsumer.class);
+    private static final LogAccessor logAccessor = new LogAccessor(NetworkPerformanceConsumer.class);
+
+    public static final String RECORD_LISTENER_ID = "networkPerformanceRecordListener";
+    public static final String BATCH_LISTENER_ID = "networkPerformanceBatchListener";
 
-    private final PerformanceDataRepository repository;
+    private final PerformanceDataWriter writer;
+    private final IngestionBuffer ingestionBuffer;
 
-    public NetworkPerformanceConsumer(PerformanceDataRepository repository) {
-        this.repository = repository;
+    public NetworkPerformanceConsumer(PerformanceDataWriter writer, IngestionBuffer ingestionBuffer) {
+        this.writer = writer;
+        this.ingestionBuffer = ingestionBuffer;
     }
 
-    @KafkaListener(topics = "network-performance", groupId = "network-performance-group")
-    @Transactional
+    /**
+     * Failures are not retried in place: the record moves through the delayed retry topics
+     * (network-performance-retry-*) and ends up on network-performance-dlt, so the partition
+     * keeps flowing. The DLT is only read back through the admin replay endpoint.
+     */
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.retry.max-delay-ms:30000}"),
+            kafkaTemplate = "retryKafkaTemplate",
+            numPartitions = "${kafka.topic.partitions:6}",
+            replicationFactor = "${kafka.topic.replicas:1}",
+            dltTopicSuffix = "-dlt",
+            autoStartDltHandler = "false",
+            exclude = DataIntegrityViolationException.class)
+    @KafkaListener(id = RECORD_LISTENER_ID, topics = KafkaConfig.PERFORMANCE_TOPIC, groupId = KafkaConfig.PERFORMANCE_GROUP,
+            autoStartup = "#{!${kafka.consumer.batch.enabled:false}}")
     // consumerRecord: Rename this variable to not match a restricted identifier.
     public void consumePerformanceData(ConsumerRecord<String, PerformanceData> consumerRecord) {
         PerformanceData message = consumerRecord.value();
+        if (message == null) {
+            logger.warn("Skipping empty performance record at {}-{}@{}",
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+            return;
+        }
+        if (ingestionBuffer.isEnabled()) {
+            ingestionBuffer.enqueue(List.of(message));
+            return;
+        }
         try {
-            PerformanceData savedData = repository.save(message);
-            logger.info("Saved performance data to DB: Node {}, Network {}, Latency: {}ms",
-                    savedData.getNodeId(), savedData.getNetworkId(), savedData.getLatency());
-        } catch (Exception e) {
-            logger.error("Error saving performance data: {}", e.getMessage());
+            if (writer.save(message)) {
+                logger.info("Saved performance data to DB: Node {}, Network {}, Latency: {}ms",
+                        message.getNodeId(), message.getNetworkId(), message.getLatency());
+            } else {
+                logger.debug("Dropped duplicate performance data: Node {}, Timestamp {}",
+                        message.getNodeId(), message.getTimestamp());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error saving performance data from {}: {}", consumerRecord.topic(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Batch mode (kafka.consumer.batch.enabled=true): one saveAll and one transaction per poll,
+     * so Hibernate can group the inserts into JDBC batches.
+     * A failing record is reported by index, so the container error handler commits everything
+     * before it and retries or dead-letters only the rest of the poll.
+     */
+    @KafkaListener(id = BATCH_LISTENER_ID, topics = KafkaConfig.PERFORMANCE_TOPIC, groupId = KafkaConfig.PERFORMANCE_GROUP,
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${kafka.consumer.batch.enabled:false}")
+    public void consumePerformanceDataBatch(List<ConsumerRecord<String, PerformanceData>> consumerRecords) {
+        List<PerformanceData> batch = new ArrayList<>(consumerRecords.size());
+        List<Integer> recordIndexes = new ArrayList<>(consumerRecords.size());
+        int undecodableIndex = -1;
+        for (int i = 0; i < consumerRecords.size(); i++) {
+            ConsumerRecord<String, PerformanceData> consumerRecord = consumerRecords.get(i);
+            if (consumerRecord.value() != null) {
+                batch.add(consumerRecord.value());
+                recordIndexes.add(i);
+            } else if (consumerRecord.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                undecodableIndex = i;
+                break;
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            if (ingestionBuffer.isEnabled()) {
+                ingestionBuffer.enqueue(batch);
+            } else {
+                saveBatch(batch, recordIndexes);
+            }
+        }
+
+        if (undecodableIndex >= 0) {
+            throw new BatchListenerFailedException("Undecodable performance record",
+                    SerializationUtils.getExceptionFromHeader(consumerRecords.get(undecodableIndex),
+                            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor),
+                    undecodableIndex);
+        }
+    }
+
+    private void saveBatch(List<PerformanceData> batch, List<Integer> recordIndexes) {
+        try {
+            writer.saveAll(batch);
+            logger.debug("Saved batch of {} performance records to DB", batch.size());
+            return;
+        } catch (RuntimeException e) {
+            if (!DeadLetterService.isPoison(e)) {
+                // Database trouble, not a bad record: let the error handler retry the whole poll
+                throw e;
+            }
+            logger.warn("Batch of {} performance records rejected ({}), saving one by one to isolate it",
+                    batch.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                writer.save(batch.get(i));
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Failed to save performance record", e, recordIndexes.get(i));
+            }
         }
     }
 }
@@ -1,28 +1,121 @@
 package com.ericsson.service;
 
+import com.ericsson.config.KafkaConfig;
 import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
 public class NetworkPerformancePublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkPerformancePublisher.class);
 
     private final KafkaTemplate<String, PerformanceData> kafkaTemplate;
-    //Rename this constant name to match the regular expression '^[A-Z][A-Z0-9]*(_[A-Z0-9]+)*$'.
-    private static final String TOPIC_NAME = "network-performance";
 
-    public NetworkPerformancePublisher(KafkaTemplate<String, PerformanceData> kafkaTemplate) {
+    // Delivery metrics, recorded when the broker acknowledges (or rejects) each send
+    private final Timer sendLatency;
+    private final Counter sendSuccess;
+    private final Counter sendFailure;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public NetworkPerformancePublisher(KafkaTemplate<String, PerformanceData> kafkaTemplate,
+                                       MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.sendLatency = Timer.builder("performance.publisher.send.latency")
+                .description("Time from send until the broker acknowledged the record")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendSuccess = Counter.builder("performance.publisher.sends")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.sendFailure = Counter.builder("performance.publisher.sends")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        Gauge.builder("performance.publisher.in.flight", inFlight, AtomicInteger::get)
+                .description("Sends waiting for a broker acknowledgement")
+                .register(meterRegistry);
     }
 
-    public void sendPerformanceData(PerformanceData message) {
-        kafkaTemplate.send(TOPIC_NAME, message);
-        logger.info("Published performance data: {}", message);
+    /**
+     * Keyed by nodeId so every sample of a node lands on the same partition and stays in order.
+     * Returns once the record is handed to the producer; delivery is tracked asynchronously.
+     * @return completes when the broker acknowledged the record, exceptionally if it was not delivered
+     */
+    public CompletableFuture<SendResult<String, PerformanceData>> sendPerformanceData(PerformanceData message) {
+        String key = message.getNodeId() != null ? String.valueOf(message.getNodeId()) : null;
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        CompletableFuture<SendResult<String, PerformanceData>> delivery;
+        try {
+            delivery = kafkaTemplate.send(KafkaConfig.PERFORMANCE_TOPIC, key, message).whenComplete((result, ex) -> {
+                inFlight.decrementAndGet();
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (ex == null) {
+                    sendSuccess.increment();
+                } else {
+                    sendFailure.increment();
+                    logger.warn("Failed to publish performance data for Node {}: {}", message.getNodeId(), ex.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected before reaching the producer buffer (serialization, buffer exhausted, ...)
+            inFlight.decrementAndGet();
+            sendFailure.increment();
+            throw e;
+        }
+        logger.debug("Published performance data: {}", message);
+        return delivery;
     }
-}
 
+    /**
+     * Hands a batch to the producer, which groups the records per partition on its own, then waits
+     * for the broker acknowledgements. Records still unacknowledged after the timeout are not counted,
+     * although the producer may yet deliver them.
+     * @return number of records acknowledged by the broker
+     */
+    public int sendBatch(List<PerformanceData> batch, long ackTimeoutMs) {
+        List<CompletableFuture<?>> deliveries = new ArrayList<>(batch.size());
+        for (PerformanceData message : batch) {
+            try {
+                deliveries.add(sendPerformanceData(message));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish performance data for Node {}: {}", message.getNodeId(), e.getMessage());
+            }
+        }
 
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        int acknowledged = 0;
+        for (CompletableFuture<?> delivery : deliveries) {
+            try {
+                delivery.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged++;
+            } catch (ExecutionException | TimeoutException e) {
+                // failures are logged by the delivery callback; timed out records stay in flight
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.debug("Published batch of {}/{} performance records", acknowledged, batch.size());
+        return acknowledged;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+}
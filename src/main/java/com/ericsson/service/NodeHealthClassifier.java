@@ -0,0 +1,79 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Health thresholds shared by the metrics queries and the incrementally maintained aggregates.
+ * The thresholds are compiled rules swapped in as a whole by the ThresholdRuleService, so a
+ * classification never sees half of an update.
+ */
+@Component
+public class NodeHealthClassifier {
+
+    // Anomaly detection thresholds, used until rules are configured
+    private static final double HIGH_LATENCY_THRESHOLD = 100.0; // ms
+    private static final double LOW_THROUGHPUT_THRESHOLD = 50.0; // Mbps
+    private static final double HIGH_ERROR_RATE_THRESHOLD = 2.0; // %
+
+    private final double[] defaults;
+    private volatile CompiledThresholds thresholds;
+
+    public NodeHealthClassifier() {
+        this(HIGH_LATENCY_THRESHOLD, LOW_THROUGHPUT_THRESHOLD, HIGH_ERROR_RATE_THRESHOLD,
+                HIGH_LATENCY_THRESHOLD * 1.5, LOW_THROUGHPUT_THRESHOLD * 0.5, HIGH_ERROR_RATE_THRESHOLD * 2.0);
+    }
+
+    @Autowired
+    public NodeHealthClassifier(@Value("${health.thresholds.high-latency:100.0}") double highLatency,
+                                @Value("${health.thresholds.low-throughput:50.0}") double lowThroughput,
+                                @Value("${health.thresholds.high-error-rate:2.0}") double highErrorRate,
+                                @Value("${health.thresholds.critical-latency:150.0}") double criticalLatency,
+                                @Value("${health.thresholds.critical-throughput:25.0}") double criticalThroughput,
+                                @Value("${health.thresholds.critical-error-rate:4.0}") double criticalErrorRate) {
+        this.defaults = new double[CompiledThresholds.FIELDS];
+        defaults[CompiledThresholds.HIGH_LATENCY] = highLatency;
+        defaults[CompiledThresholds.LOW_THROUGHPUT] = lowThroughput;
+        defaults[CompiledThresholds.HIGH_ERROR_RATE] = highErrorRate;
+        defaults[CompiledThresholds.CRITICAL_LATENCY] = criticalLatency;
+        defaults[CompiledThresholds.CRITICAL_THROUGHPUT] = criticalThroughput;
+        defaults[CompiledThresholds.CRITICAL_ERROR_RATE] = criticalErrorRate;
+        this.thresholds = new CompiledThresholds(defaults, null, List.of(), List.of());
+        thresholds.inconsistency().ifPresent(message -> {
+            throw new IllegalArgumentException("health.thresholds, " + message);
+        });
+    }
+
+    /**
+     * Check if a node is healthy based on thresholds
+     */
+    public boolean isHealthy(PerformanceData data) {
+        return thresholds.isHealthy(data);
+    }
+
+    /**
+     * Check if a node is in critical state
+     */
+    public boolean isCritical(PerformanceData data) {
+        return thresholds.isCritical(data);
+    }
+
+    /**
+     * @param field one of the CompiledThresholds field constants
+     */
+    double threshold(PerformanceData data, int field) {
+        return thresholds.threshold(data, field);
+    }
+
+    double[] getDefaults() {
+        return defaults.clone();
+    }
+
+    void setThresholds(CompiledThresholds thresholds) {
+        this.thresholds = thresholds;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Single place where ingested performance data is persisted, shared by the Kafka listeners
+ * and the ingestion buffer writer threads.
+ *
+ * Ingestion is idempotent on (nodeId, timestamp): recent duplicates are dropped by the
+ * DuplicateFilter, older ones by the unique constraint. Transactions are programmatic so a
+ * constraint failure can be checked against the database after the failed transaction is gone.
+ * The in-memory views are not fed from here but by the MetricsViewFeed, which sees the samples of
+ * every instance.
+ *
+ * A rolled back transaction leaves the ids it generated on its entities, and saving those again (one
+ * by one after a rejected batch, or on retry) would make Hibernate merge them instead of inserting.
+ * Samples that already carry an id are therefore persisted as fresh copies.
+ */
+@Service
+@DependsOn("idAllocatorAlignment") // no id is allocated before the allocator is past the existing ids
+public class PerformanceDataWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceDataWriter.class);
+
+    private final PerformanceDataRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final DuplicateFilter duplicateFilter;
+
+    public PerformanceDataWriter(PerformanceDataRepository repository,
+                                 PlatformTransactionManager transactionManager,
+                                 DuplicateFilter duplicateFilter) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duplicateFilter = duplicateFilter;
+    }
+
+    /**
+     * @return false if the sample was already stored and has been skipped
+     */
+    public boolean save(PerformanceData data) {
+        if (duplicateFilter.isDuplicate(data)) {
+            return false;
+        }
+        PerformanceData entity = unsaved(data);
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.save(entity));
+        } catch (DataIntegrityViolationException e) {
+            if (data.getNodeId() == null || data.getTimestamp() == null
+                    || !repository.existsByNodeIdAndTimestamp(data.getNodeId(), data.getTimestamp())) {
+                throw e;
+            }
+            logger.debug("Skipping duplicate sample of Node {} at {}", data.getNodeId(), data.getTimestamp());
+            duplicateFilter.countDuplicate();
+            duplicateFilter.markStored(data);
+            return false;
+        }
+        duplicateFilter.markStored(data);
+        return true;
+    }
+
+    /**
+     * One transaction for the whole batch so Hibernate can send the inserts as JDBC batches
+     */
+    public void saveAll(List<PerformanceData> batch) {
+        List<PerformanceData> fresh = duplicateFilter.removeDuplicates(batch);
+        if (fresh.isEmpty()) {
+            return;
+        }
+        List<PerformanceData> entities = fresh.stream().map(PerformanceDataWriter::unsaved).toList();
+        transactionTemplate.executeWithoutResult(status -> repository.saveAll(entities));
+        duplicateFilter.markStored(fresh);
+    }
+
+    private static PerformanceData unsaved(PerformanceData data) {
+        return data.getId() == null ? data : new PerformanceData(data.getNodeId(), data.getNetworkId(),
+                data.getLatency(), data.getThroughput(), data.getErrorRate(), data.getTimestamp());
+    }
+}
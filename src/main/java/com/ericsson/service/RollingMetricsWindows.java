@@ -0,0 +1,74 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.storage.ColumnarSeriesStore;
+import com.ericsson.storage.ReplayTarget;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rolling aggregates of all ingested samples, bucketed by sample timestamp:
+ * 1-second buckets over the last 5 minutes and 1-minute buckets over the last 24 hours.
+ * Range summaries are answered from these rings without touching the database; the rings are
+ * rebuilt at startup by the HistoryReplayer.
+ */
+@Component
+public class RollingMetricsWindows implements IngestListener, ReplayTarget {
+
+    private final RollingWindow seconds = new RollingWindow(1000, 300);
+    private final RollingWindow minutes = new RollingWindow(60_000, 1440);
+
+    // Samples ingested before the replay starts are part of the replayed history
+    private volatile boolean live;
+
+    @Override
+    public Duration getReplayWindow() {
+        return Duration.ofMillis(minutes.getSpanMillis());
+    }
+
+    @Override
+    public void beginReplay() {
+        live = true;
+    }
+
+    @Override
+    public void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate) {
+        seconds.add(timestampMillis, latency, throughput, errorRate);
+        minutes.add(timestampMillis, latency, throughput, errorRate);
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!live) {
+            return;
+        }
+        stored.forEach(this::add);
+    }
+
+    void add(PerformanceData data) {
+        if (data.getTimestamp() == null || data.getLatency() == null
+                || data.getThroughput() == null || data.getErrorRate() == null) {
+            return;
+        }
+        visit(0, 0, ColumnarSeriesStore.toEpochMillis(data.getTimestamp()),
+                data.getLatency(), data.getThroughput(), data.getErrorRate());
+    }
+
+    /**
+     * Aggregates the samples with a timestamp within the given duration before now, using the
+     * finest ring that covers it
+     */
+    public RollingWindow.WindowStats summarize(Duration window) {
+        long now = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+        RollingWindow ring = window.toMillis() <= seconds.getSpanMillis() ? seconds : minutes;
+        if (window.toMillis() > ring.getSpanMillis()) {
+            throw new IllegalArgumentException("Window longer than " + Duration.ofMillis(ring.getSpanMillis()));
+        }
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+        ring.aggregate(now - window.toMillis() + 1, now, stats);
+        return stats;
+    }
+}
@@ -0,0 +1,224 @@
+package com.ericsson.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring of time buckets holding count/sum/min/max of latency, throughput and error rate.
+ *
+ * A slot is reused for a newer bucket by resetting it, so memory stays constant however much
+ * data arrives; samples older than the ring covers are ignored.
+ */
+class RollingWindow {
+
+    private static final int LATENCY = 0;
+    private static final int THROUGHPUT = 1;
+    private static final int ERROR_RATE = 2;
+    private static final int METRICS = 3;
+
+    private final long bucketMillis;
+    private final int slots;
+
+    // Guarded by this; per-metric arrays are laid out as [slot * METRICS + metric]
+    private final long[] bucketIds;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxs;
+    // Buckets changed since they were last drained, used by the rollup persistence
+    private final boolean[] dirty;
+
+    RollingWindow(long bucketMillis, int slots) {
+        this.bucketMillis = bucketMillis;
+        this.slots = slots;
+        this.bucketIds = new long[slots];
+        this.counts = new long[slots];
+        this.sums = new double[slots * METRICS];
+        this.mins = new double[slots * METRICS];
+        this.maxs = new double[slots * METRICS];
+        this.dirty = new boolean[slots];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    long getSpanMillis() {
+        return bucketMillis * slots;
+    }
+
+    synchronized void add(long epochMillis, double latency, double throughput, double errorRate) {
+        long bucketId = Math.floorDiv(epochMillis, bucketMillis);
+        int slot = (int) Math.floorMod(bucketId, (long) slots);
+        if (bucketIds[slot] > bucketId) {
+            return; // slot already holds a newer bucket
+        }
+        if (bucketIds[slot] != bucketId) {
+            bucketIds[slot] = bucketId;
+            counts[slot] = 0;
+            dirty[slot] = false;
+        }
+        int base = slot * METRICS;
+        if (counts[slot] == 0) {
+            mins[base + LATENCY] = mins[base + THROUGHPUT] = mins[base + ERROR_RATE] = Double.POSITIVE_INFINITY;
+            maxs[base + LATENCY] = maxs[base + THROUGHPUT] = maxs[base + ERROR_RATE] = Double.NEGATIVE_INFINITY;
+            sums[base + LATENCY] = sums[base + THROUGHPUT] = sums[base + ERROR_RATE] = 0;
+        }
+        counts[slot]++;
+        dirty[slot] = true;
+        accumulate(base + LATENCY, latency);
+        accumulate(base + THROUGHPUT, throughput);
+        accumulate(base + ERROR_RATE, errorRate);
+    }
+
+    private void accumulate(int index, double value) {
+        sums[index] += value;
+        mins[index] = Math.min(mins[index], value);
+        maxs[index] = Math.max(maxs[index], value);
+    }
+
+    /**
+     * Folds every bucket overlapping [fromMillis, toMillis] into the given stats
+     */
+    synchronized void aggregate(long fromMillis, long toMillis, WindowStats stats) {
+        long firstBucket = Math.max(Math.floorDiv(fromMillis, bucketMillis), Math.floorDiv(toMillis, bucketMillis) - slots + 1);
+        long lastBucket = Math.floorDiv(toMillis, bucketMillis);
+        for (long bucketId = firstBucket; bucketId <= lastBucket; bucketId++) {
+            int slot = (int) Math.floorMod(bucketId, (long) slots);
+            if (bucketIds[slot] == bucketId && counts[slot] != 0) {
+                mergeSlot(slot, stats);
+            }
+        }
+    }
+
+    /**
+     * Folds every bucket starting in [fromMillis, toMillis) into out[(bucket start - fromMillis) / outBucketMillis];
+     * fromMillis and outBucketMillis must be multiples of this window's bucket size
+     */
+    synchronized void aggregateBuckets(long fromMillis, long toMillis, long outBucketMillis, WindowStats[] out) {
+        long lastBucket = Math.floorDiv(toMillis - 1, bucketMillis);
+        long firstBucket = Math.max(Math.floorDiv(fromMillis, bucketMillis), lastBucket - slots + 1);
+        for (long bucketId = firstBucket; bucketId <= lastBucket; bucketId++) {
+            int slot = (int) Math.floorMod(bucketId, (long) slots);
+            if (bucketIds[slot] == bucketId && counts[slot] != 0) {
+                mergeSlot(slot, out[(int) ((bucketId * bucketMillis - fromMillis) / outBucketMillis)]);
+            }
+        }
+    }
+
+    private void mergeSlot(int slot, WindowStats stats) {
+        int base = slot * METRICS;
+        stats.count += counts[slot];
+        stats.latency.merge(sums[base + LATENCY], mins[base + LATENCY], maxs[base + LATENCY]);
+        stats.throughput.merge(sums[base + THROUGHPUT], mins[base + THROUGHPUT], maxs[base + THROUGHPUT]);
+        stats.errorRate.merge(sums[base + ERROR_RATE], mins[base + ERROR_RATE], maxs[base + ERROR_RATE]);
+    }
+
+    /**
+     * Restores a persisted bucket, replacing whatever the slot held unless that is newer
+     */
+    synchronized void load(long bucketId, WindowStats stats) {
+        int slot = (int) Math.floorMod(bucketId, (long) slots);
+        if (bucketIds[slot] > bucketId) {
+            return;
+        }
+        bucketIds[slot] = bucketId;
+        counts[slot] = stats.count;
+        dirty[slot] = false;
+        int base = slot * METRICS;
+        restore(base + LATENCY, stats.latency);
+        restore(base + THROUGHPUT, stats.throughput);
+        restore(base + ERROR_RATE, stats.errorRate);
+    }
+
+    private void restore(int index, MetricStats metric) {
+        sums[index] = metric.sum;
+        mins[index] = metric.min;
+        maxs[index] = metric.max;
+    }
+
+    /**
+     * Returns the changed buckets older than beforeBucketId and marks them clean
+     */
+    synchronized List<Bucket> drainDirty(long beforeBucketId) {
+        List<Bucket> drained = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            if (!dirty[slot] || bucketIds[slot] >= beforeBucketId) {
+                continue;
+            }
+            WindowStats stats = new WindowStats();
+            mergeSlot(slot, stats);
+            drained.add(new Bucket(bucketIds[slot], stats));
+            dirty[slot] = false;
+        }
+        return drained;
+    }
+
+    /**
+     * Marks a drained bucket as changed again, e.g. after persisting it failed
+     */
+    synchronized void markDirty(long bucketId) {
+        int slot = (int) Math.floorMod(bucketId, (long) slots);
+        if (bucketIds[slot] == bucketId) {
+            dirty[slot] = true;
+        }
+    }
+
+    record Bucket(long bucketId, WindowStats stats) {
+    }
+
+    static final class WindowStats {
+        long count;
+        final MetricStats latency = new MetricStats();
+        final MetricStats throughput = new MetricStats();
+        final MetricStats errorRate = new MetricStats();
+
+        void add(double latencyValue, double throughputValue, double errorRateValue) {
+            count++;
+            latency.merge(latencyValue, latencyValue, latencyValue);
+            throughput.merge(throughputValue, throughputValue, throughputValue);
+            errorRate.merge(errorRateValue, errorRateValue, errorRateValue);
+        }
+
+        void merge(WindowStats other) {
+            count += other.count;
+            latency.merge(other.latency.sum, other.latency.min, other.latency.max);
+            throughput.merge(other.throughput.sum, other.throughput.min, other.throughput.max);
+            errorRate.merge(other.errorRate.sum, other.errorRate.min, other.errorRate.max);
+        }
+
+        static WindowStats[] newArray(int length) {
+            WindowStats[] stats = new WindowStats[length];
+            for (int i = 0; i < length; i++) {
+                stats[i] = new WindowStats();
+            }
+            return stats;
+        }
+    }
+
+    static final class MetricStats {
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void merge(double bucketSum, double bucketMin, double bucketMax) {
+            sum += bucketSum;
+            min = Math.min(min, bucketMin);
+            max = Math.max(max, bucketMax);
+        }
+
+        double average(long count) {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        double minOrZero() {
+            return min == Double.POSITIVE_INFINITY ? 0 : min;
+        }
+
+        double maxOrZero() {
+            return max == Double.NEGATIVE_INFINITY ? 0 : max;
+        }
+    }
+}
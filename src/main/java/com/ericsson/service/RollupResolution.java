@@ -0,0 +1,30 @@
+package com.ericsson.service;
+
+/**
+ * Rollup resolutions, finest first
+ */
+public enum RollupResolution {
+    ONE_MINUTE("1m", 60),
+    FIVE_MINUTES("5m", 300),
+    ONE_HOUR("1h", 3600);
+
+    private final String label;
+    private final int seconds;
+
+    RollupResolution(String label, int seconds) {
+        this.label = label;
+        this.seconds = seconds;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    public long getMillis() {
+        return seconds * 1000L;
+    }
+}
@@ -0,0 +1,355 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.model.PerformanceRollup;
+import com.ericsson.model.RollupScope;
+import com.ericsson.repository.PerformanceRollupRepository;
+import com.ericsson.storage.ColumnarSeriesStore;
+import com.ericsson.storage.ReplayTarget;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-node and per-network min/max/avg/count rollups at 1-minute, 5-minute and 1-hour resolution.
+ *
+ * Buckets are accumulated in memory as samples arrive and answer queries from there. Closed
+ * node buckets are upserted into the performance_rollup table in one batch per flush; the table is
+ * what survives a restart: it is loaded back at startup, network buckets are merged from the node
+ * buckets of their network, and only samples newer than the last persisted bucket are replayed.
+ * Every instance sees every sample, so instances write the same node buckets and the upsert keeps
+ * that idempotent. Every resolution keeps its own retention, both in memory and in the table.
+ */
+@Component
+public class RollupStore implements IngestListener, ReplayTarget {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupStore.class);
+
+    private static final RollupResolution[] RESOLUTIONS = RollupResolution.values();
+
+    private final PerformanceRollupRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<RollupResolution, Duration> retention = new EnumMap<>(RollupResolution.class);
+    private final long lateSampleGraceMillis;
+
+    private final Map<SeriesKey, RollingWindow[]> series = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> networkByNode = new ConcurrentHashMap<>();
+    // Replayed samples older than this are already part of the loaded rollups, per resolution
+    private final long[] persistedUntilMillis = new long[RESOLUTIONS.length];
+    // Start of the oldest bucket held, per resolution; earlier ranges were never rolled up, e.g. before the
+    // first deploy or beyond the replay window, so they must not be answered from the (empty) rollups
+    private final AtomicLongArray oldestBucketMillis = new AtomicLongArray(RESOLUTIONS.length);
+
+    private volatile boolean live;
+
+    public RollupStore(PerformanceRollupRepository repository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${rollup.retention.one-minute-hours:24}") int oneMinuteRetentionHours,
+                       @Value("${rollup.retention.five-minute-days:7}") int fiveMinuteRetentionDays,
+                       @Value("${rollup.retention.one-hour-days:90}") int oneHourRetentionDays,
+                       @Value("${rollup.late-sample-grace-seconds:60}") int lateSampleGraceSeconds) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention.put(RollupResolution.ONE_MINUTE, Duration.ofHours(oneMinuteRetentionHours));
+        this.retention.put(RollupResolution.FIVE_MINUTES, Duration.ofDays(fiveMinuteRetentionDays));
+        this.retention.put(RollupResolution.ONE_HOUR, Duration.ofDays(oneHourRetentionDays));
+        this.lateSampleGraceMillis = lateSampleGraceSeconds * 1000L;
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            oldestBucketMillis.set(i, Long.MAX_VALUE);
+        }
+    }
+
+    @PostConstruct
+    public void loadPersisted() {
+        long now = nowMillis();
+        int loaded = 0;
+        for (RollupResolution resolution : RESOLUTIONS) {
+            LocalDateTime since = toLocalDateTime(now - retention.get(resolution).toMillis());
+            long persistedUntil = Long.MIN_VALUE;
+            Map<SeriesKey, Map<Long, RollingWindow.WindowStats>> networkBuckets = new HashMap<>();
+            for (PerformanceRollup rollup : repository.findByResolutionSecondsAndScopeAndBucketStartGreaterThanEqual(
+                    resolution.getSeconds(), RollupScope.NODE, since)) {
+                long bucketStart = ColumnarSeriesStore.toEpochMillis(rollup.getBucketStart());
+                long bucketId = Math.floorDiv(bucketStart, resolution.getMillis());
+                RollingWindow.WindowStats stats = toStats(rollup);
+                window(new SeriesKey(RollupScope.NODE, rollup.getScopeId()), resolution).load(bucketId, stats);
+                if (rollup.getNetworkId() != null) {
+                    networkByNode.putIfAbsent(rollup.getScopeId(), rollup.getNetworkId());
+                    networkBuckets.computeIfAbsent(new SeriesKey(RollupScope.NETWORK, rollup.getNetworkId()), k -> new HashMap<>())
+                            .computeIfAbsent(bucketId, id -> new RollingWindow.WindowStats())
+                            .merge(stats);
+                }
+                persistedUntil = Math.max(persistedUntil, bucketStart + resolution.getMillis());
+                markHeld(resolution, bucketStart);
+                loaded++;
+            }
+            networkBuckets.forEach((key, buckets) -> buckets.forEach(
+                    (bucketId, stats) -> window(key, resolution).load(bucketId, stats)));
+            persistedUntilMillis[resolution.ordinal()] = persistedUntil;
+        }
+        logger.info("Loaded {} persisted rollup buckets", loaded);
+    }
+
+    @Override
+    public Duration getReplayWindow() {
+        long oldest = Long.MAX_VALUE;
+        for (RollupResolution resolution : RESOLUTIONS) {
+            long persistedUntil = persistedUntilMillis[resolution.ordinal()];
+            long retainedFrom = nowMillis() - retention.get(resolution).toMillis();
+            oldest = Math.min(oldest, Math.max(persistedUntil, retainedFrom));
+        }
+        return Duration.ofMillis(Math.max(0, nowMillis() - oldest));
+    }
+
+    @Override
+    public void beginReplay() {
+        live = true;
+    }
+
+    @Override
+    public void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate) {
+        for (RollupResolution resolution : RESOLUTIONS) {
+            if (timestampMillis >= persistedUntilMillis[resolution.ordinal()]) {
+                add(resolution, nodeId, networkId, timestampMillis, latency, throughput, errorRate);
+            }
+        }
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!live) {
+            return;
+        }
+        for (PerformanceData data : stored) {
+            if (data.getNodeId() == null || data.getNetworkId() == null || data.getTimestamp() == null
+                    || data.getLatency() == null || data.getThroughput() == null || data.getErrorRate() == null) {
+                continue;
+            }
+            long timestamp = ColumnarSeriesStore.toEpochMillis(data.getTimestamp());
+            for (RollupResolution resolution : RESOLUTIONS) {
+                add(resolution, data.getNodeId(), data.getNetworkId(), timestamp,
+                        data.getLatency(), data.getThroughput(), data.getErrorRate());
+            }
+        }
+    }
+
+    private void add(RollupResolution resolution, int nodeId, int networkId, long timestampMillis,
+                     double latency, double throughput, double errorRate) {
+        window(new SeriesKey(RollupScope.NODE, nodeId), resolution).add(timestampMillis, latency, throughput, errorRate);
+        networkByNode.put(nodeId, networkId);
+        window(new SeriesKey(RollupScope.NETWORK, networkId), resolution).add(timestampMillis, latency, throughput, errorRate);
+        markHeld(resolution, timestampMillis);
+    }
+
+    private void markHeld(RollupResolution resolution, long timestampMillis) {
+        long bucketStart = Math.floorDiv(timestampMillis, resolution.getMillis()) * resolution.getMillis();
+        if (bucketStart < oldestBucketMillis.get(resolution.ordinal())) {
+            oldestBucketMillis.accumulateAndGet(resolution.ordinal(), bucketStart, Math::min);
+        }
+    }
+
+    private RollingWindow window(SeriesKey key, RollupResolution resolution) {
+        return series.computeIfAbsent(key, k -> newWindows())[resolution.ordinal()];
+    }
+
+    private RollingWindow[] newWindows() {
+        RollingWindow[] windows = new RollingWindow[RESOLUTIONS.length];
+        for (RollupResolution resolution : RESOLUTIONS) {
+            int slots = (int) (retention.get(resolution).toMillis() / resolution.getMillis());
+            windows[resolution.ordinal()] = new RollingWindow(resolution.getMillis(), slots);
+        }
+        return windows;
+    }
+
+    /**
+     * Coarsest resolution whose buckets line up with [fromMillis, toMillis) and that is still
+     * retained and held at fromMillis
+     */
+    public Optional<RollupResolution> resolutionFor(long fromMillis, long toMillis) {
+        return resolutionFor(fromMillis, toMillis, toMillis - fromMillis);
+    }
+
+    /**
+     * Coarsest resolution whose buckets line up with [fromMillis, toMillis), evenly divide
+     * bucketMillis and that is still retained and held at fromMillis
+     */
+    public Optional<RollupResolution> resolutionFor(long fromMillis, long toMillis, long bucketMillis) {
+        long now = nowMillis();
+        for (int i = RESOLUTIONS.length - 1; i >= 0; i--) {
+            RollupResolution resolution = RESOLUTIONS[i];
+            if (fromMillis % resolution.getMillis() == 0 && toMillis % resolution.getMillis() == 0
+                    && bucketMillis % resolution.getMillis() == 0
+                    && fromMillis >= now - retention.get(resolution).toMillis()
+                    && fromMillis >= oldestBucketMillis.get(i)) {
+                return Optional.of(resolution);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Folds the buckets of [fromMillis, toMillis) of one node or network, or of every network
+     * when scopeId is null, into the given stats
+     */
+    public void aggregate(RollupResolution resolution, RollupScope scope, Integer scopeId,
+                          long fromMillis, long toMillis, RollingWindow.WindowStats stats) {
+        if (scopeId != null) {
+            RollingWindow[] windows = series.get(new SeriesKey(scope, scopeId));
+            if (windows != null) {
+                windows[resolution.ordinal()].aggregate(fromMillis, toMillis - 1, stats);
+            }
+            return;
+        }
+        series.forEach((key, windows) -> {
+            if (key.scope() == scope) {
+                windows[resolution.ordinal()].aggregate(fromMillis, toMillis - 1, stats);
+            }
+        });
+    }
+
+    /**
+     * Number of nodes or networks with rollups
+     */
+    public int seriesCount(RollupScope scope) {
+        int count = 0;
+        for (SeriesKey key : series.keySet()) {
+            if (key.scope() == scope) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Splits [fromMillis, toMillis) into buckets of bucketMillis and folds the rollups of each
+     * node or network (only scopeId, if set) into them, in one pass over the rollup buckets
+     */
+    public Map<Integer, RollingWindow.WindowStats[]> aggregateBuckets(RollupResolution resolution, RollupScope scope,
+                                                                     Integer scopeId, long fromMillis, long toMillis,
+                                                                     long bucketMillis) {
+        int buckets = (int) ((toMillis - fromMillis + bucketMillis - 1) / bucketMillis);
+        Map<Integer, RollingWindow.WindowStats[]> result = new TreeMap<>();
+        series.forEach((key, windows) -> {
+            if (key.scope() == scope && (scopeId == null || key.id() == scopeId)) {
+                RollingWindow.WindowStats[] stats = RollingWindow.WindowStats.newArray(buckets);
+                windows[resolution.ordinal()].aggregateBuckets(fromMillis, toMillis, bucketMillis, stats);
+                result.put(key.id(), stats);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Writes the node buckets that closed since the last flush; late samples re-open a bucket and
+     * get it written again
+     */
+    @Scheduled(fixedDelayString = "${rollup.flush-interval-ms:30000}")
+    public void flush() {
+        flushBefore(nowMillis() - lateSampleGraceMillis);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushBefore(Long.MAX_VALUE);
+    }
+
+    private void flushBefore(long closedBeforeMillis) {
+        List<PerformanceRollup> rollups = new ArrayList<>();
+        List<Runnable> restoreDirty = new ArrayList<>();
+        for (Map.Entry<SeriesKey, RollingWindow[]> entry : series.entrySet()) {
+            if (entry.getKey().scope() != RollupScope.NODE) {
+                continue; // derived from the node rollups when loaded
+            }
+            for (RollupResolution resolution : RESOLUTIONS) {
+                long beforeBucket = closedBeforeMillis == Long.MAX_VALUE
+                        ? Long.MAX_VALUE
+                        : Math.floorDiv(closedBeforeMillis, resolution.getMillis());
+                RollingWindow window = entry.getValue()[resolution.ordinal()];
+                for (RollingWindow.Bucket bucket : window.drainDirty(beforeBucket)) {
+                    rollups.add(toRollup(resolution, entry.getKey(), bucket));
+                    restoreDirty.add(() -> window.markDirty(bucket.bucketId()));
+                }
+            }
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.upsertAll(rollups));
+            logger.debug("Persisted {} rollup buckets", rollups.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not persist {} rollup buckets: {}", rollups.size(), e.getMessage());
+            restoreDirty.forEach(Runnable::run);
+        }
+    }
+
+    private PerformanceRollup toRollup(RollupResolution resolution, SeriesKey key, RollingWindow.Bucket bucket) {
+        PerformanceRollup rollup = new PerformanceRollup(resolution.getSeconds(), key.scope(), key.id(),
+                toLocalDateTime(bucket.bucketId() * resolution.getMillis()));
+        rollup.setNetworkId(networkByNode.get(key.id()));
+        RollingWindow.WindowStats stats = bucket.stats();
+        rollup.setSampleCount(stats.count);
+        rollup.setLatencySum(stats.latency.sum);
+        rollup.setLatencyMin(stats.latency.min);
+        rollup.setLatencyMax(stats.latency.max);
+        rollup.setThroughputSum(stats.throughput.sum);
+        rollup.setThroughputMin(stats.throughput.min);
+        rollup.setThroughputMax(stats.throughput.max);
+        rollup.setErrorRateSum(stats.errorRate.sum);
+        rollup.setErrorRateMin(stats.errorRate.min);
+        rollup.setErrorRateMax(stats.errorRate.max);
+        return rollup;
+    }
+
+    @Scheduled(fixedDelayString = "${rollup.retention-check-interval-ms:3600000}")
+    public void deleteExpired() {
+        long now = nowMillis();
+        for (RollupResolution resolution : RESOLUTIONS) {
+            int deleted = repository.deleteExpired(resolution.getSeconds(),
+                    toLocalDateTime(now - retention.get(resolution).toMillis()));
+            if (deleted > 0) {
+                logger.info("Deleted {} expired {} rollups", deleted, resolution.getLabel());
+            }
+        }
+    }
+
+    private static RollingWindow.WindowStats toStats(PerformanceRollup rollup) {
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+        stats.count = rollup.getSampleCount();
+        stats.latency.merge(rollup.getLatencySum(), rollup.getLatencyMin(), rollup.getLatencyMax());
+        stats.throughput.merge(rollup.getThroughputSum(), rollup.getThroughputMin(), rollup.getThroughputMax());
+        stats.errorRate.merge(rollup.getErrorRateSum(), rollup.getErrorRateMin(), rollup.getErrorRateMax());
+        return stats;
+    }
+
+    private static long nowMillis() {
+        return ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private record SeriesKey(RollupScope scope, int id) {
+    }
+}
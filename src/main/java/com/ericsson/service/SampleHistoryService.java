@@ -0,0 +1,106 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Raw sample history, one keyset page at a time.
+ *
+ * A page is written to the response while it is read from the database cursor, as
+ * {"items": [...], "next": {"afterTimestamp": ..., "afterId": ...}}; "next" is null on the last page.
+ *
+ * The read transaction and its cursor stay open for as long as the client takes to receive the
+ * page, so history.max-page-size bounds how long a slow client can hold them.
+ */
+@Service
+public class SampleHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleHistoryService.class);
+
+    private final PerformanceDataRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public SampleHistoryService(PerformanceDataRepository repository,
+                                ObjectMapper objectMapper,
+                                @Value("${history.default-page-size:1000}") int defaultPageSize,
+                                @Value("${history.max-page-size:100000}") int maxPageSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the page size, range or cursor is invalid
+     */
+    public int resolvePageSize(Integer limit, LocalDateTime from, LocalDateTime to,
+                               LocalDateTime afterTimestamp, Long afterId) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if ((afterTimestamp == null) != (afterId == null)) {
+            throw new IllegalArgumentException("'afterTimestamp' and 'afterId' must be given together");
+        }
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    @Transactional(readOnly = true)
+    public void writePage(Integer nodeId, Integer networkId, LocalDateTime from, LocalDateTime to,
+                          LocalDateTime afterTimestamp, Long afterId, int pageSize, OutputStream out) throws IOException {
+        long written = 0;
+        PerformanceData last = null;
+        boolean hasMore = false;
+        // one row past the page tells whether there is a next page
+        try (Stream<PerformanceData> rows = repository.streamHistory(
+                nodeId, networkId, from, to, afterTimestamp, afterId, pageSize + 1);
+             JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            Iterator<PerformanceData> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                PerformanceData data = iterator.next();
+                if (written == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                generator.writeObject(data);
+                last = data;
+                written++;
+            }
+            generator.writeEndArray();
+            if (hasMore) {
+                generator.writeObjectFieldStart("next");
+                generator.writeFieldName("afterTimestamp");
+                generator.writeObject(last.getTimestamp());
+                generator.writeNumberField("afterId", last.getId());
+                generator.writeEndObject();
+            } else {
+                generator.writeNullField("next");
+            }
+            generator.writeEndObject();
+        }
+        logger.debug("Streamed {} history rows", written);
+    }
+}
@@ -0,0 +1,210 @@
+package com.ericsson.service;
+
+import com.ericsson.repository.PerformanceDataRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Removes raw samples older than the retention period from the performance_data table.
+ *
+ * With the "partitions" strategy (MySQL) the table is range-partitioned by day on timestamp:
+ * partitions are created a few days ahead and an expired day is removed by dropping its partition,
+ * which takes the same time however many rows it holds. The "delete" strategy (H2) deletes expired
+ * rows in chunks of ids, one short transaction per chunk.
+ *
+ * Partitioning a table that holds samples rebuilds it and its primary key under a table lock, so it
+ * is a one-time migration step that only runs when retention.performance-data.convert-to-partitions
+ * is set; until then such a table keeps being purged with chunked deletes. An empty table, e.g. on
+ * the first deploy, is partitioned right away.
+ */
+@Service
+public class SampleRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleRetentionService.class);
+
+    static final String PARTITIONS = "partitions";
+    private static final String TABLE = "performance_data";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final PerformanceDataRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+    private final int retentionDays;
+    private final int partitionsAheadDays;
+    private final int deleteChunkSize;
+    private final boolean convertToPartitions;
+
+    private final Counter rowsReclaimed;
+    private final Counter bytesReclaimed;
+    private final Counter partitionsDropped;
+
+    public SampleRetentionService(PerformanceDataRepository repository,
+                                  JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${retention.performance-data.strategy:delete}") String strategy,
+                                  @Value("${retention.performance-data.days:30}") int retentionDays,
+                                  @Value("${retention.performance-data.partitions-ahead-days:3}") int partitionsAheadDays,
+                                  @Value("${retention.performance-data.delete-chunk-size:5000}") int deleteChunkSize,
+                                  @Value("${retention.performance-data.convert-to-partitions:false}") boolean convertToPartitions) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioned = PARTITIONS.equalsIgnoreCase(strategy);
+        this.retentionDays = retentionDays;
+        this.partitionsAheadDays = partitionsAheadDays;
+        this.deleteChunkSize = deleteChunkSize;
+        this.convertToPartitions = convertToPartitions;
+
+        this.rowsReclaimed = Counter.builder("retention.performance.data.rows.reclaimed")
+                .description("Expired samples removed; estimated from table statistics for dropped partitions")
+                .register(meterRegistry);
+        this.bytesReclaimed = Counter.builder("retention.performance.data.bytes.reclaimed")
+                .description("Data and index bytes of dropped partitions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.partitionsDropped = Counter.builder("retention.performance.data.partitions.dropped")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparePartitions() {
+        if (partitioned) {
+            ensurePartitions(LocalDateTime.now().toLocalDate());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${retention.performance-data.check-interval-ms:3600000}",
+            initialDelayString = "${retention.performance-data.check-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (partitioned && ensurePartitions(now.toLocalDate())) {
+                dropExpiredPartitions(now.toLocalDate().minusDays(retentionDays));
+            } else {
+                deleteExpiredRows(now.minusDays(retentionDays));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Purging expired performance data failed", e);
+        }
+    }
+
+    long deleteExpiredRows(LocalDateTime cutoff) {
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = repository.findIdsOlderThan(cutoff, Limit.of(deleteChunkSize));
+            if (!ids.isEmpty()) {
+                repository.deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+                rowsReclaimed.increment(ids.size());
+            }
+        } while (ids.size() == deleteChunkSize);
+        if (deleted > 0) {
+            logger.info("Deleted {} performance samples older than {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    /**
+     * Partitions the table by day if it is not yet and is empty or the conversion is enabled, and creates the
+     * daily partitions up to partitionsAheadDays after today by splitting the empty catch-all partition
+     *
+     * @return false if the table is not partitioned
+     */
+    boolean ensurePartitions(LocalDate today) {
+        List<Partition> partitions = loadPartitions();
+        if (partitions.isEmpty()) {
+            if (!convertToPartitions && !isTableEmpty()) {
+                logger.warn("{} is not partitioned; purging it with chunked deletes until it is converted"
+                        + " with retention.performance-data.convert-to-partitions=true", TABLE);
+                return false;
+            }
+            createPartitioning(today);
+            partitions = loadPartitions();
+        }
+        LocalDate next = partitions.stream()
+                .filter(p -> !MAX_PARTITION.equals(p.name()))
+                .map(p -> LocalDate.parse(p.name(), PARTITION_NAME).plusDays(1))
+                .max(LocalDate::compareTo)
+                .orElse(today);
+        List<String> added = new ArrayList<>();
+        for (LocalDate day = next; !day.isAfter(today.plusDays(partitionsAheadDays)); day = day.plusDays(1)) {
+            added.add(partitionDefinition(day));
+        }
+        if (added.isEmpty()) {
+            return true;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                + String.join(", ", added) + ", " + maxPartitionDefinition() + ")");
+        logger.info("Created {} daily partitions of {}", added.size(), TABLE);
+        return true;
+    }
+
+    private void createPartitioning(LocalDate today) {
+        logger.warn("Partitioning {} by day; this rebuilds the table once", TABLE);
+        // MySQL requires the partitioning column in every unique key, the primary key included
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " MODIFY `timestamp` DATETIME(6) NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, `timestamp`)");
+        // everything before today starts out in yesterday's partition and expires with it
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(`timestamp`) ("
+                + partitionDefinition(today.minusDays(1)) + ", " + maxPartitionDefinition() + ")");
+    }
+
+    void dropExpiredPartitions(LocalDate cutoff) {
+        List<Partition> expired = loadPartitions().stream()
+                .filter(p -> !MAX_PARTITION.equals(p.name()))
+                .filter(p -> !LocalDate.parse(p.name(), PARTITION_NAME).plusDays(1).isAfter(cutoff))
+                .toList();
+        if (expired.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION "
+                + expired.stream().map(Partition::name).collect(Collectors.joining(", ")));
+        long rows = expired.stream().mapToLong(Partition::rows).sum();
+        long bytes = expired.stream().mapToLong(Partition::bytes).sum();
+        rowsReclaimed.increment(rows);
+        bytesReclaimed.increment(bytes);
+        partitionsDropped.increment(expired.size());
+        logger.info("Dropped {} expired partitions of {} (~{} rows, {} bytes)", expired.size(), TABLE, rows, bytes);
+    }
+
+    private boolean isTableEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM " + TABLE + " LIMIT 1) t", Integer.class);
+        return rows != null && rows == 0;
+    }
+
+    private List<Partition> loadPartitions() {
+        return jdbcTemplate.query("SELECT PARTITION_NAME, TABLE_ROWS, DATA_LENGTH + INDEX_LENGTH"
+                        + " FROM information_schema.PARTITIONS"
+                        + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + TABLE + "' AND PARTITION_NAME IS NOT NULL"
+                        + " ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    private static String partitionDefinition(LocalDate day) {
+        return "PARTITION " + day.format(PARTITION_NAME) + " VALUES LESS THAN ('" + day.plusDays(1) + " 00:00:00')";
+    }
+
+    private static String maxPartitionDefinition() {
+        return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)";
+    }
+
+    record Partition(String name, long rows, long bytes) {
+    }
+}
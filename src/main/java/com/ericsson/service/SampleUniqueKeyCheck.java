@@ -0,0 +1,89 @@
+package com.ericsson.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Makes sure performance_data has its unique key on (node_id, timestamp) before any sample is ingested,
+ * since redelivered samples are only kept out by that key.
+ *
+ * ddl-auto=update cannot add the key to a table that already holds duplicates; it logs the failure and
+ * carries on. Startup then fails here, unless repair is enabled, in which case the duplicates (all but
+ * the lowest id of each node and timestamp) are deleted and the key is added. That is a one-time
+ * migration step which scans the whole table.
+ */
+@Component
+@DependsOn("entityManagerFactory") // runs after Hibernate has created or updated the schema
+public class SampleUniqueKeyCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleUniqueKeyCheck.class);
+
+    static final String UNIQUE_KEY = "uk_performance_data_node_timestamp";
+    private static final String TABLE = "performance_data";
+    private static final Set<String> KEY_COLUMNS = Set.of("node_id", "timestamp");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean repair;
+
+    public SampleUniqueKeyCheck(JdbcTemplate jdbcTemplate,
+                                @Value("${schema.performance-data.repair-unique-key:false}") boolean repair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repair = repair;
+    }
+
+    @PostConstruct
+    public void verify() {
+        if (hasUniqueKey()) {
+            return;
+        }
+        if (!repair) {
+            throw new IllegalStateException(TABLE + " has no unique key on (node_id, timestamp), so redelivered samples"
+                    + " would be stored twice. Start once with schema.performance-data.repair-unique-key=true to delete"
+                    + " duplicate samples and add " + UNIQUE_KEY);
+        }
+        logger.warn("Adding {} to {}; duplicate samples are deleted first", UNIQUE_KEY, TABLE);
+        int deleted = jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id IN (SELECT id FROM ("
+                + "SELECT p.id FROM " + TABLE + " p JOIN " + TABLE + " q"
+                + " ON p.node_id = q.node_id AND p.timestamp = q.timestamp AND p.id > q.id) duplicates)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + UNIQUE_KEY + " UNIQUE (node_id, timestamp)");
+        if (!hasUniqueKey()) {
+            throw new IllegalStateException("Adding " + UNIQUE_KEY + " to " + TABLE + " did not take effect");
+        }
+        logger.info("Deleted {} duplicate samples and added {}", deleted, UNIQUE_KEY);
+    }
+
+    /**
+     * Looks for any unique index on exactly (node_id, timestamp), whatever the database named it
+     */
+    boolean hasUniqueKey() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+            Map<String, Set<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, true)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    if (column != null) {
+                        columnsByIndex.computeIfAbsent(rs.getString("INDEX_NAME"), name -> new HashSet<>())
+                                .add(column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return columnsByIndex.containsValue(KEY_COLUMNS);
+        }));
+    }
+}
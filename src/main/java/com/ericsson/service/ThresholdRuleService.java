@@ -0,0 +1,179 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.ThresholdRuleDto;
+import com.ericsson.exception.InvalidUserInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runtime-editable health threshold rules per node, per network and global.
+ *
+ * Every change recompiles the whole rule set and swaps it into the NodeHealthClassifier in one
+ * write, then rebuilds the aggregates that depend on the classification from the latest samples
+ * while the LatestMetricsCache holds back updates.
+ * A change that leaves a critical threshold short of its warning threshold is rejected.
+ * Rules live in memory; after a restart the configured defaults apply again.
+ */
+@Service
+public class ThresholdRuleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThresholdRuleService.class);
+
+    static final String GLOBAL = "global";
+    static final String NETWORK = "network";
+    static final String NODE = "node";
+
+    private final NodeHealthClassifier healthClassifier;
+    private final LatestMetricsCache latestMetricsCache;
+    private final KpiSummaryAggregator kpiSummaryAggregator;
+    private final AnomalyTracker anomalyTracker;
+
+    // Guarded by this
+    private ThresholdRuleDto globalRule;
+    private final Map<Integer, ThresholdRuleDto> networkRules = new TreeMap<>();
+    private final Map<Integer, ThresholdRuleDto> nodeRules = new TreeMap<>();
+
+    public ThresholdRuleService(NodeHealthClassifier healthClassifier,
+                                LatestMetricsCache latestMetricsCache,
+                                KpiSummaryAggregator kpiSummaryAggregator,
+                                AnomalyTracker anomalyTracker) {
+        this.healthClassifier = healthClassifier;
+        this.latestMetricsCache = latestMetricsCache;
+        this.kpiSummaryAggregator = kpiSummaryAggregator;
+        this.anomalyTracker = anomalyTracker;
+    }
+
+    /**
+     * @return the effective global thresholds, then the network and node rules as configured
+     */
+    public synchronized List<ThresholdRuleDto> getRules() {
+        List<ThresholdRuleDto> rules = new ArrayList<>();
+        rules.add(effectiveGlobalRule());
+        rules.addAll(networkRules.values());
+        rules.addAll(nodeRules.values());
+        return rules;
+    }
+
+    /**
+     * Adds or replaces the rule of the given scope
+     *
+     * @throws InvalidUserInputException if the scope or a threshold is invalid, or a critical
+     *                                   threshold would not be beyond its warning threshold
+     */
+    public synchronized ThresholdRuleDto putRule(ThresholdRuleDto rule) {
+        String scope = normalizeScope(rule.getScope(), rule.getScopeId());
+        ThresholdRuleDto copy = copyOf(rule, scope);
+        replaceRule(scope, copy.getScopeId(), copy);
+        logger.info("Threshold rule for {} {} updated", scope, copy.getScopeId() == null ? "" : copy.getScopeId());
+        return scope.equals(GLOBAL) ? effectiveGlobalRule() : copy;
+    }
+
+    /**
+     * Removes a rule; removing the global rule restores the configured defaults
+     *
+     * @return false if there was no such rule
+     * @throws InvalidUserInputException if a critical threshold would then not be beyond its warning threshold
+     */
+    public synchronized boolean deleteRule(String scope, Integer scopeId) {
+        String normalized = normalizeScope(scope, scopeId);
+        return replaceRule(normalized, scopeId, null) != null;
+    }
+
+    /**
+     * Sets or, with a null rule, removes the rule of a scope and recompiles; the previous rule is
+     * restored if the result is inconsistent
+     *
+     * @return the previous rule, or null
+     */
+    private ThresholdRuleDto replaceRule(String scope, Integer scopeId, ThresholdRuleDto rule) {
+        ThresholdRuleDto previous = setRule(scope, scopeId, rule);
+        if (previous == null && rule == null) {
+            return null;
+        }
+        try {
+            recompile();
+        } catch (InvalidUserInputException e) {
+            setRule(scope, scopeId, previous);
+            throw e;
+        }
+        return previous;
+    }
+
+    private ThresholdRuleDto setRule(String scope, Integer scopeId, ThresholdRuleDto rule) {
+        return switch (scope) {
+            case GLOBAL -> {
+                ThresholdRuleDto previous = globalRule;
+                globalRule = rule;
+                yield previous;
+            }
+            case NETWORK -> rule == null ? networkRules.remove(scopeId) : networkRules.put(scopeId, rule);
+            default -> rule == null ? nodeRules.remove(scopeId) : nodeRules.put(scopeId, rule);
+        };
+    }
+
+    private void recompile() {
+        CompiledThresholds compiled = new CompiledThresholds(
+                healthClassifier.getDefaults(), globalRule, networkRules.values(), nodeRules.values());
+        compiled.inconsistency().ifPresent(message -> {
+            throw new InvalidUserInputException(message);
+        });
+        // swapped while updates are paused, so no sample is added under the old thresholds and
+        // subtracted under the new ones
+        latestMetricsCache.withUpdatesPaused(latest -> {
+            healthClassifier.setThresholds(compiled);
+            kpiSummaryAggregator.rebuild(latest);
+            anomalyTracker.rebuild(latest);
+        });
+    }
+
+    private ThresholdRuleDto effectiveGlobalRule() {
+        double[] global = new CompiledThresholds(healthClassifier.getDefaults(), globalRule, List.of(), List.of()).getGlobal();
+        ThresholdRuleDto rule = new ThresholdRuleDto();
+        rule.setScope(GLOBAL);
+        rule.setHighLatency(global[CompiledThresholds.HIGH_LATENCY]);
+        rule.setLowThroughput(global[CompiledThresholds.LOW_THROUGHPUT]);
+        rule.setHighErrorRate(global[CompiledThresholds.HIGH_ERROR_RATE]);
+        rule.setCriticalLatency(global[CompiledThresholds.CRITICAL_LATENCY]);
+        rule.setCriticalThroughput(global[CompiledThresholds.CRITICAL_THROUGHPUT]);
+        rule.setCriticalErrorRate(global[CompiledThresholds.CRITICAL_ERROR_RATE]);
+        return rule;
+    }
+
+    private static String normalizeScope(String scope, Integer scopeId) {
+        String normalized = scope == null ? "" : scope.toLowerCase(Locale.ROOT);
+        if (!normalized.equals(GLOBAL) && !normalized.equals(NETWORK) && !normalized.equals(NODE)) {
+            throw new InvalidUserInputException("Scope must be 'global', 'network' or 'node'");
+        }
+        if (normalized.equals(GLOBAL) == (scopeId != null)) {
+            throw new InvalidUserInputException("scopeId is required for network and node rules only");
+        }
+        return normalized;
+    }
+
+    private static ThresholdRuleDto copyOf(ThresholdRuleDto rule, String scope) {
+        ThresholdRuleDto copy = new ThresholdRuleDto();
+        copy.setScope(scope);
+        copy.setScopeId(rule.getScopeId());
+        copy.setHighLatency(validated("highLatency", rule.getHighLatency()));
+        copy.setLowThroughput(validated("lowThroughput", rule.getLowThroughput()));
+        copy.setHighErrorRate(validated("highErrorRate", rule.getHighErrorRate()));
+        copy.setCriticalLatency(validated("criticalLatency", rule.getCriticalLatency()));
+        copy.setCriticalThroughput(validated("criticalThroughput", rule.getCriticalThroughput()));
+        copy.setCriticalErrorRate(validated("criticalErrorRate", rule.getCriticalErrorRate()));
+        return copy;
+    }
+
+    private static Double validated(String name, Double value) {
+        if (value != null && (value.isNaN() || value.isInfinite() || value < 0)) {
+            throw new InvalidUserInputException(name + " must be a non-negative number");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ericsson.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-capacity buffer of the newest samples of one node, stored column by column in a direct buffer:
+ * all timestamps, then all network ids, then latency, throughput and error rate.
+ * 36 bytes per sample, none of it on the Java heap.
+ *
+ * Samples are only ever appended and a chunk is not reused once sealed, so the first size() samples,
+ * with size() read under the owning series' lock, can be scanned after the lock was released.
+ */
+final class ColumnChunk {
+
+    static final int BYTES_PER_SAMPLE = Long.BYTES + Integer.BYTES + 3 * Double.BYTES;
+
+    private final int capacity;
+    private final ByteBuffer columns;
+    private final int networkOffset;
+    private final int latencyOffset;
+    private final int throughputOffset;
+    private final int errorRateOffset;
+
+    // Written under the owning series' write lock, read under its read lock
+    private int size;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    ColumnChunk(int capacity) {
+        this.capacity = capacity;
+        this.columns = ByteBuffer.allocateDirect(capacity * BYTES_PER_SAMPLE);
+        this.networkOffset = capacity * Long.BYTES;
+        this.latencyOffset = networkOffset + capacity * Integer.BYTES;
+        this.throughputOffset = latencyOffset + capacity * Double.BYTES;
+        this.errorRateOffset = throughputOffset + capacity * Double.BYTES;
+        this.minTimestamp = Long.MAX_VALUE;
+        this.maxTimestamp = Long.MIN_VALUE;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    void append(long timestampMillis, int networkId, double latency, double throughput, double errorRate) {
+        int i = size;
+        columns.putLong(i * Long.BYTES, timestampMillis);
+        columns.putInt(networkOffset + i * Integer.BYTES, networkId);
+        columns.putDouble(latencyOffset + i * Double.BYTES, latency);
+        columns.putDouble(throughputOffset + i * Double.BYTES, throughput);
+        columns.putDouble(errorRateOffset + i * Double.BYTES, errorRate);
+        size = i + 1;
+        minTimestamp = Math.min(minTimestamp, timestampMillis);
+        maxTimestamp = Math.max(maxTimestamp, timestampMillis);
+    }
+
+    void encodeTo(GorillaEncoder encoder) {
+        for (int i = 0; i < size; i++) {
+            encoder.add(columns.getLong(i * Long.BYTES),
+                    columns.getInt(networkOffset + i * Integer.BYTES),
+                    columns.getDouble(latencyOffset + i * Double.BYTES),
+                    columns.getDouble(throughputOffset + i * Double.BYTES),
+                    columns.getDouble(errorRateOffset + i * Double.BYTES));
+        }
+    }
+
+    /**
+     * Visits those of the first count samples with fromMillis <= timestamp < toMillis
+     * @return number of samples visited
+     */
+    int scan(int nodeId, int count, long fromMillis, long toMillis, SampleVisitor visitor) {
+        int visited = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = columns.getLong(i * Long.BYTES);
+            if (timestamp < fromMillis || timestamp >= toMillis) {
+                continue;
+            }
+            visitor.visit(nodeId,
+                    columns.getInt(networkOffset + i * Integer.BYTES),
+                    timestamp,
+                    columns.getDouble(latencyOffset + i * Double.BYTES),
+                    columns.getDouble(throughputOffset + i * Double.BYTES),
+                    columns.getDouble(errorRateOffset + i * Double.BYTES));
+            visited++;
+        }
+        return visited;
+    }
+}
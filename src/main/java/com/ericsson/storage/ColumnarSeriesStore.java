@@ -0,0 +1,236 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.service.IngestListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded columnar store of raw samples for the retention period. Every node has one off-heap
+ * column chunk taking the newest samples; when it is full it is sealed into an immutable
+ * Gorilla-compressed block and replaced by a fresh chunk. Range scans hand primitives to a SampleVisitor, skip
+ * blocks outside the range by their min/max timestamp and decode the others as a stream.
+ *
+ * Filled at startup by the HistoryReplayer. Timestamps are epoch millis of the sample's LocalDateTime taken as UTC.
+ */
+@Component
+public class ColumnarSeriesStore implements IngestListener, ReplayTarget {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSeriesStore.class);
+
+    private final boolean enabled;
+    private final int chunkSamples;
+    private final long retentionMillis;
+
+    private final Map<Integer, NodeSeries> seriesByNode = new ConcurrentHashMap<>();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressedSamples = new AtomicLong();
+
+    // Samples ingested before the replay starts are part of the replayed history
+    private volatile boolean live;
+
+    public ColumnarSeriesStore(MeterRegistry meterRegistry,
+                               @Value("${storage.columnar.enabled:true}") boolean enabled,
+                               @Value("${storage.columnar.chunk-samples:4096}") int chunkSamples,
+                               @Value("${storage.columnar.retention-hours:24}") int retentionHours) {
+        this.enabled = enabled;
+        this.chunkSamples = chunkSamples;
+        this.retentionMillis = retentionHours * 3_600_000L;
+
+        Gauge.builder("storage.columnar.off.heap.bytes", seriesByNode,
+                        series -> (double) series.size() * chunkSamples * ColumnChunk.BYTES_PER_SAMPLE)
+                .description("Direct memory held by the open column chunks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("storage.columnar.compressed.bytes", compressedBytes, AtomicLong::get)
+                .description("Heap held by sealed compressed blocks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("storage.columnar.compressed.samples", compressedSamples, AtomicLong::get)
+                .description("Samples held in sealed compressed blocks")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    @Override
+    public Duration getReplayWindow() {
+        return enabled ? Duration.ofMillis(retentionMillis) : Duration.ZERO;
+    }
+
+    @Override
+    public void beginReplay() {
+        live = enabled;
+    }
+
+    @Override
+    public void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate) {
+        seriesByNode.computeIfAbsent(nodeId, NodeSeries::new)
+                .append(timestampMillis, networkId, latency, throughput, errorRate);
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!live) {
+            return;
+        }
+        stored.forEach(this::append);
+    }
+
+    public void append(PerformanceData data) {
+        if (data.getNodeId() == null || data.getNetworkId() == null || data.getTimestamp() == null
+                || data.getLatency() == null || data.getThroughput() == null || data.getErrorRate() == null) {
+            return;
+        }
+        visit(data.getNodeId(), data.getNetworkId(), toEpochMillis(data.getTimestamp()),
+                data.getLatency(), data.getThroughput(), data.getErrorRate());
+    }
+
+    /**
+     * Visits every sample with fromMillis <= timestamp < toMillis, node by node
+     * @return number of samples visited
+     */
+    public long scan(long fromMillis, long toMillis, SampleVisitor visitor) {
+        long visited = 0;
+        for (NodeSeries series : seriesByNode.values()) {
+            visited += series.scan(fromMillis, toMillis, visitor);
+        }
+        return visited;
+    }
+
+    /**
+     * Visits the samples of one node with fromMillis <= timestamp < toMillis
+     * @return number of samples visited
+     */
+    public long scanNode(int nodeId, long fromMillis, long toMillis, SampleVisitor visitor) {
+        NodeSeries series = seriesByNode.get(nodeId);
+        return series == null ? 0 : series.scan(fromMillis, toMillis, visitor);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.columnar.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = toEpochMillis(LocalDateTime.now()) - retentionMillis;
+        int evicted = 0;
+        for (NodeSeries series : seriesByNode.values()) {
+            evicted += series.evictOlderThan(cutoff);
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} expired compressed blocks", evicted);
+        }
+    }
+
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private final class NodeSeries {
+        private final int nodeId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<CompressedBlock> blocks = new ArrayList<>();
+        // Guarded by lock; replaced rather than reset, so scans can keep reading a sealed chunk
+        private ColumnChunk open = new ColumnChunk(chunkSamples);
+        private final GorillaEncoder encoder = new GorillaEncoder();
+
+        NodeSeries(int nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        void append(long timestampMillis, int networkId, double latency, double throughput, double errorRate) {
+            lock.writeLock().lock();
+            try {
+                if (open.isFull()) {
+                    open.encodeTo(encoder);
+                    CompressedBlock block = encoder.seal();
+                    blocks.add(block);
+                    compressedBytes.addAndGet(block.sizeInBytes());
+                    compressedSamples.addAndGet(block.count());
+                    open = new ColumnChunk(chunkSamples);
+                }
+                open.append(timestampMillis, networkId, latency, throughput, errorRate);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Oldest first: sealed blocks, then the open chunk. Only the overlapping blocks (immutable), the open
+        // chunk and its size are taken under the lock; the open chunk is then read in place up to that size,
+        // which appends never overwrite. A slow visitor, e.g. writing an export to the client, thus never
+        // holds up appends or eviction, and no sample is copied to the heap
+        long scan(long fromMillis, long toMillis, SampleVisitor visitor) {
+            List<CompressedBlock> overlapping = new ArrayList<>();
+            ColumnChunk openChunk = null;
+            int openCount = 0;
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < blocks.size(); i++) {
+                    CompressedBlock block = blocks.get(i);
+                    if (block.getMaxTimestamp() >= fromMillis && block.getMinTimestamp() < toMillis) {
+                        overlapping.add(block);
+                    }
+                }
+                if (open.size() > 0 && open.getMaxTimestamp() >= fromMillis && open.getMinTimestamp() < toMillis) {
+                    openChunk = open;
+                    openCount = open.size();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            long visited = 0;
+            GorillaDecoder decoder = overlapping.isEmpty() ? null : new GorillaDecoder();
+            for (CompressedBlock block : overlapping) {
+                decoder.reset(block);
+                while (decoder.next()) {
+                    long timestamp = decoder.timestamp();
+                    if (timestamp >= fromMillis && timestamp < toMillis) {
+                        visitor.visit(nodeId, decoder.networkId(), timestamp,
+                                decoder.latency(), decoder.throughput(), decoder.errorRate());
+                        visited++;
+                    }
+                }
+            }
+            return openChunk == null ? visited : visited + openChunk.scan(nodeId, openCount, fromMillis, toMillis, visitor);
+        }
+
+        // Only whole blocks are dropped, once their newest sample has expired
+        int evictOlderThan(long cutoffMillis) {
+            lock.writeLock().lock();
+            try {
+                int evicted = 0;
+                while (!blocks.isEmpty() && blocks.get(0).getMaxTimestamp() < cutoffMillis) {
+                    CompressedBlock block = blocks.remove(0);
+                    compressedBytes.addAndGet(-block.sizeInBytes());
+                    compressedSamples.addAndGet(-block.count());
+                    evicted++;
+                }
+                if (blocks.isEmpty() && open.size() > 0 && open.getMaxTimestamp() < cutoffMillis) {
+                    open = new ColumnChunk(chunkSamples);
+                }
+                return evicted;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
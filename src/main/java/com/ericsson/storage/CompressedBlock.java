@@ -0,0 +1,40 @@
+package com.ericsson.storage;
+
+/**
+ * Immutable Gorilla-encoded run of samples of one node, read with a GorillaDecoder
+ */
+final class CompressedBlock {
+
+    private final long[] words;
+    private final int count;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+
+    CompressedBlock(long[] words, int count, long minTimestamp, long maxTimestamp) {
+        this.words = words;
+        this.count = count;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    // Never handed out beyond the decoder, which only reads it
+    long[] words() {
+        return words;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ericsson.storage;
+
+/**
+ * Streams the samples of a CompressedBlock back out of the bit stream. Holds only primitive
+ * state, so one decoder can be reset onto block after block without allocating.
+ */
+final class GorillaDecoder {
+
+    private long[] words;
+    private long position;
+    private int remaining;
+    private boolean first;
+
+    private long timestamp;
+    private long delta;
+    private int networkId;
+    private final long[] values = new long[GorillaEncoder.METRICS];
+    private final int[] leading = new int[GorillaEncoder.METRICS];
+    private final int[] trailing = new int[GorillaEncoder.METRICS];
+
+    void reset(CompressedBlock block) {
+        words = block.words();
+        position = 0;
+        remaining = block.count();
+        first = true;
+    }
+
+    /**
+     * @return false once the block is exhausted
+     */
+    boolean next() {
+        if (remaining == 0) {
+            return false;
+        }
+        remaining--;
+        if (first) {
+            timestamp = readBits(64);
+            networkId = (int) readBits(32);
+            delta = 0;
+            for (int metric = 0; metric < GorillaEncoder.METRICS; metric++) {
+                values[metric] = readBits(64);
+                leading[metric] = -1;
+                trailing[metric] = 0;
+            }
+            first = false;
+            return true;
+        }
+        delta += readDeltaOfDelta();
+        timestamp += delta;
+        if (readBits(1) == 1) {
+            networkId = (int) readBits(32);
+        }
+        for (int metric = 0; metric < GorillaEncoder.METRICS; metric++) {
+            readValue(metric);
+        }
+        return true;
+    }
+
+    long timestamp() {
+        return timestamp;
+    }
+
+    int networkId() {
+        return networkId;
+    }
+
+    double latency() {
+        return Double.longBitsToDouble(values[0]);
+    }
+
+    double throughput() {
+        return Double.longBitsToDouble(values[1]);
+    }
+
+    double errorRate() {
+        return Double.longBitsToDouble(values[2]);
+    }
+
+    private long readDeltaOfDelta() {
+        if (readBits(1) == 0) {
+            return 0;
+        }
+        if (readBits(1) == 0) {
+            return readBits(7) - 63;
+        }
+        if (readBits(1) == 0) {
+            return readBits(9) - 255;
+        }
+        if (readBits(1) == 0) {
+            return readBits(12) - 2047;
+        }
+        return readBits(64);
+    }
+
+    private void readValue(int metric) {
+        if (readBits(1) == 0) {
+            return;
+        }
+        if (readBits(1) == 1) {
+            leading[metric] = (int) readBits(5);
+            int length = (int) readBits(6) + 1;
+            trailing[metric] = 64 - leading[metric] - length;
+        }
+        int length = 64 - leading[metric] - trailing[metric];
+        values[metric] ^= readBits(length) << trailing[metric];
+    }
+
+    private long readBits(int bits) {
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        int available = 64 - offset;
+        long value;
+        if (bits <= available) {
+            value = (words[word] << offset) >>> (64 - bits);
+        } else {
+            int rest = bits - available;
+            value = ((words[word] << offset) >>> offset) << rest | (words[word + 1] >>> (64 - rest));
+        }
+        position += bits;
+        return value;
+    }
+}
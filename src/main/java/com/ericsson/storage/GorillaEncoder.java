@@ -0,0 +1,147 @@
+package com.ericsson.storage;
+
+import java.util.Arrays;
+
+/**
+ * Gorilla-style encoder (Pelkonen et al., VLDB 2015) for the samples of one node.
+ *
+ * Timestamps are stored as delta-of-delta in variable-width buckets, the three metrics as the
+ * XOR with their previous value, reusing the previous window of meaningful bits when it fits.
+ * The network id costs one bit while it does not change. The first sample is stored raw.
+ * Reusable: seal() returns the block and starts a new one.
+ */
+final class GorillaEncoder {
+
+    static final int METRICS = 3;
+
+    private long[] words = new long[256];
+    private long bitCount;
+    private int count;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    private long previousTimestamp;
+    private long previousDelta;
+    private int previousNetworkId;
+    private final long[] previousValues = new long[METRICS];
+    private final int[] previousLeading = new int[METRICS];
+    private final int[] previousTrailing = new int[METRICS];
+
+    GorillaEncoder() {
+        clear();
+    }
+
+    int count() {
+        return count;
+    }
+
+    void add(long timestamp, int networkId, double latency, double throughput, double errorRate) {
+        if (count == 0) {
+            writeBits(timestamp, 64);
+            writeBits(networkId, 32);
+            previousDelta = 0;
+        } else {
+            long delta = timestamp - previousTimestamp;
+            writeDeltaOfDelta(delta - previousDelta);
+            previousDelta = delta;
+            if (networkId == previousNetworkId) {
+                writeBits(0, 1);
+            } else {
+                writeBits(1, 1);
+                writeBits(networkId, 32);
+            }
+        }
+        previousTimestamp = timestamp;
+        previousNetworkId = networkId;
+        writeValue(0, Double.doubleToRawLongBits(latency));
+        writeValue(1, Double.doubleToRawLongBits(throughput));
+        writeValue(2, Double.doubleToRawLongBits(errorRate));
+
+        count++;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    CompressedBlock seal() {
+        int usedWords = (int) ((bitCount + 63) >>> 6);
+        CompressedBlock block = new CompressedBlock(Arrays.copyOf(words, usedWords), count, minTimestamp, maxTimestamp);
+        clear();
+        return block;
+    }
+
+    private void clear() {
+        Arrays.fill(words, 0L);
+        bitCount = 0;
+        count = 0;
+        minTimestamp = Long.MAX_VALUE;
+        maxTimestamp = Long.MIN_VALUE;
+        Arrays.fill(previousValues, 0L);
+        Arrays.fill(previousLeading, -1);
+        Arrays.fill(previousTrailing, 0);
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+            writeBits(0b10, 2);
+            writeBits(deltaOfDelta + 63, 7);
+        } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+            writeBits(0b110, 3);
+            writeBits(deltaOfDelta + 255, 9);
+        } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+            writeBits(0b1110, 4);
+            writeBits(deltaOfDelta + 2047, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    private void writeValue(int metric, long bits) {
+        if (count == 0) {
+            writeBits(bits, 64);
+            previousValues[metric] = bits;
+            return;
+        }
+        long xor = bits ^ previousValues[metric];
+        previousValues[metric] = bits;
+        if (xor == 0) {
+            writeBits(0, 1);
+            return;
+        }
+        writeBits(1, 1);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (previousLeading[metric] >= 0 && leading >= previousLeading[metric] && trailing >= previousTrailing[metric]) {
+            writeBits(0, 1);
+            writeBits(xor >>> previousTrailing[metric], 64 - previousLeading[metric] - previousTrailing[metric]);
+        } else {
+            int length = 64 - leading - trailing;
+            writeBits(1, 1);
+            writeBits(leading, 5);
+            writeBits(length - 1, 6);
+            writeBits(xor >>> trailing, length);
+            previousLeading[metric] = leading;
+            previousTrailing[metric] = trailing;
+        }
+    }
+
+    // Bits are packed most significant first
+    private void writeBits(long value, int bits) {
+        int word = (int) (bitCount >>> 6);
+        if (word + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        long masked = bits == 64 ? value : value & ((1L << bits) - 1);
+        int free = 64 - (int) (bitCount & 63);
+        if (bits <= free) {
+            words[word] |= masked << (free - bits);
+        } else {
+            int overflow = bits - free;
+            words[word] |= masked >>> overflow;
+            words[word + 1] |= masked << (64 - overflow);
+        }
+        bitCount += bits;
+    }
+}
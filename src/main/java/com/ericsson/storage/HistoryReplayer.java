@@ -0,0 +1,120 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import com.ericsson.service.MetricsViewFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds all ReplayTargets at startup in a single pass over recent history.
+ *
+ * Reads the segment log when it reaches back far enough, and falls back to streaming the
+ * database otherwise, e.g. on the first start with the log enabled.
+ *
+ * The MetricsViewFeed only starts once the replay is done, where the replayed history ends, so
+ * replay and live samples never overlap.
+ */
+@Component
+public class HistoryReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryReplayer.class);
+
+    private final List<ReplayTarget> targets;
+    private final SegmentLog segmentLog;
+    private final PerformanceDataRepository repository;
+    private final MetricsViewFeed viewFeed;
+    private final Duration maxReplayWindow;
+
+    public HistoryReplayer(List<ReplayTarget> targets,
+                           SegmentLog segmentLog,
+                           PerformanceDataRepository repository,
+                           MetricsViewFeed viewFeed,
+                           @Value("${storage.segment-log.replay-hours:24}") int replayHours) {
+        this.targets = targets;
+        this.segmentLog = segmentLog;
+        this.repository = repository;
+        this.viewFeed = viewFeed;
+        this.maxReplayWindow = Duration.ofHours(replayHours);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void replay() throws IOException {
+        long nowMillis = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+        int count = targets.size();
+        long[] sinceMillis = new long[count];
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            Duration window = targets.get(i).getReplayWindow();
+            if (window.compareTo(maxReplayWindow) > 0) {
+                window = maxReplayWindow;
+            }
+            sinceMillis[i] = window.isZero() ? Long.MAX_VALUE : nowMillis - window.toMillis();
+            earliest = Math.min(earliest, sinceMillis[i]);
+        }
+        targets.forEach(ReplayTarget::beginReplay);
+        if (earliest == Long.MAX_VALUE) {
+            viewFeed.start(nowMillis);
+            return;
+        }
+
+        SampleVisitor dispatcher = (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+            for (int i = 0; i < count; i++) {
+                if (timestamp >= sinceMillis[i]) {
+                    targets.get(i).visit(nodeId, networkId, timestamp, latency, throughput, errorRate);
+                }
+            }
+            viewFeed.markReplayed(nodeId, timestamp);
+        };
+
+        long started = System.nanoTime();
+        long replayed;
+        String source;
+        OptionalLong oldest = segmentLog.isEnabled() ? segmentLog.getOldestTimestamp() : OptionalLong.empty();
+        if (oldest.isPresent() && oldest.getAsLong() <= earliest) {
+            source = "segment log";
+            replayed = segmentLog.replay(earliest, dispatcher);
+        } else {
+            source = "database";
+            replayed = replayFromDatabase(repository.streamSamplesSince(toLocalDateTime(earliest)), dispatcher);
+        }
+        viewFeed.start(earliest);
+        logger.info("Replayed {} samples from the {} into {} views in {} ms",
+                replayed, source, count, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private long replayFromDatabase(Stream<PerformanceData> stream, SampleVisitor visitor) {
+        long replayed = 0;
+        try (Stream<PerformanceData> samples = stream) {
+            for (PerformanceData data : (Iterable<PerformanceData>) samples::iterator) {
+                if (data.getNodeId() == null || data.getNetworkId() == null || data.getLatency() == null
+                        || data.getThroughput() == null || data.getErrorRate() == null) {
+                    continue;
+                }
+                visitor.visit(data.getNodeId(), data.getNetworkId(), ColumnarSeriesStore.toEpochMillis(data.getTimestamp()),
+                        data.getLatency(), data.getThroughput(), data.getErrorRate());
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ericsson.storage;
+
+import java.time.Duration;
+
+/**
+ * In-memory view rebuilt from recent history at startup by the HistoryReplayer.
+ *
+ * Replayed samples arrive through visit(); live ingest must be accepted from beginReplay() on,
+ * since anything ingested before that point is part of the replayed history.
+ */
+public interface ReplayTarget extends SampleVisitor {
+
+    /**
+     * @return how far back the view needs history, Duration.ZERO for none
+     */
+    Duration getReplayWindow();
+
+    void beginReplay();
+}
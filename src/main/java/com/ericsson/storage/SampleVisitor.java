@@ -0,0 +1,10 @@
+package com.ericsson.storage;
+
+/**
+ * Receives samples from a scan as primitives, so scanning does not allocate per sample
+ */
+@FunctionalInterface
+public interface SampleVisitor {
+
+    void visit(int nodeId, int networkId, long timestampMillis, double latency, double throughput, double errorRate);
+}
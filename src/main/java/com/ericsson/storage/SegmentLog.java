@@ -0,0 +1,376 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.service.IngestListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of ingested samples in memory-mapped segment files of fixed-size records.
+ *
+ * Record layout (48 bytes, big-endian): int crc32c of the remaining 44 bytes, int nodeId,
+ * int networkId, int flags (non-zero once written), long timestamp millis, then latency,
+ * throughput and error rate as doubles. Segments are preallocated, so the first record with
+ * zero flags marks the end of the data; a torn record fails its CRC and is skipped on replay.
+ * When a segment is sealed, the newest timestamp among its records is written next to it
+ * (NNN.max), so retention and replay can judge the segment without reading it.
+ *
+ * Writes land in the page cache right away and are forced to disk every flush interval, which
+ * protects against process crashes but may lose the last interval on a power failure.
+ */
+@Component
+public class SegmentLog implements IngestListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentLog.class);
+
+    static final int RECORD_SIZE = 48;
+    private static final int CRC_OFFSET = 0;
+    private static final int NODE_OFFSET = 4;
+    private static final int NETWORK_OFFSET = 8;
+    private static final int FLAGS_OFFSET = 12;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int LATENCY_OFFSET = 24;
+    private static final int THROUGHPUT_OFFSET = 32;
+    private static final int ERROR_RATE_OFFSET = 40;
+    private static final int FLAG_WRITTEN = 1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String MAX_TIMESTAMP_SUFFIX = ".max";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long retentionMillis;
+    private final Counter appendedCounter;
+    private final Counter corruptCounter;
+
+    // Guarded by this
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer active;
+    private ByteBuffer activeView;
+    private long activeSequence;
+    private int writeIndex;
+    private long activeMaxTimestamp;
+
+    public SegmentLog(MeterRegistry meterRegistry,
+                      @Value("${storage.segment-log.enabled:true}") boolean enabled,
+                      @Value("${storage.segment-log.directory:data/segment-log}") String directory,
+                      @Value("${storage.segment-log.records-per-segment:1048576}") int recordsPerSegment,
+                      @Value("${storage.segment-log.retention-hours:48}") int retentionHours) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        this.retentionMillis = retentionHours * 3_600_000L;
+        this.appendedCounter = Counter.builder("storage.segment.log.appended")
+                .description("Samples appended to the segment log")
+                .register(meterRegistry);
+        this.corruptCounter = Counter.builder("storage.segment.log.corrupt")
+                .description("Records skipped on replay because their CRC did not match")
+                .register(meterRegistry);
+        if (enabled) {
+            open();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Long> sequences = listSegments();
+            if (sequences.isEmpty()) {
+                mapSegment(0);
+                return;
+            }
+            mapSegment(sequences.get(sequences.size() - 1));
+            while (writeIndex < recordsPerSegment && active.getInt(writeIndex * RECORD_SIZE + FLAGS_OFFSET) != 0) {
+                int offset = writeIndex * RECORD_SIZE;
+                if (active.getInt(offset + CRC_OFFSET) == checksum(activeView, offset)) {
+                    activeMaxTimestamp = Math.max(activeMaxTimestamp, active.getLong(offset + TIMESTAMP_OFFSET));
+                }
+                writeIndex++;
+            }
+            logger.info("Opened segment log {} with {} segments, resuming segment {} at record {}",
+                    directory.toAbsolutePath(), sequences.size(), activeSequence, writeIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segment log in " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public void onIngested(List<PerformanceData> stored) {
+        if (!enabled) {
+            return;
+        }
+        for (PerformanceData data : stored) {
+            append(data);
+        }
+    }
+
+    public synchronized void append(PerformanceData data) {
+        if (data.getNodeId() == null || data.getNetworkId() == null || data.getTimestamp() == null
+                || data.getLatency() == null || data.getThroughput() == null || data.getErrorRate() == null) {
+            return;
+        }
+        if (writeIndex == recordsPerSegment) {
+            roll();
+        }
+        int offset = writeIndex * RECORD_SIZE;
+        long timestamp = ColumnarSeriesStore.toEpochMillis(data.getTimestamp());
+        active.putInt(offset + NODE_OFFSET, data.getNodeId());
+        active.putInt(offset + NETWORK_OFFSET, data.getNetworkId());
+        active.putInt(offset + FLAGS_OFFSET, FLAG_WRITTEN);
+        active.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        active.putDouble(offset + LATENCY_OFFSET, data.getLatency());
+        active.putDouble(offset + THROUGHPUT_OFFSET, data.getThroughput());
+        active.putDouble(offset + ERROR_RATE_OFFSET, data.getErrorRate());
+        active.putInt(offset + CRC_OFFSET, checksum(activeView, offset));
+        writeIndex++;
+        activeMaxTimestamp = Math.max(activeMaxTimestamp, timestamp);
+        appendedCounter.increment();
+    }
+
+    private void roll() {
+        active.force();
+        try {
+            writeMaxTimestamp(activeSequence, activeMaxTimestamp);
+            mapSegment(activeSequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create segment " + (activeSequence + 1), e);
+        }
+        logger.debug("Rolled segment log to segment {}", activeSequence);
+    }
+
+    private void mapSegment(long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+        activeView = active.duplicate();
+        activeSequence = sequence;
+        writeIndex = 0;
+        activeMaxTimestamp = Long.MIN_VALUE;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.segment-log.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * @return position of the next record to be appended
+     */
+    public synchronized Position endPosition() {
+        return new Position(activeSequence, writeIndex);
+    }
+
+    /**
+     * Visits all intact records with a timestamp at or after sinceMillis, oldest segment first.
+     * Records appended after the call started are not visited.
+     * @return number of records visited
+     */
+    public long replay(long sinceMillis, SampleVisitor visitor) throws IOException {
+        return replay(sinceMillis, endPosition(), visitor);
+    }
+
+    /**
+     * Visits all intact records before the end position with a timestamp at or after sinceMillis
+     * @return number of records visited
+     */
+    public long replay(long sinceMillis, Position end, SampleVisitor visitor) throws IOException {
+        long endSequence = end.sequence();
+        int endIndex = end.index();
+        CRC32C replayCrc = new CRC32C();
+        long visited = 0;
+        for (long sequence : listSegments()) {
+            if (sequence > endSequence) {
+                break;
+            }
+            // a sealed segment without records at or after the cutoff is not replayed
+            if (sequence < endSequence && maxTimestamp(sequence) < sinceMillis) {
+                continue;
+            }
+            int limit = sequence == endSequence ? endIndex : recordsPerSegment;
+            visited += replaySegment(segmentPath(sequence), limit, sinceMillis, visitor, replayCrc);
+        }
+        return visited;
+    }
+
+    private long replaySegment(Path path, int limit, long sinceMillis, SampleVisitor visitor, CRC32C replayCrc) throws IOException {
+        ByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), (long) limit * RECORD_SIZE));
+        }
+        ByteBuffer view = segment.duplicate();
+        int records = segment.capacity() / RECORD_SIZE;
+        long visited = 0;
+        for (int i = 0; i < records; i++) {
+            int offset = i * RECORD_SIZE;
+            if (segment.getInt(offset + FLAGS_OFFSET) == 0) {
+                break;
+            }
+            if (segment.getInt(offset + CRC_OFFSET) != checksum(view, offset, replayCrc)) {
+                corruptCounter.increment();
+                continue;
+            }
+            long timestamp = segment.getLong(offset + TIMESTAMP_OFFSET);
+            if (timestamp < sinceMillis) {
+                continue;
+            }
+            visitor.visit(segment.getInt(offset + NODE_OFFSET), segment.getInt(offset + NETWORK_OFFSET), timestamp,
+                    segment.getDouble(offset + LATENCY_OFFSET), segment.getDouble(offset + THROUGHPUT_OFFSET),
+                    segment.getDouble(offset + ERROR_RATE_OFFSET));
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * @return timestamp of the first record in the log, if it is intact
+     */
+    public OptionalLong getOldestTimestamp() throws IOException {
+        List<Long> sequences = listSegments();
+        if (sequences.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(sequences.get(0)), StandardOpenOption.READ)) {
+            long first = recordTimestamp(channel, 0);
+            return first == Long.MAX_VALUE ? OptionalLong.empty() : OptionalLong.of(first);
+        }
+    }
+
+    /**
+     * Newest timestamp among the intact records of a sealed segment, on the same clock as the records;
+     * Long.MIN_VALUE if it has none. Read from the file written on seal, or found by a scan of the
+     * segment if that is missing, e.g. after a crash right at the seal.
+     */
+    private long maxTimestamp(long sequence) throws IOException {
+        Path path = maxTimestampPath(sequence);
+        if (Files.exists(path) && Files.size(path) == Long.BYTES) {
+            return ByteBuffer.wrap(Files.readAllBytes(path)).getLong();
+        }
+        long max = Long.MIN_VALUE;
+        try (FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.READ)) {
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer view = segment.duplicate();
+            CRC32C scanCrc = new CRC32C();
+            for (int offset = 0; offset + RECORD_SIZE <= segment.capacity(); offset += RECORD_SIZE) {
+                if (segment.getInt(offset + FLAGS_OFFSET) == 0) {
+                    break;
+                }
+                if (segment.getInt(offset + CRC_OFFSET) == checksum(view, offset, scanCrc)) {
+                    max = Math.max(max, segment.getLong(offset + TIMESTAMP_OFFSET));
+                }
+            }
+        }
+        writeMaxTimestamp(sequence, max);
+        return max;
+    }
+
+    private void writeMaxTimestamp(long sequence, long maxTimestamp) throws IOException {
+        Path path = maxTimestampPath(sequence);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        Files.write(temporary, ByteBuffer.allocate(Long.BYTES).putLong(maxTimestamp).array());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private long recordTimestamp(FileChannel channel, int index) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        if (channel.read(record, (long) index * RECORD_SIZE) < RECORD_SIZE || record.getInt(FLAGS_OFFSET) == 0
+                || record.getInt(CRC_OFFSET) != checksum(record, 0, new CRC32C())) {
+            return Long.MAX_VALUE;
+        }
+        return record.getLong(TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Deletes sealed segments whose samples are all older than the retention period, judged by
+     * the record timestamps rather than file times, which are on a different clock
+     */
+    @Scheduled(fixedDelayString = "${storage.segment-log.retention-check-interval-ms:600000}")
+    public void deleteExpiredSegments() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now()) - retentionMillis;
+        long current;
+        synchronized (this) {
+            current = activeSequence;
+        }
+        try {
+            for (long sequence : listSegments()) {
+                if (sequence < current && maxTimestamp(sequence) < cutoff) {
+                    Path path = segmentPath(sequence);
+                    Files.delete(path);
+                    Files.deleteIfExists(maxTimestampPath(sequence));
+                    logger.info("Deleted expired segment {}", path.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete expired segments: {}", e.getMessage());
+        }
+    }
+
+    private int checksum(ByteBuffer view, int offset) {
+        return checksum(view, offset, crc);
+    }
+
+    private static int checksum(ByteBuffer view, int offset, CRC32C crc) {
+        crc.reset();
+        view.limit(offset + RECORD_SIZE).position(offset + NODE_OFFSET);
+        crc.update(view);
+        view.clear();
+        return (int) crc.getValue();
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private Path maxTimestampPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, MAX_TIMESTAMP_SUFFIX));
+    }
+
+    public record Position(long sequence, int index) {
+    }
+}
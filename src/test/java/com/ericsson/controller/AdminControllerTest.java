@@ -0,0 +1,91 @@
+package com.ericsson.controller;
+
+import com.ericsson.exception.DeadLetterReplayException;
+import com.ericsson.service.DeadLetterService;
+import com.ericsson.service.ThresholdRuleService;
+import com.ericsson.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminController.class)
+class AdminControllerTest {
+
+    // @PreAuthorize needs method security, which lives in the full SecurityConfig
+    @TestConfiguration
+    @EnableMethodSecurity
+    static class MethodSecurityConfig {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private DeadLetterService deadLetterService;
+
+    @MockitoBean
+    private ThresholdRuleService thresholdRuleService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLettersAsAdmin() throws Exception {
+        Mockito.when(deadLetterService.replay(500)).thenReturn(42);
+
+        mockMvc.perform(post("/api/performance/dlt/replay").param("maxRecords", "500").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayed").value(42))
+                .andExpect(jsonPath("$.message").value("Replayed 42 dead-letter records"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLettersDefaultsToAThousandRecords() throws Exception {
+        mockMvc.perform(post("/api/performance/dlt/replay").with(csrf()))
+                .andExpect(status().isOk());
+
+        Mockito.verify(deadLetterService).replay(1000);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLettersRejectsMaxRecordsOutOfRange() throws Exception {
+        mockMvc.perform(post("/api/performance/dlt/replay").param("maxRecords", "0").with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+        mockMvc.perform(post("/api/performance/dlt/replay").param("maxRecords", "100001").with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(deadLetterService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ENGINEER")
+    void replayDeadLettersIsAdminOnly() throws Exception {
+        mockMvc.perform(post("/api/performance/dlt/replay").with(csrf()))
+                .andExpect(status().isForbidden());
+
+        Mockito.verifyNoInteractions(deadLetterService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replayDeadLettersFailureIsNotSwallowed() {
+        Mockito.when(deadLetterService.replay(1000)).thenThrow(new DeadLetterReplayException("DLT replay failed after 0 records"));
+
+        assertThrows(Exception.class, () -> mockMvc.perform(post("/api/performance/dlt/replay").with(csrf())));
+    }
+}
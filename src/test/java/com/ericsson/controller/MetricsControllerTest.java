@@ -1,7 +1,10 @@
 package com.ericsson.controller;
 
+import com.ericsson.dto.NodeStatusDto;
 import com.ericsson.model.PerformanceData;
+import com.ericsson.model.RollupScope;
 import com.ericsson.service.MetricsService;
+import com.ericsson.service.SampleHistoryService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,13 +13,18 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +38,9 @@ class MetricsControllerTest {
     @MockitoBean
     private MetricsService metricsService;
 
+    @MockitoBean
+    private SampleHistoryService historyService;
+
     private PerformanceData createTestData() {
         PerformanceData data = new PerformanceData();
         data.setNodeId(1);
@@ -73,19 +84,52 @@ class MetricsControllerTest {
 
     @Test
     void testGetAnomalyAlerts() throws Exception {
-        PerformanceData alertData = createTestData();
+        NodeStatusDto alertData = new NodeStatusDto(createTestData(), "warning", 4.2, true);
         Mockito.when(metricsService.detectAnomalies()).thenReturn(Collections.singletonList(alertData));
 
         mockMvc.perform(get("/api/metrics/alerts"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].nodeId").value(1));
+                .andExpect(jsonPath("$[0].nodeId").value(1))
+                .andExpect(jsonPath("$[0].status").value("warning"))
+                .andExpect(jsonPath("$[0].anomalyScore").value(4.2))
+                .andExpect(jsonPath("$[0].deviating").value(true));
+    }
+
+    @Test
+    void testGetBaselineDeviations() throws Exception {
+        NodeStatusDto deviation = new NodeStatusDto(createTestData(), "healthy", 5.1, true);
+        Mockito.when(metricsService.detectDeviations()).thenReturn(List.of(deviation));
+
+        mockMvc.perform(get("/api/metrics/alerts/deviations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("healthy"))
+                .andExpect(jsonPath("$[0].anomalyScore").value(5.1));
+    }
+
+    @Test
+    void testGetAlertTransitions() throws Exception {
+        Mockito.when(metricsService.getAlertTransitions(12L, 50))
+                .thenReturn(Map.of("transitions", List.of(), "nextSequence", 12L, "missed", false));
+
+        mockMvc.perform(get("/api/metrics/alerts/transitions")
+                        .param("afterSequence", "12")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextSequence").value(12))
+                .andExpect(jsonPath("$.transitions").isEmpty());
+
+        Mockito.when(metricsService.getAlertTransitions(0L, 0))
+                .thenThrow(new IllegalArgumentException("'limit' must be between 1 and 10000"));
+
+        mockMvc.perform(get("/api/metrics/alerts/transitions").param("limit", "0"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void testGetNodesByHealthStatus() throws Exception {
-        PerformanceData healthy = createTestData();
-        Map<String, List<PerformanceData>> healthGroups = Map.of(
+        NodeStatusDto healthy = new NodeStatusDto(createTestData(), "healthy", 0.5, false);
+        Map<String, List<NodeStatusDto>> healthGroups = Map.of(
                 "healthy", Collections.singletonList(healthy),
                 "critical", Collections.emptyList(),
                 "warning", Collections.emptyList()
@@ -97,6 +141,7 @@ class MetricsControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.healthy[0].nodeId").value(1))
+                .andExpect(jsonPath("$.healthy[0].anomalyScore").value(0.5))
                 .andExpect(jsonPath("$.critical").isEmpty())
                 .andExpect(jsonPath("$.warning").isEmpty());
     }
@@ -126,6 +171,116 @@ class MetricsControllerTest {
                 .andExpect(jsonPath("$.sampleSize").value(50));
     }
 
+    @Test
+    void testGetSummaryBetween() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LocalDateTime to = from.plusMinutes(10);
+        Mockito.when(metricsService.getKpiSummaryBetween(from, to)).thenReturn(Map.of("sampleSize", 12L));
 
-}
+        mockMvc.perform(get("/api/metrics/summary/range")
+                        .param("from", "2025-06-01T10:00:00")
+                        .param("to", "2025-06-01T10:10:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleSize").value(12));
 
+        mockMvc.perform(get("/api/metrics/summary/range").param("from", "2025-06-01T10:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportSamples() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(3);
+            writer.write("nodeId,networkId,timestamp,latency,throughput,errorRate\n");
+            return null;
+        }).when(metricsService).exportSamples(Mockito.any(), Mockito.any(), Mockito.eq(5), Mockito.any());
+
+        MvcResult result = mockMvc.perform(get("/api/metrics/export")
+                        .param("from", "2025-06-01T10:00:00")
+                        .param("to", "2025-06-01T11:00:00")
+                        .param("nodeId", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string("nodeId,networkId,timestamp,latency,throughput,errorRate\n"));
+    }
+
+    @Test
+    void testExportSamplesOutsideRetention() throws Exception {
+        Mockito.doThrow(new IllegalArgumentException("'from' is outside the retained history"))
+                .when(metricsService).validateRetainedRange(Mockito.any(), Mockito.any());
+
+        MvcResult result = mockMvc.perform(get("/api/metrics/export")
+                        .param("from", "2020-06-01T10:00:00")
+                        .param("to", "2020-06-01T11:00:00"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("'from' is outside the retained history"));
+    }
+
+    @Test
+    void testGetHistory() throws Exception {
+        LocalDateTime after = LocalDateTime.of(2025, 6, 1, 10, 0);
+        Mockito.when(historyService.resolvePageSize(50, null, null, after, 7L)).thenReturn(50);
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(7);
+            out.write("{\"items\":[],\"next\":null}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(historyService).writePage(Mockito.eq(3), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                Mockito.eq(after), Mockito.eq(7L), Mockito.eq(50), Mockito.any());
+
+        MvcResult result = mockMvc.perform(get("/api/metrics/history")
+                        .param("nodeId", "3")
+                        .param("afterTimestamp", "2025-06-01T10:00:00")
+                        .param("afterId", "7")
+                        .param("limit", "50"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void testGetHistoryWithInvalidCursor() throws Exception {
+        Mockito.when(historyService.resolvePageSize(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenThrow(new IllegalArgumentException("'afterTimestamp' and 'afterId' must be given together"));
+
+        MvcResult result = mockMvc.perform(get("/api/metrics/history").param("afterId", "7"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("'afterTimestamp' and 'afterId' must be given together"));
+    }
+
+    @Test
+    void testGetHistogram() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LocalDateTime to = from.plusHours(1);
+        Mockito.when(metricsService.getBucketedSummary(from, to, 300, RollupScope.NODE, 4))
+                .thenReturn(Map.of("resolution", "5m", "series", List.of()));
+
+        mockMvc.perform(get("/api/metrics/histogram")
+                        .param("from", "2025-06-01T10:00:00")
+                        .param("to", "2025-06-01T11:00:00")
+                        .param("bucketSeconds", "300")
+                        .param("scope", "node")
+                        .param("id", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("5m"));
+
+        mockMvc.perform(get("/api/metrics/histogram")
+                        .param("from", "2025-06-01T10:00:00")
+                        .param("to", "2025-06-01T11:00:00")
+                        .param("bucketSeconds", "300")
+                        .param("scope", "cluster"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,6 +1,8 @@
 package com.ericsson.controller;
 
+import com.ericsson.dto.BulkPublishResultDto;
 import com.ericsson.model.PerformanceData;
+import com.ericsson.service.BulkPublishService;
 import com.ericsson.service.NetworkPerformancePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +24,9 @@ class PerformanceDataControllerTest {
     @Mock
     private NetworkPerformancePublisher publisher;
 
+    @Mock
+    private BulkPublishService bulkPublishService;
+
     @InjectMocks
     private PerformanceDataController controller;
 
@@ -44,7 +49,34 @@ class PerformanceDataControllerTest {
 
         Mockito.verify(publisher).sendPerformanceData(Mockito.any(PerformanceData.class));
     }
-}
 
+    @Test
+    void testPublishPerformanceDataBulk() throws Exception {
+        BulkPublishResultDto result = new BulkPublishResultDto();
+        result.setAccepted(2);
+        result.setRejected(1);
+        Mockito.when(bulkPublishService.publish(Mockito.any())).thenReturn(result);
 
+        mockMvc.perform(post("/api/performance/publish/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
 
+    @Test
+    void testPublishPerformanceDataBulkMalformed() throws Exception {
+        BulkPublishResultDto result = new BulkPublishResultDto();
+        result.setAccepted(1);
+        result.setError("Malformed input after 1 records");
+        Mockito.when(bulkPublishService.publish(Mockito.any())).thenReturn(result);
+
+        mockMvc.perform(post("/api/performance/publish/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{}, {"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.error").exists());
+    }
+}
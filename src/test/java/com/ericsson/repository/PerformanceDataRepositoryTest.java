@@ -0,0 +1,123 @@
+package com.ericsson.repository;
+
+import com.ericsson.dto.MetricAggregateDto;
+import com.ericsson.model.PerformanceData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class PerformanceDataRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private PerformanceDataRepository repository;
+
+    @Test
+    void aggregatesPerNodeAndNetworkInTheDatabase() {
+        repository.saveAll(List.of(
+                new PerformanceData(1, 10, 10.0, 100.0, 1.0, START),
+                new PerformanceData(1, 10, 30.0, 80.0, 3.0, START.plusSeconds(30)),
+                new PerformanceData(2, 10, 50.0, 60.0, 0.5, START.plusSeconds(45)),
+                new PerformanceData(3, 20, 70.0, 40.0, 2.0, START.plusMinutes(2)),
+                new PerformanceData(3, 20, 99.0, 99.0, 9.0, START.plusMinutes(5))));
+
+        MetricAggregateDto all = repository.aggregateBetween(START, START.plusMinutes(5));
+        assertEquals(4, all.getCount());
+        assertEquals(40.0, all.getAvgLatency());
+        assertEquals(40.0, all.getMinThroughput());
+        assertEquals(3.0, all.getMaxErrorRate());
+
+        List<MetricAggregateDto> perNode = repository.aggregatePerNodeBetween(START, START.plusMinutes(5));
+        assertEquals(List.of(1, 2, 3), perNode.stream().map(MetricAggregateDto::getScopeId).toList());
+        assertEquals(20.0, perNode.get(0).getAvgLatency());
+        assertEquals(2, perNode.get(0).getCount());
+
+        List<MetricAggregateDto> perNetwork = repository.aggregatePerNetworkBetween(START, START.plusMinutes(5));
+        assertEquals(2, perNetwork.size());
+        assertEquals(3, perNetwork.get(0).getCount());
+        assertEquals(70.0, perNetwork.get(1).getMaxLatency());
+    }
+
+    @Test
+    void groupsSamplesIntoTimeBucketsFromTheStartOfTheRange() {
+        repository.saveAll(List.of(
+                new PerformanceData(1, 10, 10.0, 100.0, 1.0, START.plusSeconds(5)),
+                new PerformanceData(1, 10, 30.0, 80.0, 3.0, START.plusSeconds(59)),
+                new PerformanceData(2, 10, 50.0, 60.0, 0.5, START.plusSeconds(60)),
+                new PerformanceData(1, 10, 70.0, 40.0, 2.0, START.plusMinutes(3).plusSeconds(10))));
+
+        List<MetricAggregateDto> node = repository.aggregateNodeBuckets(1, START, START.plusMinutes(4), 60);
+        assertEquals(List.of(0L, 3L), node.stream().map(MetricAggregateDto::getBucketIndex).toList());
+        assertEquals(20.0, node.get(0).getAvgLatency());
+
+        List<MetricAggregateDto> network = repository.aggregateNetworkBuckets(10, START, START.plusMinutes(4), 120);
+        assertEquals(List.of(0L, 1L), network.stream().map(MetricAggregateDto::getBucketIndex).toList());
+        assertEquals(3, network.get(0).getCount());
+
+        List<MetricAggregateDto> perNode = repository.aggregateBucketsPerNode(START, START.plusMinutes(4), 60);
+        assertEquals(List.of(1, 1, 2), perNode.stream().map(MetricAggregateDto::getScopeId).toList());
+        assertEquals(List.of(0L, 3L, 1L), perNode.stream().map(MetricAggregateDto::getBucketIndex).toList());
+        assertEquals(1, repository.aggregateBucketsPerNetwork(START, START.plusMinutes(4), 240).size());
+    }
+
+    @Test
+    void findsTheLatestSamplePerNode() {
+        repository.saveAll(List.of(
+                new PerformanceData(1, 10, 10.0, 100.0, 1.0, START),
+                new PerformanceData(1, 10, 30.0, 80.0, 3.0, START.plusSeconds(30)),
+                new PerformanceData(2, 10, 50.0, 60.0, 0.5, START.plusSeconds(5)),
+                // another node's latest timestamp must not select this older sample
+                new PerformanceData(2, 10, 70.0, 60.0, 0.5, START.plusSeconds(30)),
+                new PerformanceData(2, 10, 90.0, 60.0, 0.5, START.plusSeconds(40)),
+                new PerformanceData(3, 20, 20.0, 60.0, 0.5, START.plusSeconds(5))));
+
+        List<PerformanceData> latest = repository.findLatestPerNode();
+
+        assertEquals(List.of(1, 2, 3), latest.stream().map(PerformanceData::getNodeId).sorted().toList());
+        assertEquals(30.0, latest.stream().filter(p -> p.getNodeId() == 1).findFirst().orElseThrow().getLatency());
+        assertEquals(90.0, latest.stream().filter(p -> p.getNodeId() == 2).findFirst().orElseThrow().getLatency());
+        assertEquals(20.0, latest.stream().filter(p -> p.getNodeId() == 3).findFirst().orElseThrow().getLatency());
+    }
+
+    @Test
+    void pagesThroughHistoryByTimestampAndId() {
+        repository.saveAll(List.of(
+                new PerformanceData(1, 10, 10.0, 100.0, 1.0, START),
+                new PerformanceData(2, 10, 20.0, 100.0, 1.0, START),
+                new PerformanceData(3, 20, 30.0, 100.0, 1.0, START),
+                new PerformanceData(1, 10, 40.0, 100.0, 1.0, START.plusSeconds(10)),
+                new PerformanceData(1, 10, 50.0, 100.0, 1.0, START.plusSeconds(20))));
+
+        List<PerformanceData> first = repository.streamHistory(null, null, START, null, null, null, 2).toList();
+        assertEquals(List.of(10.0, 20.0), first.stream().map(PerformanceData::getLatency).toList());
+
+        PerformanceData last = first.get(1);
+        List<PerformanceData> second = repository.streamHistory(null, null, START, null,
+                last.getTimestamp(), last.getId(), 2).toList();
+        assertEquals(List.of(30.0, 40.0), second.stream().map(PerformanceData::getLatency).toList());
+
+        List<PerformanceData> node = repository.streamHistory(1, 10, START, START.plusSeconds(20), null, null, 10).toList();
+        assertEquals(List.of(10.0, 40.0), node.stream().map(PerformanceData::getLatency).toList());
+    }
+
+    @Test
+    void findsExpiredIdsOldestFirst() {
+        List<PerformanceData> saved = repository.saveAll(List.of(
+                new PerformanceData(1, 10, 10.0, 100.0, 1.0, START.plusMinutes(2)),
+                new PerformanceData(2, 10, 20.0, 100.0, 1.0, START),
+                new PerformanceData(3, 20, 30.0, 100.0, 1.0, START.plusMinutes(1)),
+                new PerformanceData(1, 10, 40.0, 100.0, 1.0, START.plusHours(1))));
+
+        List<Long> ids = repository.findIdsOlderThan(START.plusHours(1), Limit.of(2));
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(2).getId()), ids);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ericsson.repository;
+
+import com.ericsson.model.PerformanceRollup;
+import com.ericsson.model.RollupScope;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the upsert is MySQL syntax, so the database runs in MySQL mode like the h2 profile
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:rollups;MODE=MYSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PerformanceRollupRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private PerformanceRollupRepository repository;
+
+    @Test
+    void upsertReplacesTheRowOfTheSameBucket() {
+        repository.upsertAll(List.of(rollup(1, START, 10, 2), rollup(2, START, 10, 1)));
+        repository.upsertAll(List.of(rollup(1, START, null, 5), rollup(1, START.plusMinutes(1), 10, 1)));
+
+        List<PerformanceRollup> stored = repository.findByResolutionSecondsAndScopeAndBucketStartGreaterThanEqual(
+                60, RollupScope.NODE, START);
+        assertEquals(3, stored.size());
+        PerformanceRollup updated = stored.stream()
+                .filter(rollup -> rollup.getScopeId() == 1 && rollup.getBucketStart().equals(START))
+                .findFirst().orElseThrow();
+        assertEquals(5, updated.getSampleCount());
+        assertEquals(50.0, updated.getLatencySum());
+        // a missing network does not clear the stored one
+        assertEquals(10, updated.getNetworkId());
+    }
+
+    private static PerformanceRollup rollup(int nodeId, LocalDateTime bucketStart, Integer networkId, long count) {
+        PerformanceRollup rollup = new PerformanceRollup(60, RollupScope.NODE, nodeId, bucketStart);
+        rollup.setNetworkId(networkId);
+        rollup.setSampleCount(count);
+        rollup.setLatencySum(count * 10.0);
+        rollup.setLatencyMin(10.0);
+        rollup.setLatencyMax(10.0);
+        return rollup;
+    }
+}
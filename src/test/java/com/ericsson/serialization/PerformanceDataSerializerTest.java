@@ -0,0 +1,69 @@
+package com.ericsson.serialization;
+
+import com.ericsson.model.PerformanceData;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceDataSerializerTest {
+
+    private final PerformanceDataSerializer serializer = new PerformanceDataSerializer();
+    private final PerformanceDataDeserializer deserializer = new PerformanceDataDeserializer();
+
+    @Test
+    void testBinaryRoundTrip() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 6, 1, 10, 15, 30, 123_000_000);
+        PerformanceData data = new PerformanceData(101, 201, 25.5, 98.75, 0.125, timestamp);
+
+        byte[] bytes = serializer.serialize("network-performance", data);
+        assertEquals(PerformanceDataSerializer.RECORD_SIZE, bytes.length);
+
+        PerformanceData decoded = deserializer.deserialize("network-performance", bytes);
+        assertEquals(101, decoded.getNodeId());
+        assertEquals(201, decoded.getNetworkId());
+        assertEquals(25.5, decoded.getLatency());
+        assertEquals(98.75, decoded.getThroughput());
+        assertEquals(0.125, decoded.getErrorRate());
+        assertEquals(timestamp, decoded.getTimestamp());
+    }
+
+    @Test
+    void testBinaryRoundTripKeepsNulls() {
+        PerformanceData data = new PerformanceData();
+        data.setNodeId(105);
+
+        PerformanceData decoded = deserializer.deserialize("network-performance",
+                serializer.serialize("network-performance", data));
+
+        assertEquals(105, decoded.getNodeId());
+        assertNull(decoded.getNetworkId());
+        assertNull(decoded.getLatency());
+        assertNull(decoded.getTimestamp());
+    }
+
+    @Test
+    void testReadsLegacyJson() {
+        PerformanceData data = new PerformanceData(1, 2, 25.0, 100.0, 0.5, LocalDateTime.of(2025, 6, 1, 10, 15, 30));
+        try (JsonSerializer<PerformanceData> jsonSerializer = new JsonSerializer<>()) {
+            byte[] json = jsonSerializer.serialize("network-performance", data);
+
+            PerformanceData decoded = deserializer.deserialize("network-performance", json);
+            assertEquals(1, decoded.getNodeId());
+            assertEquals(25.0, decoded.getLatency());
+            assertEquals(data.getTimestamp(), decoded.getTimestamp());
+        }
+    }
+
+    @Test
+    void testRejectsUnknownVersion() {
+        byte[] bytes = serializer.serialize("network-performance",
+                new PerformanceData(1, 2, 25.0, 100.0, 0.5, LocalDateTime.now()));
+        bytes[1] = 99;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("network-performance", bytes));
+    }
+}
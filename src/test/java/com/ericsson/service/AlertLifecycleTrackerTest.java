@@ -0,0 +1,145 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.AlertDto;
+import com.ericsson.dto.AlertTransitionDto;
+import com.ericsson.model.AlertCondition;
+import com.ericsson.model.AlertState;
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertLifecycleTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private AlertLifecycleTracker tracker;
+    private LatestMetricsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // Latency threshold 100 ms, clear below 90 ms; fires after 30 s, resolves after 60 s clear
+        tracker = new AlertLifecycleTracker(new NodeHealthClassifier(), 0.1, 30, 60, 5);
+        cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of(tracker));
+    }
+
+    private void sample(int nodeId, double latency, int second) {
+        cache.update(new PerformanceData(nodeId, 1, latency, 100.0, 0.5, NOW.plusSeconds(second)));
+    }
+
+    private List<String> transitions() {
+        return tracker.getTransitions(0, 100).transitions().stream()
+                .map(t -> t.getAlert().getCondition() + ":" + t.getPreviousState() + "->" + t.getAlert().getState())
+                .toList();
+    }
+
+    @Test
+    void firesAfterThePendingDurationAndResolvesAfterTheResolveDuration() {
+        sample(1, 120.0, 0);
+        sample(1, 130.0, 10);
+        assertEquals(AlertState.PENDING, tracker.getActiveAlerts().get(0).getState());
+
+        sample(1, 125.0, 30);
+        sample(1, 140.0, 40);
+        AlertDto firing = tracker.getActiveAlerts().get(0);
+        assertEquals(AlertState.FIRING, firing.getState());
+        assertEquals(NOW, firing.getActiveSince());
+        assertEquals(NOW.plusSeconds(30), firing.getFiringSince());
+        assertEquals(140.0, firing.getValue());
+
+        sample(1, 50.0, 50);
+        sample(1, 50.0, 100);
+        assertEquals(1, tracker.getActiveAlerts().size());
+        sample(1, 50.0, 110);
+
+        assertTrue(tracker.getActiveAlerts().isEmpty());
+        assertEquals(List.of("HIGH_LATENCY:null->PENDING", "HIGH_LATENCY:PENDING->FIRING",
+                "HIGH_LATENCY:FIRING->RESOLVED"), transitions());
+    }
+
+    @Test
+    void valuesWithinTheHysteresisBandDoNotFlap() {
+        sample(1, 120.0, 0);
+        sample(1, 120.0, 30);
+        // Below the threshold but not below 90 ms: still breaching as far as the alert is concerned
+        for (int second = 40; second < 200; second += 10) {
+            sample(1, second % 20 == 0 ? 95.0 : 105.0, second);
+        }
+
+        assertEquals(AlertState.FIRING, tracker.getActiveAlerts().get(0).getState());
+        assertEquals(2, transitions().size());
+    }
+
+    @Test
+    void aBriefBreachResolvesWithoutFiring() {
+        sample(1, 120.0, 0);
+        sample(1, 20.0, 10);
+        sample(1, 20.0, 40);
+
+        assertTrue(tracker.getActiveAlerts().isEmpty());
+        assertEquals(List.of("HIGH_LATENCY:null->PENDING", "HIGH_LATENCY:PENDING->RESOLVED"), transitions());
+    }
+
+    @Test
+    void onlyAContinuousBreachFires() {
+        sample(1, 120.0, 0);
+        // within the hysteresis band, but no longer breaching
+        sample(1, 95.0, 10);
+        sample(1, 120.0, 20);
+        sample(1, 120.0, 40);
+
+        assertEquals(AlertState.PENDING, tracker.getActiveAlerts().get(0).getState());
+        assertEquals(NOW.plusSeconds(20), tracker.getActiveAlerts().get(0).getActiveSince());
+        assertEquals(List.of("HIGH_LATENCY:null->PENDING", "HIGH_LATENCY:PENDING->RESOLVED",
+                "HIGH_LATENCY:null->PENDING"), transitions());
+    }
+
+    @Test
+    void tracksConditionsAndNodesSeparately() {
+        cache.update(new PerformanceData(2, 1, 20.0, 10.0, 5.0, NOW));
+        sample(1, 120.0, 0);
+
+        List<AlertDto> active = tracker.getActiveAlerts();
+        assertEquals(List.of(1, 2, 2), active.stream().map(AlertDto::getNodeId).toList());
+        assertEquals(List.of(AlertCondition.HIGH_LATENCY, AlertCondition.LOW_THROUGHPUT, AlertCondition.HIGH_ERROR_RATE),
+                active.stream().map(AlertDto::getCondition).toList());
+    }
+
+    @Test
+    void pagesThroughTheTransitionLogBySequence() {
+        for (int node = 1; node <= 7; node++) {
+            sample(node, 120.0, 0);
+        }
+
+        AlertLifecycleTracker.TransitionPage page = tracker.getTransitions(0, 2);
+        assertTrue(page.missed());
+        assertEquals(List.of(3L, 4L), page.transitions().stream().map(AlertTransitionDto::getSequence).toList());
+        assertEquals(4, page.nextSequence());
+
+        page = tracker.getTransitions(page.nextSequence(), 10);
+        assertFalse(page.missed());
+        assertEquals(List.of(5L, 6L, 7L), page.transitions().stream().map(AlertTransitionDto::getSequence).toList());
+
+        page = tracker.getTransitions(page.nextSequence(), 10);
+        assertTrue(page.transitions().isEmpty());
+        assertEquals(7, page.nextSequence());
+    }
+
+    @Test
+    void aSequenceFromBeforeARestartReadsTheLogFromItsStart() {
+        sample(1, 120.0, 0);
+        sample(2, 120.0, 0);
+
+        AlertLifecycleTracker.TransitionPage page = tracker.getTransitions(500, 10);
+
+        assertTrue(page.missed());
+        assertEquals(List.of(1L, 2L), page.transitions().stream().map(AlertTransitionDto::getSequence).toList());
+        assertEquals(2, page.nextSequence());
+    }
+}
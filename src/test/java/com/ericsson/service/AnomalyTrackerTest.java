@@ -0,0 +1,65 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnomalyTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private AnomalyTracker tracker;
+    private LatestMetricsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new AnomalyTracker(new NodeHealthClassifier());
+        cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of(tracker));
+    }
+
+    private List<Integer> anomalousNodes() {
+        return tracker.getAnomalies().stream().map(PerformanceData::getNodeId).toList();
+    }
+
+    @Test
+    void ordersCriticalFirstThenByLatency() {
+        cache.update(new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW));   // healthy
+        cache.update(new PerformanceData(2, 1, 120.0, 100.0, 0.5, NOW));  // warning
+        cache.update(new PerformanceData(3, 1, 110.0, 100.0, 0.5, NOW));  // warning
+        cache.update(new PerformanceData(4, 2, 20.0, 100.0, 5.0, NOW));   // critical error rate
+        cache.update(new PerformanceData(5, 2, 300.0, 100.0, 0.5, NOW));  // critical latency
+
+        assertEquals(List.of(5, 4, 2, 3), anomalousNodes());
+    }
+
+    @Test
+    void aNewSampleReplacesTheNodesEntry() {
+        cache.update(new PerformanceData(2, 1, 120.0, 100.0, 0.5, NOW));
+        cache.update(new PerformanceData(3, 1, 110.0, 100.0, 0.5, NOW));
+
+        cache.update(new PerformanceData(2, 1, 20.0, 100.0, 0.5, NOW.plusSeconds(5)));   // recovered
+        cache.update(new PerformanceData(3, 1, 400.0, 100.0, 0.5, NOW.plusSeconds(5)));  // now critical
+        cache.update(new PerformanceData(3, 1, 90.0, 10.0, 0.5, NOW.minusSeconds(5)));   // out of order, ignored
+
+        assertEquals(List.of(3), anomalousNodes());
+        assertEquals(400.0, tracker.getAnomalies().get(0).getLatency());
+    }
+
+    @Test
+    void rebuildReclassifiesTheLatestSamples() {
+        cache.update(new PerformanceData(2, 1, 120.0, 100.0, 0.5, NOW));
+
+        tracker.rebuild(List.of(
+                new PerformanceData(2, 1, 20.0, 100.0, 0.5, NOW),
+                new PerformanceData(6, 1, 20.0, 10.0, 0.5, NOW)));
+
+        assertEquals(List.of(6), anomalousNodes());
+    }
+}
@@ -0,0 +1,94 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineDetectorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private BaselineDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new BaselineDetector(0.1, 3.0, 10);
+        detector.beginReplay();
+    }
+
+    private void ingest(int nodeId, double latency) {
+        detector.onIngested(List.of(new PerformanceData(nodeId, 1, latency, 100.0, 1.0, NOW)));
+    }
+
+    // Alternates around the given latency so the baseline learns some variance
+    private void warmUp(int nodeId, double latency, int samples) {
+        for (int i = 0; i < samples; i++) {
+            ingest(nodeId, latency + (i % 2 == 0 ? 2 : -2));
+        }
+    }
+
+    @Test
+    void scoresStayZeroDuringWarmUp() {
+        ingest(1, 50.0);
+        ingest(1, 500.0);
+
+        assertEquals(0.0, detector.getAnomalyScore(1));
+        assertFalse(detector.isDeviating(1));
+        assertEquals(0.0, detector.getAnomalyScore(99));
+    }
+
+    @Test
+    void flagsASampleFarFromTheNodesOwnBaseline() {
+        warmUp(1, 50.0, 40);
+        warmUp(2, 200.0, 40);
+        assertTrue(detector.getDeviatingNodes().isEmpty());
+
+        // Within the other node's normal range, but far outside this node's
+        ingest(1, 80.0);
+        ingest(2, 201.0);
+
+        assertTrue(detector.getAnomalyScore(1) >= 3.0);
+        assertTrue(detector.getAnomalyScore(2) < 3.0);
+        assertEquals(List.of(1), detector.getDeviatingNodes());
+    }
+
+    @Test
+    void recoversOnceTheNodeIsBackToNormal() {
+        warmUp(1, 50.0, 40);
+        warmUp(2, 50.0, 40);
+        ingest(1, 80.0);
+        ingest(2, 120.0);
+        assertEquals(List.of(2, 1), detector.getDeviatingNodes());
+
+        ingest(1, 50.0);
+
+        assertFalse(detector.isDeviating(1));
+        assertEquals(List.of(2), detector.getDeviatingNodes());
+    }
+
+    @Test
+    void scoresAMetricThatHasBeenZeroSoFar() {
+        for (int i = 0; i < 20; i++) {
+            detector.onIngested(List.of(new PerformanceData(1, 1, 50.0, 100.0, 0.0, NOW)));
+        }
+
+        detector.onIngested(List.of(new PerformanceData(1, 1, 50.0, 100.0, 1.5, NOW)));
+
+        assertEquals(15.0, detector.getAnomalyScore(1), 1e-9);
+        assertEquals(List.of(1), detector.getDeviatingNodes());
+    }
+
+    @Test
+    void ignoresLiveIngestUntilReplayBegins() {
+        BaselineDetector notStarted = new BaselineDetector(0.1, 3.0, 0);
+        notStarted.onIngested(List.of(new PerformanceData(1, 1, 50.0, 100.0, 1.0, NOW)));
+        notStarted.onIngested(List.of(new PerformanceData(1, 1, 500.0, 100.0, 1.0, NOW)));
+
+        assertEquals(0.0, notStarted.getAnomalyScore(1));
+    }
+}
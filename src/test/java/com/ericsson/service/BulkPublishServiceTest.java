@@ -0,0 +1,96 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.BulkPublishResultDto;
+import com.ericsson.model.PerformanceData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BulkPublishServiceTest {
+
+    private static final String SAMPLE =
+            "{\"nodeId\": %d, \"networkId\": 2, \"latency\": 25.0, \"throughput\": 100.0, \"errorRate\": 0.5, \"timestamp\": \"2025-06-01T10:15:30\"}";
+
+    private NetworkPerformancePublisher publisher;
+    private BulkPublishService service;
+    private final List<List<PerformanceData>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        publisher = mock(NetworkPerformancePublisher.class);
+        // the service reuses its batch list, so copy what the publisher was given
+        when(publisher.sendBatch(anyList(), anyLong())).thenAnswer(invocation -> {
+            List<PerformanceData> batch = invocation.getArgument(0);
+            batches.add(new ArrayList<>(batch));
+            return batch.size();
+        });
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        service = new BulkPublishService(publisher, objectMapper, 2, 1000);
+    }
+
+    @Test
+    void publishesJsonArrayInBatches() throws Exception {
+        String body = "[" + String.format(SAMPLE, 1) + "," + String.format(SAMPLE, 2) + "," + String.format(SAMPLE, 3) + "]";
+
+        BulkPublishResultDto result = service.publish(stream(body));
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertNull(result.getError());
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(3, batches.get(1).get(0).getNodeId());
+    }
+
+    @Test
+    void publishesNdjsonAndRejectsIncompleteRecords() throws Exception {
+        String body = String.format(SAMPLE, 1) + "\n"
+                + "{\"nodeId\": 2, \"networkId\": 2}\n"
+                + "{\"nodeId\": \"not-a-number\"}\n"
+                + "{\"nodeId\": 4, \"networkId\": 1, \"latency\": 1.0, \"throughput\": 1.0, \"errorRate\": 0.0}\n";
+
+        BulkPublishResultDto result = service.publish(stream(body));
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertNotNull(batches.get(0).get(1).getTimestamp(), "missing timestamp defaults to now");
+    }
+
+    @Test
+    void keepsRecordsBeforeMalformedInput() throws Exception {
+        String body = "[" + String.format(SAMPLE, 1) + ", {\"nodeId\": ";
+
+        BulkPublishResultDto result = service.publish(stream(body));
+
+        assertEquals(1, result.getAccepted());
+        assertNotNull(result.getError());
+    }
+
+    @Test
+    void countsRecordsTheBrokerDidNotAcknowledgeAsRejected() throws Exception {
+        when(publisher.sendBatch(anyList(), anyLong())).thenReturn(1);
+        String body = "[" + String.format(SAMPLE, 1) + "," + String.format(SAMPLE, 2) + "]";
+
+        BulkPublishResultDto result = service.publish(stream(body));
+
+        verify(publisher).sendBatch(anyList(), anyLong());
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
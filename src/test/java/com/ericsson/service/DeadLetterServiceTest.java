@@ -0,0 +1,124 @@
+package com.ericsson.service;
+
+import com.ericsson.config.KafkaConfig;
+import com.ericsson.exception.DeadLetterReplayException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class DeadLetterServiceTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(KafkaConfig.PERFORMANCE_DLT_TOPIC, 0);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, byte[]> consumerFactory = Mockito.mock(ConsumerFactory.class);
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, byte[]> consumer = Mockito.mock(Consumer.class);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(consumerFactory.createConsumer(anyString(), anyString())).thenReturn(consumer);
+        Mockito.when(consumer.partitionsFor(KafkaConfig.PERFORMANCE_DLT_TOPIC))
+                .thenReturn(List.of(new PartitionInfo(PARTITION.topic(), PARTITION.partition(), null, null, null)));
+    }
+
+    private DeadLetterService service(long sendTimeoutMillis) {
+        return new DeadLetterService(kafkaTemplate, consumerFactory, sendTimeoutMillis, new SimpleMeterRegistry());
+    }
+
+    private void givenDeadLetters(int count) {
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int offset = 0; offset < count; offset++) {
+            records.add(new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, String.valueOf(offset),
+                    new byte[]{(byte) offset}));
+        }
+        Mockito.when(consumer.poll(any(Duration.class)))
+                .thenReturn(new ConsumerRecords<>(Map.of(PARTITION, records)))
+                .thenReturn(ConsumerRecords.empty());
+    }
+
+    private void givenSendsReturn(CompletableFuture<SendResult<String, Object>> result) {
+        Mockito.when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(result);
+    }
+
+    @Test
+    void stopsAtMaxRecordsAndCommitsOnlyWhatWasReplayed() {
+        givenDeadLetters(5);
+        givenSendsReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(3, service(1000).replay(3));
+
+        Mockito.verify(kafkaTemplate, Mockito.times(3)).send(eq(KafkaConfig.PERFORMANCE_TOPIC), anyString(), any());
+        Mockito.verify(kafkaTemplate, Mockito.never()).send(anyString(), eq("3"), any());
+        Mockito.verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(3)));
+        Mockito.verify(consumer, Mockito.times(1)).poll(any(Duration.class));
+    }
+
+    @Test
+    void commitsOnlyOnceTheCopiesAreAcknowledged() throws Exception {
+        givenDeadLetters(2);
+        CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+        givenSendsReturn(ack);
+
+        CompletableFuture<Integer> replay = CompletableFuture.supplyAsync(() -> service(5000).replay(10));
+        Mockito.verify(kafkaTemplate, Mockito.timeout(1000).times(2)).send(anyString(), anyString(), any());
+        Mockito.verify(consumer, Mockito.after(200).never()).commitSync(anyMap());
+
+        ack.complete(null);
+
+        assertEquals(2, replay.get(5, TimeUnit.SECONDS));
+        Mockito.verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(2)));
+    }
+
+    @Test
+    void failedSendStopsTheReplayWithoutCommitting() {
+        givenDeadLetters(2);
+        givenSendsReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+
+        DeadLetterReplayException e = assertThrows(DeadLetterReplayException.class, () -> service(1000).replay(10));
+
+        assertTrue(e.getMessage().contains("after 0 records"));
+        Mockito.verify(consumer, Mockito.never()).commitSync(anyMap());
+        Mockito.verify(consumer).close();
+    }
+
+    @Test
+    void unacknowledgedSendTimesOutWithoutCommitting() {
+        givenDeadLetters(2);
+        givenSendsReturn(new CompletableFuture<>());
+
+        assertThrows(DeadLetterReplayException.class, () -> service(50).replay(10));
+
+        Mockito.verify(consumer, Mockito.never()).commitSync(anyMap());
+    }
+
+    @Test
+    void replaysNothingWithoutTheTopic() {
+        Mockito.when(consumer.partitionsFor(KafkaConfig.PERFORMANCE_DLT_TOPIC)).thenReturn(List.of());
+
+        assertEquals(0, service(1000).replay(10));
+        Mockito.verify(consumer, Mockito.never()).poll(any(Duration.class));
+    }
+}
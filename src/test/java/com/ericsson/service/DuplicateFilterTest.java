@@ -0,0 +1,58 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DuplicateFilter filter = new DuplicateFilter(meterRegistry, true, 60, 12, 1000, 0.000001);
+
+    @Test
+    void testDetectsStoredSample() {
+        LocalDateTime timestamp = LocalDateTime.now();
+        PerformanceData stored = new PerformanceData(101, 201, 20.0, 100.0, 0.1, timestamp);
+        assertFalse(filter.isDuplicate(stored));
+
+        filter.markStored(stored);
+
+        assertTrue(filter.isDuplicate(new PerformanceData(101, 201, 20.0, 100.0, 0.1, timestamp)));
+        assertFalse(filter.isDuplicate(new PerformanceData(102, 201, 20.0, 100.0, 0.1, timestamp)));
+        assertFalse(filter.isDuplicate(new PerformanceData(101, 201, 20.0, 100.0, 0.1, timestamp.plusNanos(1000))));
+        assertEquals(1.0, meterRegistry.get("performance.ingest.duplicates").counter().count());
+    }
+
+    @Test
+    void testRemovesDuplicatesWithinBatch() {
+        LocalDateTime timestamp = LocalDateTime.now();
+        PerformanceData first = new PerformanceData(101, 201, 20.0, 100.0, 0.1, timestamp);
+        PerformanceData repeat = new PerformanceData(101, 201, 20.0, 100.0, 0.1, timestamp);
+        PerformanceData other = new PerformanceData(102, 201, 25.0, 90.0, 0.2, timestamp);
+
+        assertEquals(List.of(first, other), filter.removeDuplicates(List.of(first, repeat, other)));
+    }
+
+    @Test
+    void testLeavesSamplesOutsideWindowToDatabase() {
+        PerformanceData old = new PerformanceData(101, 201, 20.0, 100.0, 0.1, LocalDateTime.now().minusHours(3));
+        filter.markStored(old);
+
+        assertFalse(filter.isDuplicate(old));
+    }
+
+    @Test
+    void testDisabledFilterPassesEverything() {
+        DuplicateFilter disabled = new DuplicateFilter(new SimpleMeterRegistry(), false, 60, 12, 1000, 0.000001);
+        PerformanceData data = new PerformanceData(101, 201, 20.0, 100.0, 0.1, LocalDateTime.now());
+        disabled.markStored(data);
+
+        assertFalse(disabled.isDuplicate(data));
+        assertEquals(2, disabled.removeDuplicates(List.of(data, data)).size());
+    }
+}
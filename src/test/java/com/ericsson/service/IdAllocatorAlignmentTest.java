@@ -0,0 +1,83 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The id generator reads the allocator row in a transaction of its own, so the tests commit and clean up after themselves
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(IdAllocatorAlignment.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdAllocatorAlignmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private PerformanceDataRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdAllocatorAlignment alignment;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from performance_data");
+    }
+
+    // A sample stored while ids were IDENTITY
+    private void insertLegacySample(long id) {
+        jdbcTemplate.update("insert into performance_data (id, node_id, network_id, latency, throughput, error_rate, timestamp)"
+                + " values (?, 1, 10, 10.0, 100.0, 1.0, ?)", id, START);
+    }
+
+    @Test
+    void createsAMissingRowPastExistingIds() {
+        jdbcTemplate.update("delete from id_allocator");
+        insertLegacySample(5000);
+
+        alignment.align();
+
+        assertEquals(5000L + PerformanceData.ID_ALLOCATION_SIZE, nextIdAllocatorValue());
+    }
+
+    @Test
+    void advancesARowBehindExistingIds() {
+        jdbcTemplate.update("update id_allocator set next_val = 1");
+        insertLegacySample(7000);
+
+        alignment.align();
+
+        assertEquals(7000L + PerformanceData.ID_ALLOCATION_SIZE, nextIdAllocatorValue());
+    }
+
+    @Test
+    void firstSaveAfterAlignmentGetsAnIdPastExistingIds() {
+        // the context aligned an empty table at startup; no sample has been saved since
+        jdbcTemplate.update("delete from id_allocator");
+        insertLegacySample(9000);
+
+        alignment.align();
+        PerformanceData saved = repository.save(new PerformanceData(2, 10, 20.0, 100.0, 1.0, START.plusMinutes(1)));
+
+        assertTrue(saved.getId() > 9000, "id " + saved.getId() + " collides with the legacy ids");
+        assertEquals(2, repository.count());
+    }
+
+    private long nextIdAllocatorValue() {
+        return jdbcTemplate.queryForObject("select next_val from id_allocator where sequence_name = ?",
+                Long.class, PerformanceData.ID_ALLOCATOR_KEY);
+    }
+}
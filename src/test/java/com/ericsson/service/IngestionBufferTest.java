@@ -0,0 +1,132 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IngestionBufferTest {
+
+    private IngestionBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    private static MessageListenerContainer runningContainer(String listenerId) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getListenerId()).thenReturn(listenerId);
+        when(container.isRunning()).thenReturn(true);
+        return container;
+    }
+
+    @Test
+    void testPausesAboveHighWaterAndResumesBelowLowWater() throws Exception {
+        PerformanceDataWriter writer = mock(PerformanceDataWriter.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(writer).saveAll(anyList());
+
+        MessageListenerContainer container = runningContainer(NetworkPerformanceConsumer.RECORD_LISTENER_ID);
+        MessageListenerContainer retryContainer = runningContainer(NetworkPerformanceConsumer.RECORD_LISTENER_ID + "-retry-1000");
+        MessageListenerContainer otherContainer = runningContainer("otherListener");
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(List.of(container, retryContainer, otherContainer));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        buffer = new IngestionBuffer(writer, mock(DeadLetterService.class), registry, meterRegistry, true, 20, 10, 2, 1, 5);
+        buffer.start();
+
+        // The single writer takes the first batch and blocks, the rest piles up past the high-water mark
+        buffer.enqueue(samples(15));
+        verify(container).pause();
+        verify(retryContainer).pause();
+        verify(otherContainer, never()).pause();
+        verify(container, never()).resume();
+
+        release.countDown();
+        verify(container, timeout(5000)).resume();
+        verify(retryContainer, timeout(5000)).resume();
+        verify(writer, timeout(5000).atLeast(3)).saveAll(anyList());
+        assertEquals(1L, meterRegistry.get("ingestion.buffer.pause.duration").timer().count());
+    }
+
+    @Test
+    void testDrainsQueueOnStop() {
+        PerformanceDataWriter writer = mock(PerformanceDataWriter.class);
+        List<Integer> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<PerformanceData> batch = invocation.getArgument(0);
+            synchronized (written) {
+                written.add(batch.size());
+            }
+            return null;
+        }).when(writer).saveAll(anyList());
+
+        buffer = new IngestionBuffer(writer, mock(DeadLetterService.class), mock(KafkaListenerEndpointRegistry.class),
+                new SimpleMeterRegistry(),
+                true, 100, 80, 20, 2, 10);
+        buffer.start();
+        buffer.enqueue(samples(35));
+        buffer.stop();
+
+        assertEquals(35, written.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, buffer.getDepth());
+    }
+
+    @Test
+    void testRejectsInvalidWaterMarks() {
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        PerformanceDataWriter writer = mock(PerformanceDataWriter.class);
+        DeadLetterService deadLetterService = mock(DeadLetterService.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new IngestionBuffer(writer, deadLetterService, registry, meterRegistry, true, 100, 50, 60, 1, 10));
+        Mockito.verifyNoInteractions(writer);
+    }
+
+    @Test
+    void testDeadLettersRecordsThatCanNeverBeStored() {
+        PerformanceDataWriter writer = mock(PerformanceDataWriter.class);
+        DeadLetterService deadLetterService = mock(DeadLetterService.class);
+        List<PerformanceData> samples = samples(3);
+        doThrow(new DataIntegrityViolationException("constraint")).when(writer).saveAll(anyList());
+        doThrow(new DataIntegrityViolationException("constraint")).when(writer).save(samples.get(1));
+
+        buffer = new IngestionBuffer(writer, deadLetterService, mock(KafkaListenerEndpointRegistry.class),
+                new SimpleMeterRegistry(), true, 100, 80, 20, 1, 10);
+        buffer.start();
+        buffer.enqueue(samples);
+        buffer.stop();
+
+        verify(writer).save(samples.get(0));
+        verify(writer).save(samples.get(2));
+        verify(deadLetterService).publish(eq(samples.get(1)), any(DataIntegrityViolationException.class));
+    }
+
+    private List<PerformanceData> samples(int count) {
+        List<PerformanceData> samples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            samples.add(new PerformanceData(100 + i, 201, 20.0, 100.0, 0.1, LocalDateTime.now()));
+        }
+        return samples;
+    }
+}
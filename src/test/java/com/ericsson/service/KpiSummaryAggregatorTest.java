@@ -0,0 +1,100 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KpiSummaryAggregatorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private KpiSummaryAggregator aggregator;
+    private LatestMetricsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new KpiSummaryAggregator(new NodeHealthClassifier());
+        cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of(aggregator));
+    }
+
+    @Test
+    void emptySummaryHasNoData() {
+        Map<String, Object> summary = aggregator.getSummary();
+
+        assertEquals("No data available", summary.get("message"));
+        assertEquals(0, summary.get("totalNodes"));
+    }
+
+    @Test
+    void replacedSamplesAreSubtracted() {
+        cache.update(new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW));
+        cache.update(new PerformanceData(2, 1, 200.0, 100.0, 0.5, NOW)); // critical latency
+        cache.update(new PerformanceData(3, 2, 40.0, 80.0, 1.0, NOW));
+        cache.update(new PerformanceData(2, 1, 30.0, 90.0, 0.5, NOW.plusSeconds(1)));
+
+        Map<String, Object> summary = aggregator.getSummary();
+
+        assertEquals(3, summary.get("totalNodes"));
+        assertEquals(3, summary.get("healthyNodes"));
+        assertEquals(0, summary.get("criticalNodes"));
+        assertEquals(100L, summary.get("healthPercentage"));
+        assertEquals(30.0, summary.get("averageLatency"));
+        assertEquals(40.0, summary.get("maxLatency"));
+        assertEquals(80.0, summary.get("minThroughput"));
+        assertEquals("HEALTHY", summary.get("systemStatus"));
+
+        Map<?, ?> network1 = (Map<?, ?>) ((Map<?, ?>) summary.get("networkSummary")).get("network_1");
+        assertEquals(2, network1.get("totalNodes"));
+        assertEquals(25.0, network1.get("avgLatency"));
+        assertEquals(95.0, network1.get("avgThroughput"));
+    }
+
+    @Test
+    void incompleteSamplesAreSkipped() {
+        cache.update(new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW));
+        cache.update(new PerformanceData(1, 1, null, 100.0, 0.5, NOW.plusSeconds(1)));
+        aggregator.rebuild(List.of(
+                new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW),
+                new PerformanceData(2, 1, 40.0, null, 0.5, NOW)));
+
+        Map<String, Object> summary = aggregator.getSummary();
+
+        assertEquals(1, summary.get("totalNodes"));
+        assertEquals(20.0, summary.get("averageLatency"));
+    }
+
+    @Test
+    void nodeMovingNetworkLeavesOldNetwork() {
+        cache.update(new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW));
+        cache.update(new PerformanceData(1, 2, 20.0, 100.0, 0.5, NOW.plusSeconds(1)));
+
+        Map<?, ?> networks = (Map<?, ?>) aggregator.getSummary().get("networkSummary");
+
+        assertEquals(1, networks.size());
+        assertTrue(networks.containsKey("network_2"));
+    }
+
+    @Test
+    void snapshotIsReusedUntilNextChange() {
+        cache.update(new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW));
+
+        Map<String, Object> first = aggregator.getSummary();
+        assertSame(first, aggregator.getSummary());
+        assertThrows(UnsupportedOperationException.class, () -> first.put("totalNodes", 5));
+
+        cache.update(new PerformanceData(1, 1, 120.0, 100.0, 0.5, NOW.plusSeconds(1)));
+        Map<String, Object> second = aggregator.getSummary();
+
+        assertNotSame(first, second);
+        assertEquals(0, second.get("healthyNodes"));
+        assertEquals("DEGRADED", second.get("systemStatus"));
+    }
+}
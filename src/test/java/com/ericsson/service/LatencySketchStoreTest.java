@@ -0,0 +1,83 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.model.RollupScope;
+import com.ericsson.storage.ColumnarSeriesStore;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencySketchStoreTest {
+
+    @Test
+    void percentilesExposeTheTailPerNodeAndMergedAcrossNetworks() {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = ColumnarSeriesStore.toEpochMillis(now);
+        LatencySketchStore store = new LatencySketchStore();
+        store.beginReplay();
+
+        List<PerformanceData> samples = new ArrayList<>();
+        for (int i = 0; i < 98; i++) {
+            samples.add(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusSeconds(i)));
+        }
+        samples.add(new PerformanceData(2, 2, 500.0, 100.0, 0.5, now.minusSeconds(1)));
+        samples.add(new PerformanceData(2, 2, 800.0, 100.0, 0.5, now.minusSeconds(2)));
+        store.onIngested(samples);
+
+        long from = nowMillis - 300_000;
+        Map<String, Object> global = store.latencyPercentiles(RollupScope.NETWORK, null, from, nowMillis + 1, nowMillis);
+        assertEquals(10.0, (double) global.get("p50"), 0.1);
+        assertEquals(10.0, (double) global.get("p95"), 0.1);
+        assertEquals(500.0, (double) global.get("p99"), 5.0);
+        assertEquals(100L, global.get("sampleSize"));
+
+        Map<String, Object> node2 = store.latencyPercentiles(RollupScope.NODE, 2, from, nowMillis + 1, nowMillis);
+        assertEquals(800.0, (double) node2.get("p99"), 8.0);
+        assertTrue(store.networkLatencyPercentiles(from, nowMillis + 1, nowMillis).containsKey("network_1"));
+    }
+
+    @Test
+    void olderRangesUseCoarserSlicesAndExpiredSlicesAreDropped() {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = ColumnarSeriesStore.toEpochMillis(now);
+        LatencySketchStore store = new LatencySketchStore();
+        store.visit(1, 1, ColumnarSeriesStore.toEpochMillis(now.minusMinutes(40)), 20.0, 0, 0);
+        store.visit(1, 1, ColumnarSeriesStore.toEpochMillis(now.minusHours(30)), 20.0, 0, 0);
+
+        Histogram lastHour = store.latencyHistogram(RollupScope.NODE, 1, nowMillis - 3_600_000, nowMillis + 1, nowMillis);
+        assertEquals(1, lastHour.getTotalCount());
+
+        Histogram lastFiveMinutes = store.latencyHistogram(RollupScope.NODE, 1, nowMillis - 300_000, nowMillis + 1, nowMillis);
+        assertEquals(0, lastFiveMinutes.getTotalCount());
+        assertTrue(store.latencyPercentiles(RollupScope.NODE, 3, 0, nowMillis, nowMillis).isEmpty());
+    }
+
+    @Test
+    void coversOnlyTheLastDay() {
+        LatencySketchStore store = new LatencySketchStore();
+        long nowMillis = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+
+        assertTrue(store.covers(nowMillis - 86_400_000, nowMillis));
+        assertFalse(store.covers(nowMillis - 86_400_001, nowMillis));
+    }
+
+    @Test
+    void ingestBeforeReplayIsIgnored() {
+        LatencySketchStore store = new LatencySketchStore();
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = ColumnarSeriesStore.toEpochMillis(now);
+
+        store.onIngested(List.of(new PerformanceData(1, 1, 20.0, 100.0, 0.5, now)));
+
+        assertEquals(0, store.latencyHistogram(RollupScope.NETWORK, null, nowMillis - 1000, nowMillis + 1, nowMillis)
+                .getTotalCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatestMetricsCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    @Test
+    void keepsNewestSamplePerNodeSortedByNodeId() {
+        LatestMetricsCache cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of());
+        PerformanceData node2 = new PerformanceData(2, 1, 20.0, 100.0, 0.5, NOW);
+        PerformanceData node1 = new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW);
+        PerformanceData node1Newer = new PerformanceData(1, 1, 30.0, 90.0, 0.7, NOW.plusSeconds(5));
+
+        cache.onIngested(List.of(node2, node1Newer, node1));
+
+        assertEquals(List.of(node1Newer, node2), cache.getLatest());
+    }
+
+    @Test
+    void seedDoesNotOverwriteNewerIngestedSamples() {
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        PerformanceData stored = new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW);
+        PerformanceData otherNode = new PerformanceData(3, 2, 20.0, 100.0, 0.5, NOW);
+        Mockito.when(repository.findLatestPerNode()).thenReturn(List.of(stored, otherNode));
+        LatestMetricsCache cache = new LatestMetricsCache(repository, List.of());
+
+        PerformanceData ingested = new PerformanceData(1, 1, 25.0, 100.0, 0.5, NOW.plusMinutes(1));
+        cache.update(ingested);
+        cache.seed();
+
+        assertEquals(List.of(ingested, otherNode), cache.getLatest());
+    }
+
+    @Test
+    void ignoresSamplesMissingAMetric() {
+        List<PerformanceData> changes = new ArrayList<>();
+        LatestMetricsCache cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class),
+                List.of((previous, current) -> changes.add(current)));
+        PerformanceData complete = new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW);
+
+        cache.update(complete);
+        cache.update(new PerformanceData(1, 1, 30.0, 100.0, null, NOW.plusSeconds(5)));
+        cache.update(new PerformanceData(2, 1, 30.0, null, 0.5, NOW));
+
+        assertEquals(List.of(complete), cache.getLatest());
+        assertEquals(List.of(complete), changes);
+    }
+
+    @Test
+    void listenersCanReadTheCache() {
+        List<PerformanceData> seen = new ArrayList<>();
+        LatestMetricsCache[] cache = new LatestMetricsCache[1];
+        cache[0] = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class),
+                List.of((previous, current) -> seen.addAll(cache[0].getLatest())));
+        PerformanceData node1 = new PerformanceData(1, 1, 20.0, 100.0, 0.5, NOW);
+        PerformanceData node2 = new PerformanceData(2, 1, 20.0, 100.0, 0.5, NOW);
+
+        cache[0].update(node1);
+        cache[0].update(node2);
+
+        // the new sample becomes visible once the listeners are done with it
+        assertEquals(List.of(node1), seen);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ericsson.service;
 
+import com.ericsson.dto.NodeStatusDto;
 import com.ericsson.model.PerformanceData;
 import com.ericsson.repository.PerformanceDataRepository;
 import org.junit.jupiter.api.Test;
@@ -45,14 +46,14 @@ class MetricsServiceIT {
 
     @Test
     void testDetectAnomalies() {
-        List<PerformanceData> anomalies = metricsService.detectAnomalies();
+        List<NodeStatusDto> anomalies = metricsService.detectAnomalies();
 
         assertThat(anomalies).isNotNull();
     }
 
     @Test
     void testGetNodesByHealthStatus() {
-        Map<String, List<PerformanceData>> grouped = metricsService.getNodesByHealthStatus();
+        Map<String, List<NodeStatusDto>> grouped = metricsService.getNodesByHealthStatus();
 
         assertThat(grouped).containsKeys("healthy", "warning", "critical");
         // Validate at least one group is not empty, depending on your real data
@@ -0,0 +1,84 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import com.ericsson.storage.ColumnarSeriesStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsViewFeedTest {
+
+    private static final String TOPIC = "network-performance";
+
+    private static MetricsViewFeed feed(KafkaListenerEndpointRegistry registry, IngestListener... listeners) {
+        return new MetricsViewFeed(List.of(listeners), registry, new SimpleMeterRegistry(),
+                true, 60, 12, 1000, 0.000001, 60000);
+    }
+
+    @Test
+    void samplesReachTheViewsOnce() {
+        LatestMetricsCache cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of());
+        MetricsViewFeed feed = feed(Mockito.mock(KafkaListenerEndpointRegistry.class), cache);
+        PerformanceData data = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
+        PerformanceData redelivered = new PerformanceData(1, 2, 20.0, 100.0, 0.5, data.getTimestamp());
+
+        feed.feed(List.of(new ConsumerRecord<>(TOPIC, 0, 0L, "1", data), new ConsumerRecord<>(TOPIC, 0, 1L, "1", null)));
+        feed.feed(List.of(new ConsumerRecord<>(TOPIC, 0, 2L, "1", redelivered)));
+
+        assertEquals(List.of(data), cache.getLatest());
+    }
+
+    @Test
+    void samplesUpToTheReplayedOnesAreSkipped() {
+        LocalDateTime now = LocalDateTime.now();
+        IngestListener listener = Mockito.mock(IngestListener.class);
+        MetricsViewFeed feed = feed(Mockito.mock(KafkaListenerEndpointRegistry.class), listener);
+        feed.markReplayed(1, ColumnarSeriesStore.toEpochMillis(now.minusSeconds(10)));
+        PerformanceData replayed = new PerformanceData(1, 2, 20.0, 100.0, 0.5, now.minusSeconds(10));
+        PerformanceData newer = new PerformanceData(1, 2, 20.0, 100.0, 0.5, now);
+        PerformanceData otherNode = new PerformanceData(2, 2, 20.0, 100.0, 0.5, now.minusSeconds(20));
+
+        feed.feed(List.of(new ConsumerRecord<>(TOPIC, 0, 0L, "1", replayed),
+                new ConsumerRecord<>(TOPIC, 0, 1L, "1", newer),
+                new ConsumerRecord<>(TOPIC, 1, 0L, "2", otherNode)));
+
+        Mockito.verify(listener).onIngested(List.of(newer, otherNode));
+    }
+
+    @Test
+    void seeksByTimeOnTheFirstAssignmentOnly() {
+        KafkaListenerEndpointRegistry registry = Mockito.mock(KafkaListenerEndpointRegistry.class);
+        MessageListenerContainer container = Mockito.mock(MessageListenerContainer.class);
+        Mockito.when(registry.getListenerContainer(MetricsViewFeed.VIEW_LISTENER_ID)).thenReturn(container);
+        MetricsViewFeed feed = feed(registry);
+        long historyEnd = ColumnarSeriesStore.toEpochMillis(LocalDateTime.now());
+        feed.markReplayed(1, historyEnd);
+        TopicPartition first = new TopicPartition(TOPIC, 0);
+        TopicPartition second = new TopicPartition(TOPIC, 1);
+        ConsumerSeekAware.ConsumerSeekCallback callback = Mockito.mock(ConsumerSeekAware.ConsumerSeekCallback.class);
+
+        feed.start(0);
+        feed.onPartitionsAssigned(Map.of(first, 0L), callback);
+        feed.onPartitionsAssigned(Map.of(first, 5L, second, 0L), callback);
+
+        Mockito.verify(container).start();
+        // the overlap before the newest replayed sample, on the record clock
+        long expected = System.currentTimeMillis() - 60000;
+        Mockito.verify(callback).seekToTimestamp(Mockito.eq(List.of(first)),
+                Mockito.longThat(timestamp -> Math.abs(timestamp - expected) < 5000));
+        Mockito.verify(callback).seekToTimestamp(Mockito.eq(List.of(second)), Mockito.anyLong());
+        Mockito.verifyNoMoreInteractions(callback);
+    }
+}
@@ -4,16 +4,30 @@ import com.ericsson.model.PerformanceData;
 import com.ericsson.repository.PerformanceDataRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class NetworkPerformanceConsumerTest {
 
+    private static PerformanceDataWriter writer(PerformanceDataRepository repository) {
+        return new PerformanceDataWriter(repository, Mockito.mock(PlatformTransactionManager.class),
+                new DuplicateFilter(new SimpleMeterRegistry(), true, 60, 12, 1000, 0.000001));
+    }
+
     @Test
     void testConsumePerformanceData() {
         PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
-        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(repository);
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(
+                writer(repository), Mockito.mock(IngestionBuffer.class));
 
         PerformanceData data = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
         // performanceRecord: Rename this variable to not match a restricted identifier.
@@ -41,6 +55,78 @@ class NetworkPerformanceConsumerTest {
                         entity.getErrorRate() == 0.5
         ));
     }
-}
 
+    @Test
+    void testConsumePerformanceDataBatch() {
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(
+                writer(repository), Mockito.mock(IngestionBuffer.class));
+
+        PerformanceData first = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
+        PerformanceData second = new PerformanceData(3, 2, 30.0, 90.0, 0.1, LocalDateTime.now());
+        List<ConsumerRecord<String, PerformanceData>> records = List.of(
+                new ConsumerRecord<>("network-performance", 0, 0, null, first),
+                new ConsumerRecord<>("network-performance", 0, 1, null, null),
+                new ConsumerRecord<>("network-performance", 0, 2, null, second));
+
+        consumer.consumePerformanceDataBatch(records);
 
+        // One saveAll for the whole poll, tombstones skipped
+        Mockito.verify(repository).saveAll(List.of(first, second));
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testConsumePerformanceDataBatch_enqueuesWhenBufferEnabled() {
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        IngestionBuffer ingestionBuffer = Mockito.mock(IngestionBuffer.class);
+        Mockito.when(ingestionBuffer.isEnabled()).thenReturn(true);
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(
+                writer(repository), ingestionBuffer);
+
+        PerformanceData data = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
+        consumer.consumePerformanceDataBatch(List.of(new ConsumerRecord<>("network-performance", 0, 0, null, data)));
+
+        // Persistence is left to the buffer's writer threads
+        Mockito.verify(ingestionBuffer).enqueue(List.of(data));
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testConsumePerformanceDataBatch_reportsIndexOfPoisonRecord() {
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(
+                writer(repository), Mockito.mock(IngestionBuffer.class));
+
+        PerformanceData good = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
+        PerformanceData bad = new PerformanceData(3, 2, 30.0, 90.0, 0.1, LocalDateTime.now());
+        Mockito.when(repository.saveAll(Mockito.anyList())).thenThrow(new DataIntegrityViolationException("constraint"));
+        Mockito.when(repository.save(bad)).thenThrow(new DataIntegrityViolationException("constraint"));
+        List<ConsumerRecord<String, PerformanceData>> records = List.of(
+                new ConsumerRecord<>("network-performance", 0, 0, null, good),
+                new ConsumerRecord<>("network-performance", 0, 1, null, null),
+                new ConsumerRecord<>("network-performance", 0, 2, null, bad));
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumePerformanceDataBatch(records));
+
+        // Index in the poll, so the error handler commits the good record and dead-letters the bad one
+        assertEquals(2, failure.getIndex());
+        Mockito.verify(repository).save(good);
+    }
+
+    @Test
+    void testConsumePerformanceData_dropsRedelivery() {
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(
+                writer(repository), Mockito.mock(IngestionBuffer.class));
+
+        PerformanceData data = new PerformanceData(1, 2, 20.0, 100.0, 0.5, LocalDateTime.now());
+        consumer.consumePerformanceData(new ConsumerRecord<>("network-performance", 0, 0, "1", data));
+        // Same sample delivered again after a rebalance
+        PerformanceData redelivered = new PerformanceData(1, 2, 20.0, 100.0, 0.5, data.getTimestamp());
+        consumer.consumePerformanceData(new ConsumerRecord<>("network-performance", 0, 0, "1", redelivered));
+
+        Mockito.verify(repository, Mockito.times(1)).save(Mockito.any());
+    }
+}
@@ -1,11 +1,17 @@
 package com.ericsson.service;
 
 import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class NetworkPerformancePublisherTest {
 
@@ -13,12 +19,53 @@ class NetworkPerformancePublisherTest {
     void testSendPerformanceData() {
         @SuppressWarnings("unchecked")
         KafkaTemplate<String, PerformanceData> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
-        NetworkPerformancePublisher publisher = new NetworkPerformancePublisher(kafkaTemplate);
+        Mockito.when(kafkaTemplate.send(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        NetworkPerformancePublisher publisher = new NetworkPerformancePublisher(kafkaTemplate, new SimpleMeterRegistry());
 
         PerformanceData data = new PerformanceData(1, 2, 25.0, 100.0, 0.5, LocalDateTime.now());
         publisher.sendPerformanceData(data);
 
-        Mockito.verify(kafkaTemplate).send("network-performance", data);
+        Mockito.verify(kafkaTemplate).send("network-performance", "1", data);
     }
-}
 
+    @Test
+    void testSendPerformanceData_tracksDeliveryAsynchronously() {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, PerformanceData> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+        CompletableFuture<SendResult<String, PerformanceData>> pending = new CompletableFuture<>();
+        Mockito.when(kafkaTemplate.send(Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn(pending);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NetworkPerformancePublisher publisher = new NetworkPerformancePublisher(kafkaTemplate, registry);
+
+        publisher.sendPerformanceData(new PerformanceData(1, 2, 25.0, 100.0, 0.5, LocalDateTime.now()));
+        assertEquals(1, publisher.getInFlightCount());
+
+        pending.completeExceptionally(new IllegalStateException("broker unavailable"));
+
+        assertEquals(0, publisher.getInFlightCount());
+        assertEquals(1.0, registry.get("performance.publisher.sends").tag("result", "failure").counter().count());
+        assertEquals(1L, registry.get("performance.publisher.send.latency").timer().count());
+    }
+
+    @Test
+    void testSendBatch_countsOnlyAcknowledgedRecords() {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, PerformanceData> kafkaTemplate = Mockito.mock(KafkaTemplate.class);
+        Mockito.when(kafkaTemplate.send(Mockito.anyString(), Mockito.anyString(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .thenReturn(new CompletableFuture<>())
+                .thenThrow(new IllegalStateException("buffer exhausted"));
+        NetworkPerformancePublisher publisher = new NetworkPerformancePublisher(kafkaTemplate, new SimpleMeterRegistry());
+
+        int acknowledged = publisher.sendBatch(List.of(
+                new PerformanceData(1, 2, 25.0, 100.0, 0.5, LocalDateTime.now()),
+                new PerformanceData(2, 2, 25.0, 100.0, 0.5, LocalDateTime.now()),
+                new PerformanceData(3, 2, 25.0, 100.0, 0.5, LocalDateTime.now()),
+                new PerformanceData(4, 2, 25.0, 100.0, 0.5, LocalDateTime.now())), 50);
+
+        assertEquals(1, acknowledged);
+        assertEquals(1, publisher.getInFlightCount(), "the unacknowledged record is still in flight");
+    }
+}
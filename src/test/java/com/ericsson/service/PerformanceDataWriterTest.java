@@ -0,0 +1,75 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The writer commits its own transactions, so the tests run outside the rolled back test transaction
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PerformanceDataWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private PerformanceDataRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PerformanceDataWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        // the unique key, not the in-memory filter, has to catch the redelivery
+        DuplicateFilter duplicateFilter = new DuplicateFilter(new SimpleMeterRegistry(), false, 60, 12, 1000, 0.000001);
+        writer = new PerformanceDataWriter(repository, transactionManager, duplicateFilter);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void samplesOfARejectedBatchCanBeSavedOneByOne() {
+        assertTrue(writer.save(new PerformanceData(1, 10, 20.0, 100.0, 0.5, START)));
+        PerformanceData good = new PerformanceData(2, 10, 30.0, 90.0, 0.5, START);
+        PerformanceData redelivered = new PerformanceData(1, 10, 20.0, 100.0, 0.5, START);
+
+        assertThrows(DataIntegrityViolationException.class, () -> writer.saveAll(List.of(good, redelivered)));
+
+        assertTrue(writer.save(good));
+        assertFalse(writer.save(redelivered));
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void aRedeliveredSampleDoesNotFailTheRestOfThePoll() {
+        assertTrue(writer.save(new PerformanceData(1, 10, 20.0, 100.0, 0.5, START)));
+        NetworkPerformanceConsumer consumer = new NetworkPerformanceConsumer(writer, Mockito.mock(IngestionBuffer.class));
+
+        consumer.consumePerformanceDataBatch(List.of(
+                new ConsumerRecord<>("network-performance", 0, 0, null, new PerformanceData(2, 10, 30.0, 90.0, 0.5, START)),
+                new ConsumerRecord<>("network-performance", 0, 1, null, new PerformanceData(1, 10, 20.0, 100.0, 0.5, START)),
+                new ConsumerRecord<>("network-performance", 0, 2, null, new PerformanceData(3, 10, 40.0, 80.0, 0.5, START))));
+
+        assertEquals(3, repository.count());
+    }
+}
@@ -0,0 +1,67 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.storage.ColumnarSeriesStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RollingMetricsWindowsTest {
+
+    @Test
+    void summarizesOnlySamplesInsideTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        RollingMetricsWindows windows = new RollingMetricsWindows();
+        windows.beginReplay();
+        windows.visit(1, 1, ColumnarSeriesStore.toEpochMillis(now.minusHours(2)), 90.0, 10.0, 3.0);
+
+        windows.onIngested(List.of(
+                new PerformanceData(1, 1, 20.0, 100.0, 0.5, now.minusSeconds(10)),
+                new PerformanceData(2, 1, 40.0, 80.0, 1.5, now.minusSeconds(20)),
+                new PerformanceData(1, 1, 60.0, 60.0, 1.0, now.minusMinutes(30)),
+                new PerformanceData(1, 1, 99.0, 99.0, 9.0, now.minusHours(30))));
+
+        RollingWindow.WindowStats fiveMinutes = windows.summarize(Duration.ofMinutes(5));
+        assertEquals(2, fiveMinutes.count);
+        assertEquals(30.0, fiveMinutes.latency.average(fiveMinutes.count));
+        assertEquals(40.0, fiveMinutes.latency.maxOrZero());
+        assertEquals(80.0, fiveMinutes.throughput.minOrZero());
+
+        RollingWindow.WindowStats hour = windows.summarize(Duration.ofHours(1));
+        assertEquals(3, hour.count);
+        assertEquals(40.0, hour.latency.average(hour.count));
+
+        RollingWindow.WindowStats day = windows.summarize(Duration.ofHours(24));
+        assertEquals(4, day.count);
+        assertEquals(3.0, day.errorRate.maxOrZero());
+    }
+
+    @Test
+    void ignoresIngestBeforeReplayAndRejectsTooLongWindows() {
+        RollingMetricsWindows windows = new RollingMetricsWindows();
+
+        windows.onIngested(List.of(new PerformanceData(1, 1, 20.0, 100.0, 0.5, LocalDateTime.now())));
+
+        assertEquals(0, windows.summarize(Duration.ofMinutes(5)).count);
+        assertThrows(IllegalArgumentException.class, () -> windows.summarize(Duration.ofDays(2)));
+    }
+
+    @Test
+    void ringSlotsAreReusedForNewerBuckets() {
+        RollingWindow window = new RollingWindow(1000, 3);
+        window.add(0, 10, 10, 1);
+        window.add(3000, 20, 20, 2); // same slot as bucket 0
+        window.add(500, 30, 30, 3);   // older than what the slot holds now
+
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+        window.aggregate(0, 3999, stats);
+
+        assertEquals(1, stats.count);
+        assertEquals(20.0, stats.latency.sum);
+    }
+}
@@ -0,0 +1,201 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.model.PerformanceRollup;
+import com.ericsson.model.RollupScope;
+import com.ericsson.repository.PerformanceRollupRepository;
+import com.ericsson.storage.ColumnarSeriesStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class RollupStoreTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+
+    private final PerformanceRollupRepository repository = Mockito.mock(PerformanceRollupRepository.class);
+
+    private RollupStore store() {
+        RollupStore store = new RollupStore(repository, Mockito.mock(PlatformTransactionManager.class), 24, 7, 90, 60);
+        store.loadPersisted();
+        store.beginReplay();
+        return store;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return ColumnarSeriesStore.toEpochMillis(time);
+    }
+
+    @Test
+    void picksCoarsestAlignedResolution() {
+        RollupStore store = store();
+        store.visit(1, 10, millis(HOUR.minusDays(2)), 20.0, 100.0, 0.5);
+
+        assertEquals(RollupResolution.ONE_HOUR, store.resolutionFor(millis(HOUR), millis(HOUR.plusHours(1))).orElseThrow());
+        assertEquals(RollupResolution.FIVE_MINUTES, store.resolutionFor(millis(HOUR), millis(HOUR.plusMinutes(35))).orElseThrow());
+        assertEquals(RollupResolution.ONE_MINUTE, store.resolutionFor(millis(HOUR.plusMinutes(1)), millis(HOUR.plusMinutes(35))).orElseThrow());
+        assertTrue(store.resolutionFor(millis(HOUR.plusSeconds(1)), millis(HOUR.plusMinutes(35))).isEmpty());
+        // one-minute rollups are only kept for a day
+        assertEquals(RollupResolution.FIVE_MINUTES,
+                store.resolutionFor(millis(HOUR.minusDays(2)), millis(HOUR.minusDays(2).plusMinutes(5))).orElseThrow());
+    }
+
+    @Test
+    void fallsBackBeforeTheOldestBucketHeld() {
+        RollupStore store = store();
+        // nothing rolled up yet, e.g. on the first deploy
+        assertTrue(store.resolutionFor(millis(HOUR), millis(HOUR.plusHours(1))).isEmpty());
+
+        store.visit(1, 10, millis(HOUR.plusMinutes(7)), 20.0, 100.0, 0.5);
+        assertTrue(store.resolutionFor(millis(HOUR.minusHours(1)), millis(HOUR.plusHours(1))).isEmpty());
+        assertEquals(RollupResolution.FIVE_MINUTES,
+                store.resolutionFor(millis(HOUR.plusMinutes(5)), millis(HOUR.plusMinutes(10))).orElseThrow());
+        assertTrue(store.resolutionFor(millis(HOUR.plusMinutes(6)), millis(HOUR.plusMinutes(10))).isEmpty());
+    }
+
+    @Test
+    void aggregatesPerNodeAndAcrossNetworks() {
+        RollupStore store = store();
+        store.onIngested(List.of(
+                new PerformanceData(1, 10, 20.0, 100.0, 0.5, HOUR.plusMinutes(1)),
+                new PerformanceData(2, 10, 40.0, 80.0, 1.0, HOUR.plusMinutes(2)),
+                new PerformanceData(3, 11, 60.0, 60.0, 1.5, HOUR.plusMinutes(59))));
+
+        RollingWindow.WindowStats network10 = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_HOUR, RollupScope.NETWORK, 10, millis(HOUR), millis(HOUR.plusHours(1)), network10);
+        assertEquals(2, network10.count);
+        assertEquals(40.0, network10.latency.max);
+
+        RollingWindow.WindowStats all = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.FIVE_MINUTES, RollupScope.NETWORK, null, millis(HOUR), millis(HOUR.plusMinutes(5)), all);
+        assertEquals(2, all.count);
+        assertEquals(80.0, all.throughput.min);
+
+        RollingWindow.WindowStats node3 = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_MINUTE, RollupScope.NODE, 3, millis(HOUR), millis(HOUR.plusHours(1)), node3);
+        assertEquals(1, node3.count);
+
+        assertEquals(3, store.seriesCount(RollupScope.NODE));
+        assertEquals(2, store.seriesCount(RollupScope.NETWORK));
+    }
+
+    @Test
+    void splitsRollupsIntoChartBuckets() {
+        RollupStore store = store();
+        store.onIngested(List.of(
+                new PerformanceData(1, 10, 20.0, 100.0, 0.5, HOUR),
+                new PerformanceData(2, 10, 40.0, 80.0, 1.0, HOUR.plusMinutes(14)),
+                new PerformanceData(3, 11, 60.0, 60.0, 1.5, HOUR.plusMinutes(16))));
+
+        long bucketMillis = 15 * 60_000L;
+        assertEquals(RollupResolution.FIVE_MINUTES,
+                store.resolutionFor(millis(HOUR), millis(HOUR.plusMinutes(30)), bucketMillis).orElseThrow());
+        assertEquals(RollupResolution.ONE_MINUTE,
+                store.resolutionFor(millis(HOUR), millis(HOUR.plusMinutes(30)), 2 * 60_000L).orElseThrow());
+
+        Map<Integer, RollingWindow.WindowStats[]> networks = store.aggregateBuckets(RollupResolution.FIVE_MINUTES,
+                RollupScope.NETWORK, null, millis(HOUR), millis(HOUR.plusMinutes(30)), bucketMillis);
+        assertEquals(List.of(10, 11), List.copyOf(networks.keySet()));
+        assertEquals(2, networks.get(10)[0].count);
+        assertEquals(0, networks.get(10)[1].count);
+        assertEquals(1, networks.get(11)[1].count);
+
+        Map<Integer, RollingWindow.WindowStats[]> node2 = store.aggregateBuckets(RollupResolution.ONE_MINUTE,
+                RollupScope.NODE, 2, millis(HOUR), millis(HOUR.plusMinutes(30)), bucketMillis);
+        assertEquals(1, node2.size());
+        assertEquals(40.0, node2.get(2)[0].latency.max);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesClosedBucketsOnlyOnceUntilTheyChange() {
+        RollupStore store = store();
+        store.onIngested(List.of(new PerformanceData(1, 10, 20.0, 100.0, 0.5, HOUR.plusMinutes(1))));
+
+        store.flush();
+        // one bucket per resolution, for the node only, in a single batch
+        ArgumentCaptor<List<PerformanceRollup>> written = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(repository).upsertAll(written.capture());
+        assertEquals(3, written.getValue().size());
+        assertTrue(written.getValue().stream().allMatch(rollup -> rollup.getSampleCount() == 1
+                && rollup.getScope() == RollupScope.NODE && rollup.getNetworkId() == 10));
+
+        store.flush();
+        Mockito.verify(repository, Mockito.times(1)).upsertAll(any());
+
+        store.onIngested(List.of(new PerformanceData(1, 10, 30.0, 100.0, 0.5, HOUR.plusMinutes(1).plusSeconds(5))));
+        store.flush();
+        Mockito.verify(repository, Mockito.times(2)).upsertAll(written.capture());
+        assertEquals(3, written.getValue().size());
+        assertTrue(written.getValue().stream().allMatch(rollup -> rollup.getSampleCount() == 2));
+    }
+
+    @Test
+    void derivesNetworkRollupsFromPersistedNodeRollups() {
+        PerformanceRollup node1 = persisted(RollupScope.NODE, 1, HOUR, 2, 10.0, 30.0);
+        node1.setNetworkId(10);
+        PerformanceRollup node2 = persisted(RollupScope.NODE, 2, HOUR, 1, 50.0, 50.0);
+        node2.setNetworkId(10);
+        PerformanceRollup earlierNode = persisted(RollupScope.NODE, 1, HOUR.minusMinutes(1), 4, 5.0, 35.0);
+        earlierNode.setNetworkId(10);
+        Mockito.when(repository.findByResolutionSecondsAndScopeAndBucketStartGreaterThanEqual(eq(60), eq(RollupScope.NODE), any()))
+                .thenReturn(List.of(node1, earlierNode, node2));
+        RollupStore store = store();
+
+        RollingWindow.WindowStats current = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_MINUTE, RollupScope.NETWORK, 10, millis(HOUR), millis(HOUR.plusMinutes(1)), current);
+        assertEquals(3, current.count);
+        assertEquals(10.0, current.latency.min);
+        assertEquals(50.0, current.latency.max);
+
+        RollingWindow.WindowStats earlier = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_MINUTE, RollupScope.NETWORK, 10, millis(HOUR.minusMinutes(1)), millis(HOUR), earlier);
+        assertEquals(4, earlier.count);
+
+        // nothing older than the loaded buckets is replayed
+        store.visit(2, 10, millis(HOUR.plusSeconds(30)), 70.0, 1.0, 1.0);
+        RollingWindow.WindowStats afterReplay = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_MINUTE, RollupScope.NETWORK, 10, millis(HOUR), millis(HOUR.plusMinutes(1)), afterReplay);
+        assertEquals(3, afterReplay.count);
+    }
+
+    private static PerformanceRollup persisted(RollupScope scope, int scopeId, LocalDateTime bucketStart,
+                                               long count, double latencyMin, double latencyMax) {
+        PerformanceRollup rollup = new PerformanceRollup(60, scope, scopeId, bucketStart);
+        rollup.setSampleCount(count);
+        rollup.setLatencySum(count * (latencyMin + latencyMax) / 2);
+        rollup.setLatencyMin(latencyMin);
+        rollup.setLatencyMax(latencyMax);
+        return rollup;
+    }
+
+    @Test
+    void replaySkipsSamplesAlreadyInPersistedRollups() {
+        PerformanceRollup persisted = new PerformanceRollup(60, RollupScope.NODE, 1, HOUR);
+        persisted.setSampleCount(2);
+        persisted.setLatencySum(40.0);
+        persisted.setLatencyMin(10.0);
+        persisted.setLatencyMax(30.0);
+        Mockito.when(repository.findByResolutionSecondsAndScopeAndBucketStartGreaterThanEqual(eq(60), eq(RollupScope.NODE), any()))
+                .thenReturn(List.of(persisted));
+        RollupStore store = store();
+
+        store.visit(1, 10, millis(HOUR.plusSeconds(30)), 99.0, 1.0, 1.0);   // inside the persisted bucket
+        store.visit(1, 10, millis(HOUR.plusMinutes(1)), 50.0, 1.0, 1.0);
+
+        RollingWindow.WindowStats stats = new RollingWindow.WindowStats();
+        store.aggregate(RollupResolution.ONE_MINUTE, RollupScope.NODE, 1, millis(HOUR), millis(HOUR.plusMinutes(2)), stats);
+        assertEquals(3, stats.count);
+        assertEquals(90.0, stats.latency.sum);
+        assertEquals(50.0, stats.latency.max);
+    }
+}
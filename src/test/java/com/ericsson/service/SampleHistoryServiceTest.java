@@ -0,0 +1,69 @@
+package com.ericsson.service;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SampleHistoryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private final PerformanceDataRepository repository = mock(PerformanceDataRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SampleHistoryService service = new SampleHistoryService(repository, objectMapper, 100, 1000);
+
+    private static PerformanceData sample(long id, LocalDateTime timestamp) {
+        PerformanceData data = new PerformanceData(1, 10, 20.0, 100.0, 0.5, timestamp);
+        ReflectionTestUtils.setField(data, "id", id);
+        return data;
+    }
+
+    @Test
+    void writesThePageAndACursorWhenMoreRowsFollow() throws Exception {
+        when(repository.streamHistory(1, null, START, null, null, null, 3)).thenReturn(Stream.of(
+                sample(5, START), sample(9, START.plusSeconds(1)), sample(2, START.plusSeconds(2))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writePage(1, null, START, null, null, null, 2, out);
+
+        JsonNode page = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, page.get("items").size());
+        assertEquals(9, page.get("next").get("afterId").asLong());
+        assertEquals(START.plusSeconds(1), objectMapper.treeToValue(page.get("next").get("afterTimestamp"), LocalDateTime.class));
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        when(repository.streamHistory(null, null, null, null, START, 5L, 3)).thenReturn(Stream.of(sample(9, START)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writePage(null, null, null, null, START, 5L, 2, out);
+
+        JsonNode page = objectMapper.readTree(out.toByteArray());
+        assertEquals(1, page.get("items").size());
+        assertTrue(page.get("next").isNull());
+    }
+
+    @Test
+    void validatesPageSizeRangeAndCursor() {
+        assertEquals(100, service.resolvePageSize(null, null, null, null, null));
+        assertEquals(5, service.resolvePageSize(5, START, START.plusHours(1), null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.resolvePageSize(0, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.resolvePageSize(1001, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.resolvePageSize(null, START, START, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.resolvePageSize(null, null, null, START, null));
+    }
+}
@@ -0,0 +1,124 @@
+package com.ericsson.service;
+
+import com.ericsson.repository.PerformanceDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SampleRetentionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 10);
+
+    private final PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SampleRetentionService service(String strategy) {
+        return new SampleRetentionService(repository, jdbcTemplate, meterRegistry, strategy, 7, 2, 3, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPartitions(List<SampleRetentionService.Partition>... results) {
+        var stub = when(jdbcTemplate.query(anyString(), any(RowMapper.class)));
+        for (List<SampleRetentionService.Partition> result : results) {
+            stub = stub.thenReturn(result);
+        }
+    }
+
+    @Test
+    void deletesExpiredRowsInChunks() {
+        LocalDateTime cutoff = TODAY.atStartOfDay();
+        when(repository.findIdsOlderThan(cutoff, Limit.of(3)))
+                .thenReturn(List.of(1L, 2L, 3L))
+                .thenReturn(List.of(4L));
+
+        long deleted = service("delete").deleteExpiredRows(cutoff);
+
+        assertEquals(4, deleted);
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(repository).deleteAllByIdInBatch(List.of(4L));
+        assertEquals(4.0, meterRegistry.counter("retention.performance.data.rows.reclaimed").count());
+    }
+
+    @Test
+    void createsMissingPartitionsAheadBySplittingTheCatchAll() {
+        givenPartitions(List.of(
+                new SampleRetentionService.Partition("p20250610", 0, 0),
+                new SampleRetentionService.Partition("pmax", 0, 0)));
+
+        service(SampleRetentionService.PARTITIONS).ensurePartitions(TODAY);
+
+        verify(jdbcTemplate).execute("ALTER TABLE performance_data REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p20250611 VALUES LESS THAN ('2025-06-12 00:00:00'), "
+                + "PARTITION p20250612 VALUES LESS THAN ('2025-06-13 00:00:00'), "
+                + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void partitionsAnUnpartitionedTableFirst() {
+        givenPartitions(List.of(), List.of(
+                new SampleRetentionService.Partition("p20250609", 0, 0),
+                new SampleRetentionService.Partition("pmax", 0, 0)));
+
+        new SampleRetentionService(repository, jdbcTemplate, meterRegistry, SampleRetentionService.PARTITIONS, 7, 2, 3, true)
+                .ensurePartitions(TODAY);
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, Mockito.times(4)).execute(ddl.capture());
+        assertTrue(ddl.getAllValues().get(1).contains("ADD PRIMARY KEY (id, `timestamp`)"));
+        assertTrue(ddl.getAllValues().get(2).startsWith("ALTER TABLE performance_data PARTITION BY RANGE COLUMNS(`timestamp`)"));
+        assertTrue(ddl.getAllValues().get(3).contains("PARTITION p20250610 VALUES LESS THAN ('2025-06-11 00:00:00')"));
+    }
+
+    @Test
+    void leavesAnUnpartitionedTableAloneUnlessTheConversionIsEnabled() {
+        givenPartitions(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), Mockito.eq(Integer.class))).thenReturn(1);
+
+        assertFalse(service(SampleRetentionService.PARTITIONS).ensurePartitions(TODAY));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void dropsOnlyPartitionsThatEndedBeforeTheCutoff() {
+        givenPartitions(List.of(
+                new SampleRetentionService.Partition("p20250601", 100, 4096),
+                new SampleRetentionService.Partition("p20250602", 50, 2048),
+                new SampleRetentionService.Partition("p20250603", 70, 1024),
+                new SampleRetentionService.Partition("pmax", 0, 0)));
+
+        service(SampleRetentionService.PARTITIONS).dropExpiredPartitions(LocalDate.of(2025, 6, 3));
+
+        verify(jdbcTemplate).execute("ALTER TABLE performance_data DROP PARTITION p20250601, p20250602");
+        assertEquals(150.0, meterRegistry.counter("retention.performance.data.rows.reclaimed").count());
+        assertEquals(6144.0, meterRegistry.counter("retention.performance.data.bytes.reclaimed").count());
+        assertEquals(2.0, meterRegistry.counter("retention.performance.data.partitions.dropped").count());
+    }
+
+    @Test
+    void nothingExpiredMeansNoDdl() {
+        givenPartitions(List.of(new SampleRetentionService.Partition("pmax", 0, 0)));
+
+        service(SampleRetentionService.PARTITIONS).dropExpiredPartitions(TODAY);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
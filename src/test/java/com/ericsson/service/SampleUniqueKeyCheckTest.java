@@ -0,0 +1,79 @@
+package com.ericsson.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// DDL commits on H2, so the tests run outside the rolled back test transaction and clean up after themselves
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "schema.performance-data.repair-unique-key=false"})
+@Import(SampleUniqueKeyCheck.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SampleUniqueKeyCheckTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SampleUniqueKeyCheck startupCheck;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from performance_data");
+        if (!startupCheck.hasUniqueKey()) {
+            jdbcTemplate.execute("alter table performance_data add constraint "
+                    + SampleUniqueKeyCheck.UNIQUE_KEY + " unique (node_id, timestamp)");
+        }
+    }
+
+    private void givenDuplicateSamplesWithoutTheKey() {
+        jdbcTemplate.execute("alter table performance_data drop constraint " + SampleUniqueKeyCheck.UNIQUE_KEY);
+        insert(1, 1, START);
+        insert(2, 1, START);
+        insert(3, 1, START);
+        insert(4, 2, START);
+    }
+
+    private void insert(long id, int nodeId, LocalDateTime timestamp) {
+        jdbcTemplate.update("insert into performance_data (id, node_id, network_id, latency, throughput, error_rate, timestamp)"
+                + " values (?, ?, 10, 10.0, 100.0, 1.0, ?)", id, nodeId, timestamp);
+    }
+
+    @Test
+    void passesWhenTheKeyExists() {
+        assertTrue(startupCheck.hasUniqueKey());
+        assertDoesNotThrow(startupCheck::verify);
+    }
+
+    @Test
+    void failsLoudlyWhenTheKeyIsMissing() {
+        givenDuplicateSamplesWithoutTheKey();
+
+        assertThrows(IllegalStateException.class, startupCheck::verify);
+        assertEquals(4, jdbcTemplate.queryForObject("select count(*) from performance_data", Integer.class));
+    }
+
+    @Test
+    void repairDeletesDuplicatesAndAddsTheKey() {
+        givenDuplicateSamplesWithoutTheKey();
+
+        new SampleUniqueKeyCheck(jdbcTemplate, true).verify();
+
+        assertTrue(startupCheck.hasUniqueKey());
+        assertEquals(List.of(1L, 4L),
+                jdbcTemplate.queryForList("select id from performance_data order by id", Long.class));
+    }
+}
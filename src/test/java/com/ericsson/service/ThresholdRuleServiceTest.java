@@ -0,0 +1,167 @@
+package com.ericsson.service;
+
+import com.ericsson.dto.ThresholdRuleDto;
+import com.ericsson.exception.InvalidUserInputException;
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdRuleServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private NodeHealthClassifier classifier;
+    private KpiSummaryAggregator aggregator;
+    private AnomalyTracker anomalyTracker;
+    private LatestMetricsCache cache;
+    private ThresholdRuleService service;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new NodeHealthClassifier();
+        aggregator = new KpiSummaryAggregator(classifier);
+        anomalyTracker = new AnomalyTracker(classifier);
+        cache = new LatestMetricsCache(Mockito.mock(PerformanceDataRepository.class), List.of(aggregator, anomalyTracker));
+        service = new ThresholdRuleService(classifier, cache, aggregator, anomalyTracker);
+    }
+
+    private static ThresholdRuleDto rule(String scope, Integer scopeId) {
+        ThresholdRuleDto rule = new ThresholdRuleDto();
+        rule.setScope(scope);
+        rule.setScopeId(scopeId);
+        return rule;
+    }
+
+    @Test
+    void nodeRulesOverrideNetworkRulesOverrideGlobal() {
+        ThresholdRuleDto global = rule("global", null);
+        global.setHighLatency(80.0);
+        service.putRule(global);
+        ThresholdRuleDto network = rule("network", 2);
+        network.setHighLatency(60.0);
+        network.setLowThroughput(90.0);
+        service.putRule(network);
+        ThresholdRuleDto node = rule("NODE", 7);
+        node.setHighLatency(200.0);
+        node.setCriticalLatency(300.0);
+        service.putRule(node);
+
+        assertFalse(classifier.isHealthy(new PerformanceData(1, 1, 90.0, 100.0, 0.5, NOW)));  // global 80
+        assertFalse(classifier.isHealthy(new PerformanceData(3, 2, 70.0, 100.0, 0.5, NOW)));  // network 60
+        assertTrue(classifier.isHealthy(new PerformanceData(7, 2, 190.0, 100.0, 0.5, NOW)));  // node 200
+        assertFalse(classifier.isHealthy(new PerformanceData(7, 2, 190.0, 80.0, 0.5, NOW)));  // inherits network throughput
+        assertFalse(classifier.isCritical(new PerformanceData(7, 2, 250.0, 100.0, 0.5, NOW)));
+        assertTrue(classifier.isCritical(new PerformanceData(3, 2, 250.0, 100.0, 0.5, NOW)));
+
+        List<ThresholdRuleDto> rules = service.getRules();
+        assertEquals(3, rules.size());
+        assertEquals(80.0, rules.get(0).getHighLatency());
+        assertEquals(50.0, rules.get(0).getLowThroughput());
+    }
+
+    @Test
+    void changesReclassifyTheLatestSamples() {
+        cache.update(new PerformanceData(1, 1, 120.0, 100.0, 0.5, NOW));
+        cache.update(new PerformanceData(2, 1, 20.0, 100.0, 0.5, NOW));
+        assertEquals(1, aggregator.getSummary().get("healthyNodes"));
+        assertEquals(1, anomalyTracker.getAnomalies().size());
+
+        ThresholdRuleDto network = rule("network", 1);
+        network.setHighLatency(130.0);
+        service.putRule(network);
+
+        assertEquals(2, aggregator.getSummary().get("healthyNodes"));
+        assertTrue(anomalyTracker.getAnomalies().isEmpty());
+
+        assertTrue(service.deleteRule("network", 1));
+        assertFalse(service.deleteRule("network", 1));
+        assertEquals(1, anomalyTracker.getAnomalies().size());
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(rule("cluster", 1)));
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(rule("node", null)));
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(rule("global", 3)));
+        ThresholdRuleDto negative = rule("node", 3);
+        negative.setHighErrorRate(-1.0);
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(negative));
+    }
+
+    @Test
+    void rejectsChangesThatLeaveCriticalShortOfWarning() {
+        ThresholdRuleDto network = rule("network", 2);
+        network.setHighLatency(140.0);
+        service.putRule(network);
+
+        // the node would inherit critical latency 150 from network 2
+        ThresholdRuleDto node = rule("node", 7);
+        node.setHighLatency(200.0);
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(node));
+
+        // network 2 would then inherit critical latency 120 from the global rule
+        ThresholdRuleDto global = rule("global", null);
+        global.setHighLatency(100.0);
+        global.setCriticalLatency(120.0);
+        assertThrows(InvalidUserInputException.class, () -> service.putRule(global));
+
+        assertEquals(2, service.getRules().size());
+        assertEquals(150.0, service.getRules().get(0).getCriticalLatency());
+        assertFalse(classifier.isCritical(new PerformanceData(3, 2, 130.0, 100.0, 0.5, NOW)));
+    }
+
+    @Test
+    void changesRacingWithUpdatesLeaveTheAggregatesConsistent() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            Thread writer = new Thread(() -> {
+                Random random = new Random(seed);
+                long second = 0;
+                while (running.get()) {
+                    // whole numbers and halves, so incremental and fresh sums are exact
+                    cache.update(new PerformanceData(random.nextInt(20), random.nextInt(3),
+                            (double) random.nextInt(200), (double) random.nextInt(150),
+                            random.nextInt(10) / 2.0, NOW.plusSeconds(second++)));
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        ThresholdRuleDto network = rule("network", 1);
+        for (int i = 0; i < 500; i++) {
+            network.setHighLatency(i % 2 == 0 ? 60.0 : 140.0);
+            service.putRule(network);
+        }
+        running.set(false);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        KpiSummaryAggregator fresh = new KpiSummaryAggregator(classifier);
+        fresh.rebuild(cache.getLatest());
+        AnomalyTracker freshAnomalies = new AnomalyTracker(classifier);
+        freshAnomalies.rebuild(cache.getLatest());
+        assertEquals(withoutTimestamp(fresh.getSummary()), withoutTimestamp(aggregator.getSummary()));
+        assertEquals(freshAnomalies.getAnomalies(), anomalyTracker.getAnomalies());
+    }
+
+    private static Map<String, Object> withoutTimestamp(Map<String, Object> summary) {
+        Map<String, Object> copy = new HashMap<>(summary);
+        copy.remove("lastUpdated");
+        return copy;
+    }
+}
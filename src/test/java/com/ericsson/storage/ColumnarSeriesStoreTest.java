@@ -0,0 +1,118 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnarSeriesStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ColumnarSeriesStore store(int chunkSamples) {
+        ColumnarSeriesStore store = new ColumnarSeriesStore(meterRegistry, true, chunkSamples, 24);
+        store.beginReplay();
+        return store;
+    }
+
+    @Test
+    void scansHalfOpenRangeAcrossChunks() {
+        ColumnarSeriesStore store = store(4);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30);
+        List<PerformanceData> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(new PerformanceData(1, 7, 10.0 + i, 100.0 - i, 0.1 * i, start.plusSeconds(i)));
+        }
+        samples.add(new PerformanceData(2, 8, 50.0, 50.0, 1.0, start.plusSeconds(5)));
+        store.onIngested(samples);
+
+        long from = ColumnarSeriesStore.toEpochMillis(start.plusSeconds(2));
+        long to = ColumnarSeriesStore.toEpochMillis(start.plusSeconds(8));
+        double[] latencySum = new double[1];
+        long visited = store.scanNode(1, from, to, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+            assertEquals(1, nodeId);
+            assertEquals(7, networkId);
+            latencySum[0] += latency;
+        });
+
+        assertEquals(6, visited);
+        assertEquals(12.0 + 13 + 14 + 15 + 16 + 17, latencySum[0]);
+        assertEquals(7, store.scan(from, to, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+        assertEquals(2 * 4 * ColumnChunk.BYTES_PER_SAMPLE, meterRegistry.get("storage.columnar.off.heap.bytes").gauge().value());
+        assertEquals(8, meterRegistry.get("storage.columnar.compressed.samples").gauge().value());
+    }
+
+    @Test
+    void expiredBlocksAreEvicted() {
+        ColumnarSeriesStore store = store(2);
+        LocalDateTime old = LocalDateTime.now().minusHours(30);
+        for (int i = 0; i < 4; i++) {
+            store.append(new PerformanceData(1, 1, 10.0, 10.0, 0.1, old.plusSeconds(i)));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        store.append(new PerformanceData(1, 1, 20.0, 20.0, 0.2, now));
+
+        store.evictExpired();
+
+        assertEquals(1, store.scan(0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+        assertEquals(0, meterRegistry.get("storage.columnar.compressed.bytes").gauge().value());
+    }
+
+    @Test
+    void appendsAreNotBlockedByASlowScan() throws Exception {
+        ColumnarSeriesStore store = store(4);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30);
+        for (int i = 0; i < 6; i++) {
+            store.append(new PerformanceData(1, 7, 10.0, 100.0, 0.1, start.plusSeconds(i)));
+        }
+        ExecutorService ingest = Executors.newSingleThreadExecutor();
+        try {
+            long visited = store.scanNode(1, 0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+                // the visitor stalls until an append to the same node has gone through
+                try {
+                    ingest.submit(() -> store.append(new PerformanceData(1, 7, 10.0, 100.0, 0.1, start.plusMinutes(1))))
+                            .get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new AssertionError("append blocked by the scan", e);
+                }
+            });
+
+            assertEquals(6, visited);
+            assertEquals(12, store.scanNode(1, 0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+        } finally {
+            ingest.shutdownNow();
+        }
+    }
+
+    @Test
+    void scanReadsTheOpenChunkAsOfItsStartWhileItIsSealedAndReplaced() {
+        ColumnarSeriesStore store = store(4);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(30);
+        for (int i = 0; i < 3; i++) {
+            store.append(new PerformanceData(1, 7, 10.0 + i, 100.0, 0.1, start.plusSeconds(i)));
+        }
+
+        List<Double> latencies = new ArrayList<>();
+        long visited = store.scanNode(1, 0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+            if (latencies.isEmpty()) {
+                // fills and seals the chunk being scanned, then starts the next one
+                for (int i = 3; i < 8; i++) {
+                    store.append(new PerformanceData(1, 7, 99.0, 100.0, 0.1, start.plusSeconds(i)));
+                }
+            }
+            latencies.add(latency);
+        });
+
+        assertEquals(3, visited);
+        assertEquals(List.of(10.0, 11.0, 12.0), latencies);
+        assertEquals(8, store.scanNode(1, 0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+    }
+}
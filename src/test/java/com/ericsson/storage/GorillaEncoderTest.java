@@ -0,0 +1,73 @@
+package com.ericsson.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GorillaEncoderTest {
+
+    @Test
+    void roundTripsIrregularSamples() {
+        Random random = new Random(42);
+        int samples = 5000;
+        long[] timestamps = new long[samples];
+        int[] networks = new int[samples];
+        double[][] values = new double[samples][3];
+        long timestamp = 1_717_236_000_000L;
+        for (int i = 0; i < samples; i++) {
+            // mostly regular, with jitter, gaps and the odd out-of-order sample
+            timestamp += switch (i % 50) {
+                case 7 -> -1500;
+                case 13 -> 3_600_000;
+                default -> 1000 + random.nextInt(20);
+            };
+            timestamps[i] = timestamp;
+            networks[i] = i < 2500 ? 3 : -7;
+            values[i][0] = i % 10 == 0 ? values[Math.max(0, i - 1)][0] : random.nextDouble() * 200;
+            values[i][1] = Math.round(random.nextDouble() * 1000) / 10.0;
+            values[i][2] = i % 3 == 0 ? Double.NaN : -random.nextDouble();
+        }
+
+        GorillaEncoder encoder = new GorillaEncoder();
+        for (int i = 0; i < samples; i++) {
+            encoder.add(timestamps[i], networks[i], values[i][0], values[i][1], values[i][2]);
+        }
+        CompressedBlock block = encoder.seal();
+
+        GorillaDecoder decoder = new GorillaDecoder();
+        decoder.reset(block);
+        for (int i = 0; i < samples; i++) {
+            assertTrue(decoder.next());
+            assertEquals(timestamps[i], decoder.timestamp(), "timestamp " + i);
+            assertEquals(networks[i], decoder.networkId());
+            assertEquals(values[i][0], decoder.latency());
+            assertEquals(values[i][1], decoder.throughput());
+            assertEquals(values[i][2], decoder.errorRate());
+        }
+        assertFalse(decoder.next());
+        assertEquals(samples, block.count());
+    }
+
+    @Test
+    void steadySeriesCompressesAnOrderOfMagnitude() {
+        GorillaEncoder encoder = new GorillaEncoder();
+        long timestamp = 1_717_236_000_000L;
+        for (int i = 0; i < 4096; i++) {
+            encoder.add(timestamp + i * 1000L, 1, 25.0 + (i % 4) * 0.5, 100.0, 0.5);
+        }
+        CompressedBlock block = encoder.seal();
+
+        assertTrue(block.sizeInBytes() * 10 < 4096L * ColumnChunk.BYTES_PER_SAMPLE,
+                "compressed to " + block.sizeInBytes() + " bytes");
+
+        // the encoder starts a fresh block after sealing
+        encoder.add(5, 2, 1.0, 2.0, 3.0);
+        GorillaDecoder decoder = new GorillaDecoder();
+        decoder.reset(encoder.seal());
+        assertTrue(decoder.next());
+        assertEquals(5, decoder.timestamp());
+        assertEquals(3.0, decoder.errorRate());
+    }
+}
@@ -0,0 +1,72 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import com.ericsson.repository.PerformanceDataRepository;
+import com.ericsson.service.MetricsViewFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistoryReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fallsBackToDatabaseUntilTheLogCoversTheWindow() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        SegmentLog log = new SegmentLog(new SimpleMeterRegistry(), true, directory.toString(), 16, 48);
+        log.append(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusMinutes(1)));
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        Mockito.when(repository.streamSamplesSince(Mockito.any())).thenReturn(Stream.of(
+                new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusHours(3)),
+                new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusMinutes(1))));
+        ColumnarSeriesStore store = new ColumnarSeriesStore(new SimpleMeterRegistry(), true, 64, 2);
+
+        new HistoryReplayer(List.of(store), log, repository, Mockito.mock(MetricsViewFeed.class), 24).replay();
+
+        // the log only reaches back one minute, so the two-hour window comes from the database
+        Mockito.verify(repository).streamSamplesSince(Mockito.any());
+        assertEquals(1, store.scan(0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+    }
+
+    @Test
+    void replaysFromTheLogWhenItCoversTheWindow() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        SegmentLog log = new SegmentLog(new SimpleMeterRegistry(), true, directory.toString(), 16, 48);
+        log.append(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusHours(5)));
+        log.append(new PerformanceData(2, 1, 10.0, 100.0, 0.5, now.minusMinutes(30)));
+        PerformanceDataRepository repository = Mockito.mock(PerformanceDataRepository.class);
+        ColumnarSeriesStore store = new ColumnarSeriesStore(new SimpleMeterRegistry(), true, 64, 2);
+
+        new HistoryReplayer(List.of(store), log, repository, Mockito.mock(MetricsViewFeed.class), 24).replay();
+
+        Mockito.verifyNoInteractions(repository);
+        assertEquals(1, store.scan(0, Long.MAX_VALUE, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> { }));
+    }
+
+    @Test
+    void viewFeedStartsAfterTheReplayedSamples() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        SegmentLog log = new SegmentLog(new SimpleMeterRegistry(), true, directory.toString(), 16, 48);
+        log.append(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusHours(5)));
+        log.append(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusMinutes(30)));
+        ColumnarSeriesStore store = new ColumnarSeriesStore(new SimpleMeterRegistry(), true, 64, 2);
+        MetricsViewFeed viewFeed = Mockito.mock(MetricsViewFeed.class);
+
+        new HistoryReplayer(List.of(store), log, Mockito.mock(PerformanceDataRepository.class), viewFeed, 24).replay();
+
+        InOrder inOrder = Mockito.inOrder(viewFeed);
+        inOrder.verify(viewFeed).markReplayed(1, ColumnarSeriesStore.toEpochMillis(now.minusMinutes(30)));
+        inOrder.verify(viewFeed).start(Mockito.anyLong());
+    }
+}
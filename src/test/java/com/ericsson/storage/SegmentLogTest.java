@@ -0,0 +1,140 @@
+package com.ericsson.storage;
+
+import com.ericsson.model.PerformanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SegmentLog open() {
+        return new SegmentLog(meterRegistry, true, directory.toString(), 4, 48);
+    }
+
+    private static List<Integer> replayNodeIds(SegmentLog log, long sinceMillis) throws IOException {
+        List<Integer> nodeIds = new ArrayList<>();
+        log.replay(sinceMillis, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> nodeIds.add(nodeId));
+        return nodeIds;
+    }
+
+    @Test
+    void rollsSegmentsAndResumesAfterReopen() throws IOException {
+        SegmentLog log = open();
+        for (int i = 0; i < 6; i++) {
+            log.append(new PerformanceData(i, 1, 10.0 + i, 100.0, 0.5, START.plusSeconds(i)));
+        }
+        log.close();
+
+        try (var files = Files.list(directory)) {
+            // two segments, and the newest timestamp of the sealed one
+            assertEquals(List.of("00000000000000000000.max", "00000000000000000000.seg", "00000000000000000001.seg"),
+                    files.map(path -> path.getFileName().toString()).sorted().toList());
+        }
+
+        SegmentLog reopened = open();
+        reopened.append(new PerformanceData(6, 1, 16.0, 100.0, 0.5, START.plusSeconds(6)));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), replayNodeIds(reopened, 0));
+        assertEquals(List.of(4, 5, 6), replayNodeIds(reopened, ColumnarSeriesStore.toEpochMillis(START.plusSeconds(4))));
+        assertEquals(ColumnarSeriesStore.toEpochMillis(START), reopened.getOldestTimestamp().getAsLong());
+    }
+
+    @Test
+    void replayRestoresValuesAndSkipsCorruptRecords() throws IOException {
+        SegmentLog log = open();
+        log.append(new PerformanceData(1, 3, 12.5, 99.5, 0.25, START));
+        log.append(new PerformanceData(2, 3, 20.0, 80.0, 1.0, START.plusSeconds(1)));
+        log.close();
+
+        // flip a byte in the latency of the first record
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d.seg", 0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 30);
+        }
+
+        double[] values = new double[4];
+        long replayed = open().replay(0, (nodeId, networkId, timestamp, latency, throughput, errorRate) -> {
+            values[0] = nodeId;
+            values[1] = networkId;
+            values[2] = latency;
+            values[3] = throughput;
+        });
+
+        assertEquals(1, replayed);
+        assertArrayEquals(new double[]{2, 3, 20.0, 80.0}, values);
+        assertEquals(1.0, meterRegistry.get("storage.segment.log.corrupt").counter().count());
+    }
+
+    @Test
+    void deletesSegmentsByTheirRecordTimestamps() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        SegmentLog log = open();
+        for (int i = 0; i < 4; i++) {
+            log.append(new PerformanceData(i, 1, 10.0, 100.0, 0.5, now.minusDays(3).plusSeconds(i)));
+        }
+        for (int i = 4; i < 7; i++) {
+            log.append(new PerformanceData(i, 1, 10.0, 100.0, 0.5, now.minusDays(3).plusSeconds(i)));
+        }
+        log.append(new PerformanceData(7, 1, 10.0, 100.0, 0.5, now.minusHours(1)));
+        log.append(new PerformanceData(8, 1, 10.0, 100.0, 0.5, now));
+
+        // all files were just written, so only the record timestamps tell the first segment has expired
+        log.deleteExpiredSegments();
+
+        assertEquals(List.of(4, 5, 6, 7, 8), replayNodeIds(log, 0));
+        assertEquals(List.of(7, 8), replayNodeIds(log, ColumnarSeriesStore.toEpochMillis(now.minusHours(2))));
+    }
+
+    @Test
+    void judgesSealedSegmentsByTheirNewestRecord() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        SegmentLog log = open();
+        // a late recent sample between old ones: neither the first nor the last record is the newest
+        log.append(new PerformanceData(0, 1, 10.0, 100.0, 0.5, now.minusDays(3)));
+        log.append(new PerformanceData(1, 1, 10.0, 100.0, 0.5, now.minusMinutes(5)));
+        log.append(new PerformanceData(2, 1, 10.0, 100.0, 0.5, now.minusDays(3)));
+        log.append(new PerformanceData(3, 1, 10.0, 100.0, 0.5, now.minusDays(3)));
+        log.append(new PerformanceData(4, 1, 10.0, 100.0, 0.5, now));
+
+        log.deleteExpiredSegments();
+
+        assertEquals(List.of(1, 4), replayNodeIds(log, ColumnarSeriesStore.toEpochMillis(now.minusHours(1))));
+        assertEquals(List.of(0, 1, 2, 3, 4), replayNodeIds(log, 0));
+
+        // without the file written on seal the segment is scanned instead
+        Files.delete(directory.resolve(String.format("%020d.max", 0)));
+        assertEquals(List.of(1, 4), replayNodeIds(open(), ColumnarSeriesStore.toEpochMillis(now.minusHours(1))));
+    }
+
+    @Test
+    void oldestTimestampRequiresAnIntactFirstRecord() throws IOException {
+        SegmentLog log = open();
+        log.append(new PerformanceData(1, 3, 12.5, 99.5, 0.25, START));
+        log.close();
+
+        // flip a byte in the timestamp of the first record
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d.seg", 0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 20);
+        }
+
+        assertTrue(open().getOldestTimestamp().isEmpty());
+    }
+}